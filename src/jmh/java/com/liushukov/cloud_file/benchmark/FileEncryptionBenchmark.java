@@ -0,0 +1,100 @@
+package com.liushukov.cloud_file.benchmark;
+
+import com.liushukov.cloud_file.service.FileEncryptionService;
+import com.liushukov.cloud_file.service.impl.FileEncryptionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded throughput of the chunked AES-GCM file encryption. Every operation processes one
+ * MiB, so the reported ops/s read directly as MiB/s per core. The range case decrypts one 64 KiB
+ * window at a random offset of a 64 MiB file and reports windows per second.
+ *
+ * <pre>./gradlew jmh -PjmhInclude=FileEncryptionBenchmark</pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class FileEncryptionBenchmark {
+    private static final String MASTER_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+    private static final long USER_ID = 1L;
+    private static final String FILE_ID = "0f8fad5b-d9cb-469f-a165-70867728950e.bin";
+    private static final int MEBIBYTE = 1 << 20;
+    private static final int RANGE_FILE_SIZE = 64 * MEBIBYTE;
+    private static final int RANGE_LENGTH = 64 * 1024;
+
+    @Param({"16384", "65536", "262144"})
+    private int chunkSize;
+
+    private FileEncryptionService fileEncryptionService;
+    private byte[] content;
+    private byte[] buffer;
+    private Path encryptedFile;
+    private Path largeEncryptedFile;
+    private Random random;
+
+    @Setup
+    public void setUp() throws IOException {
+        fileEncryptionService = new FileEncryptionServiceImpl(MASTER_KEY, chunkSize);
+        content = new byte[MEBIBYTE];
+        random = new Random(42);
+        random.nextBytes(content);
+        buffer = new byte[8192];
+        encryptedFile = encrypt(content);
+        largeEncryptedFile = encrypt(new byte[RANGE_FILE_SIZE]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(encryptedFile);
+        Files.deleteIfExists(largeEncryptedFile);
+    }
+
+    @Benchmark
+    public long encrypt() throws IOException {
+        return fileEncryptionService.encrypt(
+                USER_ID, FILE_ID, new ByteArrayInputStream(content), OutputStream.nullOutputStream()
+        );
+    }
+
+    @Benchmark
+    public long decrypt() throws IOException {
+        try (InputStream plaintext = fileEncryptionService.decrypt(USER_ID, FILE_ID, encryptedFile)) {
+            return drain(plaintext, Long.MAX_VALUE);
+        }
+    }
+
+    @Benchmark
+    public long decryptRange() throws IOException {
+        try (InputStream plaintext = fileEncryptionService.decrypt(USER_ID, FILE_ID, largeEncryptedFile)) {
+            plaintext.skip(random.nextInt(RANGE_FILE_SIZE - RANGE_LENGTH));
+            return drain(plaintext, RANGE_LENGTH);
+        }
+    }
+
+    private long drain(InputStream plaintext, long limit) throws IOException {
+        long total = 0;
+        int read;
+        while (total < limit && (read = plaintext.read(buffer, 0, (int) Math.min(buffer.length, limit - total))) > 0) {
+            total += read;
+        }
+        return total;
+    }
+
+    private Path encrypt(byte[] plaintext) throws IOException {
+        Path file = Files.createTempFile("file-encryption-benchmark", ".bin");
+        try (OutputStream target = Files.newOutputStream(file)) {
+            fileEncryptionService.encrypt(USER_ID, FILE_ID, new ByteArrayInputStream(plaintext), target);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,91 @@
+package com.liushukov.cloud_file.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.liushukov.cloud_file.config.JacksonConfiguration;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserViews;
+import com.liushukov.cloud_file.entity.Role;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a page of 1000 user profiles, the largest admin listing page, with the mapper Spring Boot
+ * builds by default, with {@link JacksonConfiguration} applied, and with the compact list view on top.
+ * Output goes to a reused stream the way the message converter streams into the response.
+ *
+ * <pre>./gradlew jmh -PjmhInclude=JsonSerializationBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonSerializationBenchmark {
+    private static final int PAGE_SIZE = 1000;
+
+    private ObjectWriter defaultWriter;
+    private ObjectWriter tunedWriter;
+    private ObjectWriter compactWriter;
+    private List<UserProfileDto> page;
+
+    @Setup
+    public void setUp() {
+        defaultWriter = buildMapper(JacksonAutoConfiguration.class).writer();
+        ObjectMapper tunedMapper = buildMapper(JacksonAutoConfiguration.class, JacksonConfiguration.class);
+        tunedWriter = tunedMapper.writer();
+        compactWriter = tunedMapper.writerWithView(UserViews.Compact.class);
+
+        page = new ArrayList<>(PAGE_SIZE);
+        Instant now = Instant.now();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(new UserProfileDto(
+                    (long) i + 1,
+                    now.minusSeconds(86_400L * i),
+                    now.minusSeconds(3_600L * i),
+                    "Benchmark User " + i,
+                    "benchmark.user" + i + "@example.com",
+                    i % 50 == 0 ? Role.ADMIN : Role.USER,
+                    i % 10 != 0
+            ));
+        }
+    }
+
+    private static ObjectMapper buildMapper(Class<?>... configurations) {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(configurations)) {
+            return context.getBean(ObjectMapper.class);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Output {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream(256 * PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int defaultMapper(Output output) throws IOException {
+        return write(defaultWriter, output);
+    }
+
+    @Benchmark
+    public int tunedMapper(Output output) throws IOException {
+        return write(tunedWriter, output);
+    }
+
+    @Benchmark
+    public int tunedMapperCompactView(Output output) throws IOException {
+        return write(compactWriter, output);
+    }
+
+    private int write(ObjectWriter writer, Output output) throws IOException {
+        output.stream.reset();
+        writer.writeValue(output.stream, page);
+        return output.stream.size();
+    }
+}
@@ -0,0 +1,101 @@
+package com.liushukov.cloud_file.benchmark;
+
+import com.liushukov.cloud_file.config.JwtKeyRing;
+import com.liushukov.cloud_file.config.JwtSigningProperties;
+import com.liushukov.cloud_file.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verify cost per token: the previous HS256 path that decoded the secret and built a parser for every
+ * call, against the preloaded key ring for HS256, RS256 and ES256.
+ *
+ * <pre>./gradlew jmh -PjmhInclude=JwtVerifyBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerifyBenchmark {
+    private static final String SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+    private static final long EXPIRATION = 3_600_000L;
+
+    private JwtService hs256Service;
+    private JwtService rs256Service;
+    private JwtService es256Service;
+    private String hs256Token;
+    private String rs256Token;
+    private String es256Token;
+
+    @Setup
+    public void setUp() throws Exception {
+        UserDetails user = User.withUsername("benchmark@example.com").password("unused").roles("USER").build();
+
+        hs256Service = new JwtService(new JwtKeyRing(new JwtSigningProperties(null, true, null), SECRET_KEY), EXPIRATION);
+        hs256Token = hs256Service.generateToken(user);
+
+        rs256Service = new JwtService(keyRing("rsa-1", "RS256", generateRsa()), EXPIRATION);
+        rs256Token = rs256Service.generateToken(user);
+
+        es256Service = new JwtService(keyRing("ec-1", "ES256", generateEc()), EXPIRATION);
+        es256Token = es256Service.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims hs256PerCallKey() {
+        return Jwts
+                .parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                .build()
+                .parseClaimsJws(hs256Token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims hs256KeyRing() {
+        return hs256Service.extractAllClaims(hs256Token);
+    }
+
+    @Benchmark
+    public Claims rs256KeyRing() {
+        return rs256Service.extractAllClaims(rs256Token);
+    }
+
+    @Benchmark
+    public Claims es256KeyRing() {
+        return es256Service.extractAllClaims(es256Token);
+    }
+
+    private static JwtKeyRing keyRing(String keyId, String algorithm, KeyPair keyPair) {
+        JwtSigningProperties.Key key = new JwtSigningProperties.Key(
+                keyId,
+                algorithm,
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())
+        );
+        return new JwtKeyRing(new JwtSigningProperties(keyId, false, List.of(key)), "");
+    }
+
+    private static KeyPair generateRsa() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static KeyPair generateEc() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+}
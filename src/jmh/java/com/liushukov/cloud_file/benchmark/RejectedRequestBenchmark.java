@@ -0,0 +1,101 @@
+package com.liushukov.cloud_file.benchmark;
+
+import com.liushukov.cloud_file.config.JwtKeyRing;
+import com.liushukov.cloud_file.config.JwtSigningProperties;
+import com.liushukov.cloud_file.exception.ApiError;
+import com.liushukov.cloud_file.exception.GlobalExceptionHandler;
+import com.liushukov.cloud_file.exception.RevokedTokenException;
+import com.liushukov.cloud_file.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejected-request throughput of the JWT filter error path: the previous route through the handler
+ * exception resolver and Jackson, against the precomputed {@link ApiError} bodies. The revoked case
+ * isolates the response cost, the invalid signature case includes the JJWT parse and its exception.
+ *
+ * <pre>./gradlew jmh -PjmhInclude=RejectedRequestBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RejectedRequestBenchmark {
+    private static final String SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+    private static final String FOREIGN_SECRET_KEY = "9b1f0c2d4e6a8b0c1d3e5f7a9b2c4d6e8f0a1b3c5d7e9f1a2b4c6d8e0f1a3b5c";
+    private static final long EXPIRATION = 3_600_000L;
+
+    private ExceptionHandlerExceptionResolver resolver;
+    private JwtService jwtService;
+    private MockHttpServletRequest request;
+    private String foreignToken;
+
+    @Setup
+    public void setUp() {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerSingleton("globalExceptionHandler", GlobalExceptionHandler.class);
+        context.refresh();
+
+        resolver = new ExceptionHandlerExceptionResolver();
+        resolver.setMessageConverters(List.of(
+                new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build())
+        ));
+        resolver.setApplicationContext(context);
+        resolver.afterPropertiesSet();
+
+        UserDetails user = User.withUsername("benchmark@example.com").password("unused").roles("USER").build();
+        jwtService = new JwtService(new JwtKeyRing(new JwtSigningProperties(null, true, null), SECRET_KEY), EXPIRATION);
+        foreignToken = new JwtService(
+                new JwtKeyRing(new JwtSigningProperties(null, true, null), FOREIGN_SECRET_KEY),
+                EXPIRATION
+        ).generateToken(user);
+
+        request = new MockHttpServletRequest("GET", "/users/me");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse revokedTokenResolver() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        resolver.resolveException(request, response, null, RevokedTokenException.TOKEN_REVOKED);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse revokedTokenPrecomputed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ApiError.forException(RevokedTokenException.TOKEN_REVOKED).write(request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse invalidSignatureResolver() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtService.extractAllClaims(foreignToken);
+        } catch (JwtException exception) {
+            resolver.resolveException(request, response, null, exception);
+        }
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse invalidSignaturePrecomputed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtService.extractAllClaims(foreignToken);
+        } catch (JwtException exception) {
+            ApiError.forException(exception).write(request, response);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,103 @@
+package com.liushukov.cloud_file.benchmark;
+
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.repository.impl.UserJdbcRepositoryImpl;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin user search latency against a seeded Postgres table. Sample mode reports p99 per search mode;
+ * the target is below 10 ms with a few million rows.
+ *
+ * <pre>
+ * BENCHMARK_DB_URL=jdbc:postgresql://localhost:5432/cloud_file BENCHMARK_DB_USERNAME=postgres \
+ * BENCHMARK_DB_PASSWORD=postgres BENCHMARK_USER_ROWS=3000000 ./gradlew jmh -PjmhInclude=UserSearchBenchmark
+ * </pre>
+ *
+ * The database is migrated with the application's Flyway scripts and topped up to the requested
+ * number of rows once; later runs reuse the data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserSearchBenchmark {
+    private static final String[] FIRST_NAMES = {
+            "Olivia", "Liam", "Amelia", "Noah", "Isla", "Oliver", "Ava", "Elijah", "Mia", "Lucas",
+            "Sofia", "Mateo", "Freya", "Hugo", "Ingrid", "Tomasz", "Yuki", "Anya", "Kwame", "Leila"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Kowalski", "Nakamura", "Okafor", "Haddad", "Johansson", "Garcia", "Petrov", "Nguyen", "Muller",
+            "Rossi", "Dubois", "Fernandes", "Lindqvist", "Novak", "Tanaka", "Mensah", "Horvat", "Kaur", "Walsh"
+    };
+    private static final String[] QUERIES = {"kowal", "nakamu", "haddad", "lindq", "okafor", "freya.h", "tomasz"};
+    private static final String[] FUZZY_QUERIES = {"Olivya Kowalsky", "Hugo Lindkvist", "Leyla Hadad", "Tomas Novack"};
+
+    @Param({"prefix", "substring", "fuzzy"})
+    public String mode;
+
+    private SingleConnectionDataSource dataSource;
+    private UserJdbcRepositoryImpl repository;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        String url = System.getenv().getOrDefault("BENCHMARK_DB_URL", "jdbc:postgresql://localhost:5432/cloud_file");
+        String username = System.getenv().getOrDefault("BENCHMARK_DB_USERNAME", "postgres");
+        String password = System.getenv().getOrDefault("BENCHMARK_DB_PASSWORD", "postgres");
+        long rows = Long.parseLong(System.getenv().getOrDefault("BENCHMARK_USER_ROWS", "3000000"));
+
+        dataSource = new SingleConnectionDataSource(url, username, password, true);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        seed(rows);
+        repository = new UserJdbcRepositoryImpl(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<UserProfileDto> search() {
+        int index = next++;
+        return switch (mode) {
+            case "prefix" -> repository.searchUserProfilesByPattern(QUERIES[index % QUERIES.length] + "%", 0L, 21);
+            case "fuzzy" -> repository.searchUserProfilesBySimilarity(
+                    FUZZY_QUERIES[index % FUZZY_QUERIES.length], 0L, 21);
+            default -> repository.searchUserProfilesByPattern("%" + QUERIES[index % QUERIES.length] + "%", 0L, 21);
+        };
+    }
+
+    private void seed(long rows) throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            long existing;
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+                resultSet.next();
+                existing = resultSet.getLong(1);
+            }
+            if (existing >= rows) {
+                return;
+            }
+            String firstNames = "ARRAY['" + String.join("','", FIRST_NAMES) + "']";
+            String lastNames = "ARRAY['" + String.join("','", LAST_NAMES) + "']";
+            statement.executeUpdate(
+                    "INSERT INTO users(created_at, updated_at, full_name, email, password, role, enabled) " +
+                    "SELECT NOW(), NOW(), " +
+                    "(" + firstNames + ")[1 + i % 20] || ' ' || (" + lastNames + ")[1 + (i / 20) % 20] " +
+                    "|| ' ' || substr(md5(i::text), 1, 6), " +
+                    "lower((" + firstNames + ")[1 + i % 20]) || '.' || lower((" + lastNames + ")[1 + (i / 20) % 20]) " +
+                    "|| '.' || i || '@example.com', " +
+                    "'benchmark', 'USER', TRUE " +
+                    "FROM generate_series(" + (existing + 1) + ", " + rows + ") AS i");
+            statement.execute("ANALYZE users");
+        }
+    }
+}
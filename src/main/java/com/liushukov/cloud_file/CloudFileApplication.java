@@ -2,8 +2,10 @@ package com.liushukov.cloud_file;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC is only used by the WebFlux variant in the reactive package, which has its own entry point
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class CloudFileApplication {
 
 	public static void main(String[] args) {
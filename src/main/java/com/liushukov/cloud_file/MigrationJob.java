@@ -0,0 +1,25 @@
+package com.liushukov.cloud_file;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+
+/**
+ * Applies the Flyway migrations and exits, for deployments that start the service with
+ * {@code app.flyway.deferred=true}. Reads the same {@code spring.datasource} and {@code spring.flyway}
+ * settings as the service:
+ *
+ * <pre>java -Dloader.main=com.liushukov.cloud_file.MigrationJob -cp cloud-file.jar org.springframework.boot.loader.launch.PropertiesLauncher</pre>
+ */
+public class MigrationJob {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(
+                DataSourceAutoConfiguration.class,
+                FlywayAutoConfiguration.class
+        );
+        application.setWebApplicationType(WebApplicationType.NONE);
+        System.exit(SpringApplication.exit(application.run(args)));
+    }
+}
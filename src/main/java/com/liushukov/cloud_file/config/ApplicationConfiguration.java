@@ -1,8 +1,10 @@
 package com.liushukov.cloud_file.config;
 
-import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.PrincipalCacheService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -13,16 +15,18 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
+@EnableConfigurationProperties(JwtSigningProperties.class)
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class ApplicationConfiguration {
-    private final UserRepository userRepository;
+    private final PrincipalCacheService principalCacheService;
 
-    public ApplicationConfiguration(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public ApplicationConfiguration(PrincipalCacheService principalCacheService) {
+        this.principalCacheService = principalCacheService;
     }
 
     @Bean
     UserDetailsService userDetailsService() {
-        return username -> userRepository.findUserByEmail(username)
+        return username -> principalCacheService.getPrincipal(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
@@ -0,0 +1,23 @@
+package com.liushukov.cloud_file.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfiguration {
+
+    /**
+     * With {@code app.flyway.deferred} the application neither migrates nor validates the schema on
+     * startup; {@link com.liushukov.cloud_file.MigrationJob} is expected to have run before the rollout.
+     */
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${app.flyway.deferred:false}") boolean deferred) {
+        return flyway -> {
+            if (!deferred) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.liushukov.cloud_file.config;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.InMemoryPersistedQueryCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GraphQlConfiguration {
+    @Bean
+    Instrumentation maxQueryDepthInstrumentation(@Value("${app.graphql.max-query-depth:10}") int maxQueryDepth) {
+        return new MaxQueryDepthInstrumentation(maxQueryDepth);
+    }
+
+    @Bean
+    Instrumentation maxQueryComplexityInstrumentation(
+            @Value("${app.graphql.max-query-complexity:200}") int maxQueryComplexity
+    ) {
+        return new MaxQueryComplexityInstrumentation(maxQueryComplexity);
+    }
+
+    // Apollo automatic persisted queries: a known sha256Hash is served from the parsed and validated document cache
+    @Bean
+    GraphQlSourceBuilderCustomizer persistedQueryCustomizer() {
+        return builder -> builder.configureGraphQl(graphQlBuilder -> graphQlBuilder.preparsedDocumentProvider(
+                new ApolloPersistedQuerySupport(InMemoryPersistedQueryCache.newInMemoryPersistedQueryCache().build())
+        ));
+    }
+}
@@ -1,6 +1,13 @@
 package com.liushukov.cloud_file.config;
 
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.exception.ApiError;
+import com.liushukov.cloud_file.exception.RevokedTokenException;
 import com.liushukov.cloud_file.service.JwtService;
+import com.liushukov.cloud_file.service.PresignedUrlService;
+import com.liushukov.cloud_file.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,21 +26,33 @@ import java.io.IOException;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final WebAuthenticationDetailsSource DETAILS_SOURCE = new WebAuthenticationDetailsSource();
+
     private final HandlerExceptionResolver handlerExceptionResolver;
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
     public JwtAuthenticationFilter(
             JwtService jwtService,
             UserDetailsService userDetailsService,
+            TokenRevocationService tokenRevocationService,
             HandlerExceptionResolver handlerExceptionResolver
     ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
         this.handlerExceptionResolver = handlerExceptionResolver;
     }
 
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // signed download URLs are checked by the controller and never need a principal
+        return request.getRequestURI().startsWith(
+                request.getContextPath() + PresignedUrlService.PUBLIC_DOWNLOAD_PATH);
+    }
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -49,26 +68,45 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
+            final Claims claims = jwtService.extractAllClaims(jwt);
+            final String userEmail = claims.getSubject();
+
+            if (tokenRevocationService.isTokenRevoked(claims.getId())) {
+                throw RevokedTokenException.TOKEN_REVOKED;
+            }
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
             if (userEmail != null && authentication == null) {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails instanceof AuthenticatedUser principal && tokenRevocationService.isUserTokenRevoked(
+                        principal.id(),
+                        claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant()
+                )) {
+                    throw RevokedTokenException.USER_TOKENS_REVOKED;
+                }
+
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
                             userDetails.getAuthorities()
                     );
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    authToken.setDetails(DETAILS_SOURCE.buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
 
             filterChain.doFilter(request, response);
+        } catch (JwtException | RevokedTokenException exception) {
+            // rejected tokens are the bulk of hostile traffic, answer them without the resolver chain
+            if (response.isCommitted()) {
+                handlerExceptionResolver.resolveException(request, response, null, exception);
+            } else {
+                ApiError.forException(exception).write(request, response);
+            }
         } catch (Exception exception) {
             handlerExceptionResolver.resolveException(request, response, null, exception);
         }
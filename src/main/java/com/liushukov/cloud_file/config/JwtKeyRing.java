@@ -0,0 +1,212 @@
+package com.liushukov.cloud_file.config;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * All JWT key material, decoded once at startup so signing and verification never build keys per request.
+ */
+@Component
+public class JwtKeyRing {
+    private static final Pattern KEY_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final SigningKey signingKey;
+    private final Map<String, VerificationKey> verificationKeys = new HashMap<>();
+    private final SecretKey hmacKey;
+    private final boolean acceptLegacyTokens;
+    private final String jwks;
+    private final String jwksEtag;
+
+    public JwtKeyRing(JwtSigningProperties properties, @Value("${app.jwt.secret-key:}") String secretKey) {
+        this.hmacKey = secretKey.isBlank() ? null : Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+
+        List<JwtSigningProperties.Key> keys = properties.keys() == null ? List.of() : properties.keys();
+        SigningKey active = null;
+        StringJoiner jwkSet = new StringJoiner(",", "{\"keys\":[", "]}");
+        for (JwtSigningProperties.Key key : keys) {
+            if (key.id() == null || !KEY_ID_PATTERN.matcher(key.id()).matches()) {
+                throw new IllegalStateException("JWT signing key id should match " + KEY_ID_PATTERN.pattern());
+            }
+            SignatureAlgorithm algorithm = SignatureAlgorithm.forName(key.algorithm());
+            if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+                throw new IllegalStateException("JWT signing key " + key.id() + " should use an RSA or EC algorithm");
+            }
+            PublicKey publicKey = decodePublicKey(algorithm, key.publicKey());
+            verificationKeys.put(key.id(), new VerificationKey(algorithm, publicKey));
+            jwkSet.add(toJwk(key.id(), algorithm, publicKey));
+
+            if (key.id().equals(properties.activeKeyId())) {
+                if (key.privateKey() == null || key.privateKey().isBlank()) {
+                    throw new IllegalStateException("Active JWT signing key " + key.id() + " has no private key");
+                }
+                active = new SigningKey(key.id(), algorithm, decodePrivateKey(algorithm, key.privateKey()));
+            }
+        }
+
+        if (active == null) {
+            if (properties.activeKeyId() != null) {
+                throw new IllegalStateException("Active JWT signing key " + properties.activeKeyId() + " is not configured");
+            }
+            if (hmacKey == null) {
+                throw new IllegalStateException("Either app.jwt.signing.keys or app.jwt.secret-key should be configured");
+            }
+            active = new SigningKey(null, SignatureAlgorithm.HS256, hmacKey);
+        }
+        this.signingKey = active;
+        this.acceptLegacyTokens = hmacKey != null && (active.keyId() == null || properties.acceptLegacyTokens());
+        this.jwks = jwkSet.toString();
+        this.jwksEtag = "\"" + sha256(jwks).substring(0, 32) + "\"";
+    }
+
+    public SigningKey getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Tokens without a {@code kid} are legacy HS256 tokens; every other token must name a configured
+     * key and use exactly the algorithm that key was registered with.
+     */
+    public Key getVerificationKey(String keyId, String algorithm) {
+        if (keyId == null) {
+            if (!acceptLegacyTokens || !SignatureAlgorithm.HS256.getValue().equals(algorithm)) {
+                throw new SignatureException("JWT without a key id is not accepted");
+            }
+            return hmacKey;
+        }
+        VerificationKey verificationKey = verificationKeys.get(keyId);
+        if (verificationKey == null || !verificationKey.algorithm().getValue().equals(algorithm)) {
+            throw new SignatureException("JWT is signed with an unknown key");
+        }
+        return verificationKey.key();
+    }
+
+    public SecretKey getHmacKey() {
+        if (hmacKey == null) {
+            throw new IllegalStateException("app.jwt.secret-key is not configured");
+        }
+        return hmacKey;
+    }
+
+    /**
+     * Derives a key for another HMAC use from the JWT key material, so callers share its configuration
+     * and rotation without ever producing a MAC that is also a valid JWT signature. The shared secret is
+     * used when there is one, otherwise the encoding of the active private key.
+     */
+    public SecretKey deriveKey(String purpose) {
+        Key material = hmacKey != null ? hmacKey : signingKey.key();
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(material.getEncoded(), "HmacSHA256"));
+            return new SecretKeySpec(mac.doFinal(purpose.getBytes(StandardCharsets.UTF_8)), "HmacSHA256");
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("HmacSHA256 is not available", exception);
+        }
+    }
+
+    public String getJwks() {
+        return jwks;
+    }
+
+    public String getJwksEtag() {
+        return jwksEtag;
+    }
+
+    private static PublicKey decodePublicKey(SignatureAlgorithm algorithm, String encoded) {
+        try {
+            return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(decodePem(encoded)));
+        } catch (GeneralSecurityException | IllegalArgumentException exception) {
+            throw new IllegalStateException("Invalid JWT public key", exception);
+        }
+    }
+
+    private static PrivateKey decodePrivateKey(SignatureAlgorithm algorithm, String encoded) {
+        try {
+            return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(decodePem(encoded)));
+        } catch (GeneralSecurityException | IllegalArgumentException exception) {
+            throw new IllegalStateException("Invalid JWT private key", exception);
+        }
+    }
+
+    private static KeyFactory keyFactory(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+    }
+
+    private static byte[] decodePem(String encoded) {
+        if (encoded == null) {
+            throw new IllegalArgumentException("Key is missing");
+        }
+        String base64 = encoded.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static String toJwk(String keyId, SignatureAlgorithm algorithm, PublicKey publicKey) {
+        String common = "\"kid\":\"" + keyId + "\",\"use\":\"sig\",\"alg\":\"" + algorithm.getValue() + "\"";
+        if (publicKey instanceof RSAPublicKey rsaPublicKey) {
+            return "{\"kty\":\"RSA\"," + common +
+                    ",\"n\":\"" + base64Url(unsigned(rsaPublicKey.getModulus(), 0)) + "\"" +
+                    ",\"e\":\"" + base64Url(unsigned(rsaPublicKey.getPublicExponent(), 0)) + "\"}";
+        }
+        ECPublicKey ecPublicKey = (ECPublicKey) publicKey;
+        int fieldSize = ecPublicKey.getParams().getCurve().getField().getFieldSize();
+        int length = (fieldSize + 7) / 8;
+        return "{\"kty\":\"EC\"," + common +
+                ",\"crv\":\"P-" + fieldSize + "\"" +
+                ",\"x\":\"" + base64Url(unsigned(ecPublicKey.getW().getAffineX(), length)) + "\"" +
+                ",\"y\":\"" + base64Url(unsigned(ecPublicKey.getW().getAffineY(), length)) + "\"}";
+    }
+
+    // big-endian magnitude without the sign byte, left-padded to length when it is given
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - offset, length);
+        byte[] result = new byte[size];
+        System.arraycopy(bytes, offset, result, size - (bytes.length - offset), bytes.length - offset);
+        return result;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    public record SigningKey(String keyId, SignatureAlgorithm algorithm, Key key) {
+    }
+
+    private record VerificationKey(SignatureAlgorithm algorithm, Key key) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.liushukov.cloud_file.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Asymmetric JWT signing keys. Every configured key is accepted for verification, the one named by
+ * {@code activeKeyId} signs new tokens; keys without a private part are verification-only, which is
+ * how a rotated-out key is kept until the tokens it signed expire. Without any keys tokens keep being
+ * signed with HS256 and {@code app.jwt.secret-key}.
+ */
+@ConfigurationProperties(prefix = "app.jwt.signing")
+public record JwtSigningProperties(
+        String activeKeyId,
+        @DefaultValue("true") boolean acceptLegacyTokens,
+        List<Key> keys
+) {
+    public record Key(String id, String algorithm, String privateKey, String publicKey) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.liushukov.cloud_file.config;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.OutboxEvent;
+import com.liushukov.cloud_file.dto.UserEventPayload;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.entity.Permission;
+import com.liushukov.cloud_file.entity.RefreshToken;
+import com.liushukov.cloud_file.entity.RevokedToken;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.entity.UserTokenRevocation;
+import com.liushukov.cloud_file.exception.ErrorDetails;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the native image that Spring AOT cannot infer: JJWT instantiates
+ * its implementation classes by name, Hibernate builds {@link UserProfileDto} and {@link AuthenticatedUser}
+ * from JPQL constructor expressions, {@code @PreAuthorize} expressions reach {@link PermissionChecker} and {@link Permission}
+ * through SpEL, and Flyway scans migration folders nested below {@code db/migration}.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    private static final List<String> JJWT_IMPLEMENTATIONS = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    );
+    private static final List<Class<?>> ENTITIES = List.of(
+            User.class,
+            RefreshToken.class,
+            RevokedToken.class,
+            UserTokenRevocation.class
+    );
+    // serialized by Jackson outside of controller return types, which AOT would otherwise cover
+    private static final List<Class<?>> JSON_TYPES = List.of(
+            ErrorDetails.class,
+            OutboxEvent.class,
+            UserEventPayload.class
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        JJWT_IMPLEMENTATIONS.forEach(type -> hints.reflection().registerType(
+                TypeReference.of(type),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS
+        ));
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+        ENTITIES.forEach(entity -> hints.reflection().registerType(
+                entity,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS,
+                MemberCategory.DECLARED_FIELDS
+        ));
+        hints.reflection().registerType(UserProfileDto.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(AuthenticatedUser.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(
+                TypeReference.of("com.liushukov.cloud_file.mapper.UserMapperImpl"),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS
+        );
+        JSON_TYPES.forEach(type -> hints.reflection().registerType(
+                type,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS
+        ));
+        hints.reflection().registerType(PermissionChecker.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(Permission.class, MemberCategory.PUBLIC_FIELDS);
+
+        hints.resources().registerPattern("db/migration/**/*.sql");
+        hints.resources().registerPattern("graphql/**/*.graphqls");
+    }
+}
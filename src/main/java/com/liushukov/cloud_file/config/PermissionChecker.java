@@ -0,0 +1,27 @@
+package com.liushukov.cloud_file.config;
+
+import com.liushukov.cloud_file.entity.Permission;
+import com.liushukov.cloud_file.entity.Role;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backs {@code @PreAuthorize("@permissions.has(authentication, ...)")}. The check walks the
+ * authorities of the request and tests the bitmask of every {@link Role} it finds, so no authority
+ * strings are built or compared.
+ */
+@Component("permissions")
+public class PermissionChecker {
+    public boolean has(Authentication authentication, Permission permission) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (authority instanceof Role role && role.grants(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
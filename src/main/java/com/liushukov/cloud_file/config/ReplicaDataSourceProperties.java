@@ -0,0 +1,28 @@
+package com.liushukov.cloud_file.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Read replicas used for read-only transactions. {@code stickyAfterWrite} keeps a user's reads on the
+ * primary for that many milliseconds after one of their own transactions committed there, and a
+ * replica lagging more than {@code maxReplicaLag} milliseconds is taken out of rotation until it
+ * catches up.
+ */
+@ConfigurationProperties(prefix = "app.datasource")
+public record ReplicaDataSourceProperties(
+        List<Replica> replicas,
+        @DefaultValue("5000") long stickyAfterWrite,
+        @DefaultValue("1000") long maxReplicaLag
+) {
+    public record Replica(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int maximumPoolSize,
+            @DefaultValue("2000") long connectionTimeout
+    ) {
+    }
+}
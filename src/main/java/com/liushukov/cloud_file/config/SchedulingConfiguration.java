@@ -0,0 +1,30 @@
+package com.liushukov.cloud_file.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * The outbox relay blocks on its sinks, so it gets a thread of its own instead of sharing the
+ * default scheduler with the replica health check, the revocation reload and the cleanup jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+    public static final String OUTBOX_SCHEDULER = "outboxScheduler";
+
+    // declared here because any other TaskScheduler bean turns off Spring Boot's default one
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(OUTBOX_SCHEDULER)
+    public ThreadPoolTaskScheduler outboxScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("outbox-");
+        return scheduler;
+    }
+}
@@ -1,5 +1,6 @@
 package com.liushukov.cloud_file.config;
 
+import com.liushukov.cloud_file.service.PresignedUrlService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -28,7 +29,9 @@ public class SecurityConfiguration {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/auth/**").permitAll()
+                        .requestMatchers("/auth/**", "/.well-known/**").permitAll()
+                        // presigned downloads carry their own authorization, see PresignedUrlService
+                        .requestMatchers(PresignedUrlService.PUBLIC_DOWNLOAD_PATH + "**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
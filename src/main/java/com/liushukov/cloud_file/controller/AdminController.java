@@ -1,13 +1,23 @@
 package com.liushukov.cloud_file.controller;
 
+import com.liushukov.cloud_file.dto.UserBatchDeleteDto;
+import com.liushukov.cloud_file.dto.UserBatchResultDto;
+import com.liushukov.cloud_file.dto.UserBatchUpdateDto;
 import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserSearchResultDto;
 import com.liushukov.cloud_file.dto.UserUpdateDto;
+import com.liushukov.cloud_file.dto.UserViews;
+import com.liushukov.cloud_file.entity.AuditAction;
 import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.service.AuditService;
 import com.liushukov.cloud_file.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Optional;
@@ -15,66 +25,101 @@ import java.util.Optional;
 @RestController
 @RequestMapping(path = "admin/users/")
 public class AdminController {
+    // trigram indexes can only serve patterns of at least three characters
+    private static final int MIN_SEARCH_QUERY_LENGTH = 3;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final UserService userService;
+    private final AuditService auditService;
 
-    public AdminController(UserService userService) {
+    public AdminController(UserService userService, AuditService auditService) {
         this.userService = userService;
+        this.auditService = auditService;
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_READ)")
     @GetMapping(path = "/user/{userId}")
-    public ResponseEntity<User> userById(@PathVariable(value = "userId") Long userId) {
-        Optional<User> user = userService.getUserById(userId);
+    public ResponseEntity<UserProfileDto> userById(@PathVariable(value = "userId") Long userId) {
+        Optional<UserProfileDto> user = userService.getUserProfileById(userId);
         return user
                 .map(value -> ResponseEntity.status(HttpStatus.OK).body(value))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_READ)")
     @GetMapping(path = "/all")
-    public ResponseEntity<List<User>> allUsers(
+    public ResponseEntity<MappingJacksonValue> allUsers(
             @RequestParam(value = "sortBy", defaultValue = "id") String sortBy,
             @RequestParam(value = "orderBy", defaultValue = "asc") String orderBy,
             @RequestParam(value = "pageNumber", defaultValue = "0", required = false) Integer pageNumber,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) Integer pageSize
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) Integer pageSize,
+            @RequestParam(value = "view", defaultValue = "full", required = false) String view
     ) {
-        List<User> users = userService.getAllUsers(sortBy, orderBy, pageNumber, pageSize);
-        return ResponseEntity.status(HttpStatus.OK).body(users);
+        List<UserProfileDto> users = userService.getAllUsers(sortBy, orderBy, pageNumber, pageSize);
+        MappingJacksonValue body = new MappingJacksonValue(users);
+        if ("compact".equals(view)) {
+            body.setSerializationView(UserViews.Compact.class);
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(body);
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
-    @PostMapping(path = "/create")
-    public ResponseEntity<UserDto> createUserForAdmin(@Valid @RequestBody UserDto userDto) {
-        Optional<User> existedUser = userService.getUserByEmail(userDto.email());
-        if (existedUser.isEmpty()) {
-            UserDto dto = userService.createUser(userDto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(dto);
-        } else {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_SEARCH)")
+    @GetMapping(path = "/search")
+    public ResponseEntity<UserSearchResultDto> searchUsers(
+            @RequestParam(value = "query") String query,
+            @RequestParam(value = "mode", defaultValue = "substring") String mode,
+            @RequestParam(value = "afterId", defaultValue = "0", required = false) Long afterId,
+            @RequestParam(value = "pageSize", defaultValue = "20", required = false) Integer pageSize
+    ) {
+        String trimmedQuery = query.trim();
+        if (trimmedQuery.length() < MIN_SEARCH_QUERY_LENGTH || pageSize < 1 || pageSize > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
+        UserSearchResultDto result = userService.searchUsers(trimmedQuery, mode, afterId, pageSize);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_CREATE)")
+    @PostMapping(path = "/create")
+    public ResponseEntity<UserDto> createUserForAdmin(
+            Authentication authentication, @Valid @RequestBody UserDto userDto
+    ) {
+        Optional<UserDto> createdUser = userService.createUser(userDto);
+        createdUser.ifPresent(dto -> auditService.record(
+                AuditAction.USER_CREATED, authentication.getName(), null, dto.email()
+        ));
+        return createdUser
+                .map(dto -> ResponseEntity.status(HttpStatus.CREATED).body(dto))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_UPDATE)")
     @PatchMapping(path = "/update/{userId}")
     public ResponseEntity<UserDto> updateUserForAdmin(
-            @PathVariable(value = "userId") Long userId, @Valid @RequestBody UserUpdateDto userUpdateDto
+            Authentication authentication,
+            @PathVariable(value = "userId") Long userId,
+            @Valid @RequestBody UserUpdateDto userUpdateDto
     ) {
         Optional<User> existedUser = userService.getUserById(userId);
         if (existedUser.isPresent()) {
             UserDto userDto = userService.updateUser(existedUser.get(), userUpdateDto);
+            auditService.record(AuditAction.USER_UPDATED, authentication.getName(), userId, null);
             return ResponseEntity.status(HttpStatus.OK).body(userDto);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_DELETE)")
     @DeleteMapping(path = "/delete/{userId}")
-    public ResponseEntity<Void> deleteUserForAdmin(@PathVariable(value =  "userId") Long userId) {
+    public ResponseEntity<Void> deleteUserForAdmin(
+            Authentication authentication, @PathVariable(value =  "userId") Long userId
+    ) {
         Optional<User> existedUser = userService.getUserById(userId);
         if (existedUser.isPresent()) {
             if (existedUser.get().isEnabled()) {
                 userService.deleteUser(existedUser.get());
+                auditService.record(AuditAction.USER_DELETED, authentication.getName(), userId, null);
                 return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
             } else {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -83,4 +128,32 @@ public class AdminController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_UPDATE)")
+    @PatchMapping(path = "/batch/update")
+    public ResponseEntity<List<UserBatchResultDto>> updateUsersForAdmin(
+            Authentication authentication, @Valid @RequestBody UserBatchUpdateDto userBatchUpdateDto
+    ) {
+        List<UserBatchResultDto> results = userService.updateUsers(userBatchUpdateDto.users());
+        for (UserBatchResultDto result : results) {
+            if (result.status() == HttpStatus.OK.value()) {
+                auditService.record(AuditAction.USER_UPDATED, authentication.getName(), result.userId(), null);
+            }
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(results);
+    }
+
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_DELETE)")
+    @PostMapping(path = "/batch/delete")
+    public ResponseEntity<List<UserBatchResultDto>> deleteUsersForAdmin(
+            Authentication authentication, @Valid @RequestBody UserBatchDeleteDto userBatchDeleteDto
+    ) {
+        List<UserBatchResultDto> results = userService.deleteUsers(userBatchDeleteDto.userIds());
+        for (UserBatchResultDto result : results) {
+            if (result.status() == HttpStatus.NO_CONTENT.value()) {
+                auditService.record(AuditAction.USER_DELETED, authentication.getName(), result.userId(), null);
+            }
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(results);
+    }
 }
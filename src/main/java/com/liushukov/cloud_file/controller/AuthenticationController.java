@@ -1,10 +1,13 @@
 package com.liushukov.cloud_file.controller;
 
+import com.liushukov.cloud_file.dto.RefreshTokenDto;
+import com.liushukov.cloud_file.dto.TokenDto;
 import com.liushukov.cloud_file.dto.UserDto;
 import com.liushukov.cloud_file.dto.UserLoginDto;
 import com.liushukov.cloud_file.entity.User;
 import com.liushukov.cloud_file.service.AuthenticationService;
 import com.liushukov.cloud_file.service.JwtService;
+import com.liushukov.cloud_file.service.RefreshTokenService;
 import com.liushukov.cloud_file.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -21,28 +24,41 @@ public class AuthenticationController {
     private final UserService userService;
     private final AuthenticationService authenticationService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
 
-    public AuthenticationController(UserService userService, AuthenticationService authenticationService, JwtService jwtService) {
+    public AuthenticationController(
+            UserService userService,
+            AuthenticationService authenticationService,
+            JwtService jwtService,
+            RefreshTokenService refreshTokenService
+    ) {
         this.userService = userService;
         this.authenticationService = authenticationService;
         this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @PostMapping(path = "/register")
     public ResponseEntity<UserDto> registration(@Valid @RequestBody UserDto userDto) {
-        Optional<User> existedUser = userService.getUserByEmail(userDto.email());
-        if (existedUser.isEmpty()) {
-            UserDto dto = userService.createUser(userDto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(dto);
-        } else {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
-        }
+        Optional<UserDto> createdUser = userService.createUser(userDto);
+        return createdUser
+                .map(dto -> ResponseEntity.status(HttpStatus.CREATED).body(dto))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
     }
 
     @PostMapping(path = "/login")
-    public ResponseEntity<String> login(@Valid @RequestBody UserLoginDto loginDto) {
+    public ResponseEntity<TokenDto> login(@Valid @RequestBody UserLoginDto loginDto) {
         User user = authenticationService.authenticate(loginDto);
         String jwt = jwtService.generateToken(user);
-        return ResponseEntity.status(HttpStatus.OK).body(jwt);
+        String refreshToken = refreshTokenService.createRefreshToken(user);
+        return ResponseEntity.status(HttpStatus.OK).body(new TokenDto(jwt, refreshToken, jwtService.getExpirationTime()));
+    }
+
+    @PostMapping(path = "/refresh")
+    public ResponseEntity<TokenDto> refresh(@Valid @RequestBody RefreshTokenDto refreshTokenDto) {
+        User user = refreshTokenService.consumeRefreshToken(refreshTokenDto.refreshToken());
+        String jwt = jwtService.generateToken(user);
+        String refreshToken = refreshTokenService.createRefreshToken(user);
+        return ResponseEntity.status(HttpStatus.OK).body(new TokenDto(jwt, refreshToken, jwtService.getExpirationTime()));
     }
 }
@@ -0,0 +1,184 @@
+package com.liushukov.cloud_file.controller;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.FileSignatureDto;
+import com.liushukov.cloud_file.dto.PresignedUrlDto;
+import com.liushukov.cloud_file.dto.StoredFileDto;
+import com.liushukov.cloud_file.service.BlobCacheService;
+import com.liushukov.cloud_file.service.DeltaSyncService;
+import com.liushukov.cloud_file.service.FileStorageService;
+import com.liushukov.cloud_file.service.PresignedUrlService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Set;
+
+@RestController
+@RequestMapping(path = "/files")
+public class FileController {
+    // types a browser renders without running script; everything else is served as a download
+    private static final Set<MediaType> INLINE_MEDIA_TYPES = Set.of(
+            MediaType.IMAGE_PNG,
+            MediaType.IMAGE_JPEG,
+            MediaType.IMAGE_GIF,
+            MediaType.parseMediaType("image/webp"),
+            MediaType.APPLICATION_PDF
+    );
+
+    private final FileStorageService fileStorageService;
+    private final PresignedUrlService presignedUrlService;
+    private final BlobCacheService blobCacheService;
+    private final DeltaSyncService deltaSyncService;
+
+    public FileController(
+            FileStorageService fileStorageService,
+            PresignedUrlService presignedUrlService,
+            BlobCacheService blobCacheService,
+            DeltaSyncService deltaSyncService
+    ) {
+        this.fileStorageService = fileStorageService;
+        this.presignedUrlService = presignedUrlService;
+        this.blobCacheService = blobCacheService;
+        this.deltaSyncService = deltaSyncService;
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping(path = "/upload")
+    public ResponseEntity<StoredFileDto> upload(
+            Authentication authentication, @RequestParam(value = "file") MultipartFile file
+    ) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            StoredFileDto storedFile = fileStorageService.store(userId(authentication), file.getOriginalFilename(), content);
+            return ResponseEntity.status(HttpStatus.CREATED).body(storedFile);
+        }
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping(path = "/{fileId}")
+    public ResponseEntity<Resource> download(Authentication authentication, @PathVariable(value = "fileId") String fileId) {
+        return blobCacheService.findFile(userId(authentication), fileId)
+                .map(file -> fileResponse(fileId, file, CacheControl.noStore()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping(path = "/{fileId}/presign")
+    public ResponseEntity<PresignedUrlDto> presign(
+            Authentication authentication,
+            @PathVariable(value = "fileId") String fileId,
+            @RequestParam(value = "ttl", defaultValue = "3600000", required = false) Long ttl
+    ) {
+        if (ttl < 1 || ttl > presignedUrlService.getMaxTtl()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        long userId = userId(authentication);
+        if (fileStorageService.findFile(userId, fileId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(presignedUrlService.presignDownload(userId, fileId, ttl));
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping(path = "/{fileId}/signatures")
+    public ResponseEntity<FileSignatureDto> signatures(
+            Authentication authentication,
+            @PathVariable(value = "fileId") String fileId,
+            @RequestParam(value = "blockSize", defaultValue = "8192", required = false) Integer blockSize
+    ) {
+        if (!isValidBlockSize(blockSize)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return deltaSyncService.signatures(userId(authentication), fileId, blockSize)
+                .map(signatures -> ResponseEntity.status(HttpStatus.OK).body(signatures))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * Takes the raw delta as the request body, see {@link DeltaSyncService} for the format. The new
+     * version is returned under its new id.
+     */
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping(path = "/{fileId}/delta", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StoredFileDto> applyDelta(
+            Authentication authentication,
+            @PathVariable(value = "fileId") String fileId,
+            @RequestParam(value = "blockSize") Integer blockSize,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream delta
+    ) {
+        if (!isValidBlockSize(blockSize)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        // a chunked body is cut off by the service once it passes the limit
+        if (contentLength != null && contentLength > deltaSyncService.getMaxFileSize()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return deltaSyncService.applyDelta(userId(authentication), fileId, blockSize, delta)
+                .map(storedFile -> ResponseEntity.status(HttpStatus.CREATED).body(storedFile))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * Authorized by the signature and the in-memory revocations: the JWT filter skips this path, so a
+     * fetch never parses a token or loads a user.
+     */
+    @GetMapping(path = "/public/{userId}/{fileId}")
+    public ResponseEntity<Resource> presignedDownload(
+            @PathVariable(value = "userId") Long userId,
+            @PathVariable(value = "fileId") String fileId,
+            @RequestParam(value = "expires") Long expires,
+            @RequestParam(value = "issued") Long issued,
+            @RequestParam(value = "signature") String signature
+    ) {
+        if (!presignedUrlService.isValidDownload(userId, fileId, expires, issued, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        // caches may keep the response as long as the URL itself stays valid
+        long remaining = Math.max(0, expires - System.currentTimeMillis() / 1000L);
+        return blobCacheService.findFile(userId, fileId)
+                .map(file -> fileResponse(fileId, file, CacheControl.maxAge(Duration.ofSeconds(remaining)).cachePrivate()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * Files are served from the API origin, so an uploaded HTML or SVG document must never be rendered
+     * there: only {@link #INLINE_MEDIA_TYPES} are shown inline, the rest is an octet-stream attachment,
+     * and the sandbox policy keeps even a sniffed document from running script.
+     */
+    private static ResponseEntity<Resource> fileResponse(String fileId, Resource file, CacheControl cacheControl) {
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileId)
+                .filter(INLINE_MEDIA_TYPES::contains)
+                .orElse(null);
+        ContentDisposition contentDisposition = mediaType != null
+                ? ContentDisposition.inline().build()
+                : ContentDisposition.attachment().filename(fileId).build();
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(mediaType != null ? mediaType : MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .header("X-Content-Type-Options", "nosniff")
+                .header("Content-Security-Policy", "sandbox")
+                .cacheControl(cacheControl)
+                .body(file);
+    }
+
+    private static boolean isValidBlockSize(int blockSize) {
+        return blockSize >= DeltaSyncService.MIN_BLOCK_SIZE && blockSize <= DeltaSyncService.MAX_BLOCK_SIZE;
+    }
+
+    private static long userId(Authentication authentication) {
+        return ((AuthenticatedUser) authentication.getPrincipal()).id();
+    }
+}
@@ -0,0 +1,32 @@
+package com.liushukov.cloud_file.controller;
+
+import com.liushukov.cloud_file.config.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+public class JwksController {
+    private final JwtKeyRing keyRing;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtKeyRing keyRing, @Value("${app.jwt.jwks-max-age:3600}") long maxAgeSeconds) {
+        this.keyRing = keyRing;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    // the body is precomputed by the key ring; a matching If-None-Match is answered with 304 by Spring MVC
+    @GetMapping(path = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.status(HttpStatus.OK)
+                .cacheControl(cacheControl)
+                .eTag(keyRing.getJwksEtag())
+                .body(keyRing.getJwks());
+    }
+}
@@ -1,9 +1,13 @@
 package com.liushukov.cloud_file.controller;
 
 import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserProfileDto;
 import com.liushukov.cloud_file.dto.UserUpdateDto;
 import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.service.JwtService;
+import com.liushukov.cloud_file.service.TokenRevocationService;
 import com.liushukov.cloud_file.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,15 +19,19 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping(path = "/users")
 public class UserController {
     private final UserService userService;
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, JwtService jwtService, TokenRevocationService tokenRevocationService) {
         this.userService = userService;
+        this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PreAuthorize("isAuthenticated()")
     @GetMapping(path = "/me")
-    public ResponseEntity<User> me(Authentication authentication) {
-        User user = userService.getUserFromAuthentication(authentication);
+    public ResponseEntity<UserProfileDto> me(Authentication authentication) {
+        UserProfileDto user = userService.getUserProfileFromAuthentication(authentication);
         return ResponseEntity.status(HttpStatus.OK).body(user);
     }
 
@@ -47,4 +55,12 @@ public class UserController {
         }
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
     }
+
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping(path = "/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization") String authHeader) {
+        Claims claims = jwtService.extractAllClaims(authHeader.substring(7));
+        tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration().toInstant());
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
 }
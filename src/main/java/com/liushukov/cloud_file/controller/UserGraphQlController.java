@@ -0,0 +1,146 @@
+package com.liushukov.cloud_file.controller;
+
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserUpdateDto;
+import com.liushukov.cloud_file.entity.AuditAction;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.service.AuditService;
+import com.liushukov.cloud_file.service.RefreshTokenService;
+import com.liushukov.cloud_file.service.UserService;
+import jakarta.validation.Valid;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * GraphQL counterpart of {@link UserController} and {@link AdminController}. Lookups by id go through
+ * a DataLoader and {@code activeSessions} through a batch mapping, so a document asking for many users
+ * costs one {@code IN (...)} query per field instead of one query per user.
+ */
+@Controller
+public class UserGraphQlController {
+    private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuditService auditService;
+
+    public UserGraphQlController(
+            UserService userService,
+            RefreshTokenService refreshTokenService,
+            AuditService auditService,
+            BatchLoaderRegistry batchLoaderRegistry
+    ) {
+        this.userService = userService;
+        this.refreshTokenService = refreshTokenService;
+        this.auditService = auditService;
+        batchLoaderRegistry.forTypePair(Long.class, UserProfileDto.class)
+                .registerMappedBatchLoader((ids, environment) -> Mono.fromCallable(() -> userService.getUserProfilesByIds(ids)
+                        .stream()
+                        .collect(Collectors.toMap(UserProfileDto::id, Function.identity()))));
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @QueryMapping
+    public UserProfileDto me(Authentication authentication) {
+        return userService.getUserProfileFromAuthentication(authentication);
+    }
+
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_READ)")
+    @QueryMapping
+    public CompletableFuture<UserProfileDto> user(@Argument Long id, DataLoader<Long, UserProfileDto> userLoader) {
+        return userLoader.load(id);
+    }
+
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_READ)")
+    @QueryMapping
+    public List<UserProfileDto> users(
+            @Argument String sortBy,
+            @Argument String orderBy,
+            @Argument Integer pageNumber,
+            @Argument Integer pageSize
+    ) {
+        return userService.getAllUsers(sortBy, orderBy, pageNumber, pageSize);
+    }
+
+    @BatchMapping(typeName = "User")
+    public Map<UserProfileDto, Integer> activeSessions(List<UserProfileDto> users) {
+        Map<Long, Integer> counts = refreshTokenService.countActiveRefreshTokens(
+                users.stream().map(UserProfileDto::id).toList()
+        );
+        Map<UserProfileDto, Integer> result = new HashMap<>();
+        for (UserProfileDto user : users) {
+            result.put(user, counts.getOrDefault(user.id(), 0));
+        }
+        return result;
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @MutationMapping
+    public UserDto updateMe(Authentication authentication, @Argument("input") @Valid UserUpdateDto userUpdateDto) {
+        User user = userService.getUserFromAuthentication(authentication);
+        return userService.updateUser(user, userUpdateDto);
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @MutationMapping
+    public boolean deleteMe(Authentication authentication) {
+        User user = userService.getUserFromAuthentication(authentication);
+        if (!user.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is already disabled");
+        }
+        userService.deleteUser(user);
+        return true;
+    }
+
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_CREATE)")
+    @MutationMapping
+    public UserDto createUser(Authentication authentication, @Argument("input") @Valid UserDto userDto) {
+        UserDto createdUser = userService.createUser(userDto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "User with this email already exists"));
+        auditService.record(AuditAction.USER_CREATED, authentication.getName(), null, createdUser.email());
+        return createdUser;
+    }
+
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_UPDATE)")
+    @MutationMapping
+    public UserDto updateUser(
+            Authentication authentication,
+            @Argument Long id,
+            @Argument("input") @Valid UserUpdateDto userUpdateDto
+    ) {
+        User user = userService.getUserById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        UserDto userDto = userService.updateUser(user, userUpdateDto);
+        auditService.record(AuditAction.USER_UPDATED, authentication.getName(), id, null);
+        return userDto;
+    }
+
+    @PreAuthorize("@permissions.has(authentication, T(com.liushukov.cloud_file.entity.Permission).USER_DELETE)")
+    @MutationMapping
+    public boolean deleteUser(Authentication authentication, @Argument Long id) {
+        User user = userService.getUserById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        if (!user.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is already disabled");
+        }
+        userService.deleteUser(user);
+        auditService.record(AuditAction.USER_DELETED, authentication.getName(), id, null);
+        return true;
+    }
+}
@@ -0,0 +1,14 @@
+package com.liushukov.cloud_file.dto;
+
+import com.liushukov.cloud_file.entity.AuditAction;
+
+import java.time.Instant;
+
+public record AuditEvent(
+        Instant occurredAt,
+        AuditAction action,
+        String actor,
+        Long targetUserId,
+        String details
+) {
+}
@@ -0,0 +1,49 @@
+package com.liushukov.cloud_file.dto;
+
+import com.liushukov.cloud_file.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * The principal kept in security contexts: the five columns authentication needs, loaded by a
+ * constructor projection instead of a managed {@link com.liushukov.cloud_file.entity.User}.
+ */
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        String password,
+        Role role,
+        Boolean enabled
+) implements UserDetails {
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(enabled);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{" +
+                "id=" + id +
+                ", email='" + email + '\'' +
+                ", role=" + role +
+                ", enabled=" + enabled +
+                '}';
+    }
+}
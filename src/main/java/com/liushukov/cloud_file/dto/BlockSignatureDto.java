@@ -0,0 +1,7 @@
+package com.liushukov.cloud_file.dto;
+
+public record BlockSignatureDto(
+        int weak,
+        String strong
+) {
+}
@@ -0,0 +1,11 @@
+package com.liushukov.cloud_file.dto;
+
+import java.util.List;
+
+public record FileSignatureDto(
+        String fileId,
+        int blockSize,
+        long length,
+        List<BlockSignatureDto> blocks
+) {
+}
@@ -0,0 +1,17 @@
+package com.liushukov.cloud_file.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.liushukov.cloud_file.entity.UserEventType;
+
+import java.time.Instant;
+
+public record OutboxEvent(
+        Long id,
+        Instant createdAt,
+        UserEventType type,
+        Long userId,
+        @JsonRawValue
+        String payload,
+        int attempts
+) {
+}
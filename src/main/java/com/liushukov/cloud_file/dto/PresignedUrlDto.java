@@ -0,0 +1,9 @@
+package com.liushukov.cloud_file.dto;
+
+import java.time.Instant;
+
+public record PresignedUrlDto(
+        String url,
+        Instant expiresAt
+) {
+}
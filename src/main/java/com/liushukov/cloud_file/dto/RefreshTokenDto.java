@@ -0,0 +1,11 @@
+package com.liushukov.cloud_file.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record RefreshTokenDto(
+        @NotBlank(message = "refreshToken shouldn't be blank")
+        @Size(max = 255, message = "size of refreshToken should be up to 255")
+        String refreshToken
+) {
+}
@@ -0,0 +1,7 @@
+package com.liushukov.cloud_file.dto;
+
+public record StoredFileDto(
+        String fileId,
+        long size
+) {
+}
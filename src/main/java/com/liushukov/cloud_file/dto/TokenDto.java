@@ -0,0 +1,4 @@
+package com.liushukov.cloud_file.dto;
+
+public record TokenDto(String accessToken, String refreshToken, long expiresIn) {
+}
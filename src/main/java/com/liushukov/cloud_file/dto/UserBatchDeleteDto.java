@@ -0,0 +1,14 @@
+package com.liushukov.cloud_file.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record UserBatchDeleteDto(
+        @NotEmpty(message = "userIds shouldn't be empty")
+        @Size(max = 1000, message = "size of userIds should be up to 1000")
+        List<@NotNull Long> userIds
+) {
+}
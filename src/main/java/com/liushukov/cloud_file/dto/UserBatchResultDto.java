@@ -0,0 +1,11 @@
+package com.liushukov.cloud_file.dto;
+
+/**
+ * The outcome for one user of a batch request, with the status the single-user endpoint would
+ * have answered.
+ */
+public record UserBatchResultDto(
+        long userId,
+        int status
+) {
+}
@@ -0,0 +1,23 @@
+package com.liushukov.cloud_file.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record UserBatchUpdateDto(
+        @NotEmpty(message = "users shouldn't be empty")
+        @Size(max = 1000, message = "size of users should be up to 1000")
+        List<@NotNull @Valid Item> users
+) {
+    public record Item(
+            @NotNull(message = "userId shouldn't be null")
+            Long userId,
+            @NotNull(message = "changes shouldn't be null")
+            @Valid
+            UserUpdateDto changes
+    ) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.liushukov.cloud_file.dto;
+
+/**
+ * One row of a batched user update. Null fields keep the stored value; the password is already hashed.
+ */
+public record UserChange(
+        long id,
+        String fullName,
+        String email,
+        String password
+) {
+}
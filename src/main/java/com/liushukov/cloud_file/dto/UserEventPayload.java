@@ -0,0 +1,12 @@
+package com.liushukov.cloud_file.dto;
+
+import com.liushukov.cloud_file.entity.Role;
+
+public record UserEventPayload(
+        Long id,
+        String fullName,
+        String email,
+        Role role,
+        Boolean enabled
+) {
+}
@@ -0,0 +1,17 @@
+package com.liushukov.cloud_file.dto;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.liushukov.cloud_file.entity.Role;
+
+import java.time.Instant;
+
+public record UserProfileDto(
+        @JsonView(UserViews.Compact.class) Long id,
+        Instant createdAt,
+        Instant updatedAt,
+        @JsonView(UserViews.Compact.class) String fullName,
+        @JsonView(UserViews.Compact.class) String email,
+        @JsonView(UserViews.Compact.class) Role role,
+        @JsonView(UserViews.Compact.class) Boolean enabled
+) {
+}
@@ -0,0 +1,9 @@
+package com.liushukov.cloud_file.dto;
+
+import java.util.List;
+
+public record UserSearchResultDto(
+        List<UserProfileDto> users,
+        Long nextAfterId
+) {
+}
@@ -0,0 +1,14 @@
+package com.liushukov.cloud_file.dto;
+
+/**
+ * Jackson views for user listings. Properties without a view are left out of a view-restricted
+ * response, since Spring Boot disables {@code MapperFeature.DEFAULT_VIEW_INCLUSION}.
+ */
+public final class UserViews {
+    // the fields a list row needs, without the timestamps that dominate serialization time
+    public interface Compact {
+    }
+
+    private UserViews() {
+    }
+}
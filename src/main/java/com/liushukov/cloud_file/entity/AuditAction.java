@@ -0,0 +1,5 @@
+package com.liushukov.cloud_file.entity;
+
+public enum AuditAction {
+    LOGIN_SUCCEEDED, LOGIN_FAILED, USER_CREATED, USER_UPDATED, USER_DELETED;
+}
@@ -0,0 +1,15 @@
+package com.liushukov.cloud_file.entity;
+
+public enum Permission {
+    USER_READ,
+    USER_SEARCH,
+    USER_CREATE,
+    USER_UPDATE,
+    USER_DELETE;
+
+    private final long mask = 1L << ordinal();
+
+    public long getMask() {
+        return mask;
+    }
+}
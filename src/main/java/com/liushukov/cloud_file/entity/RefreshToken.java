@@ -0,0 +1,74 @@
+package com.liushukov.cloud_file.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+import java.time.Instant;
+
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken implements Persistable<String> {
+    @Id
+    @Column(name = "token_hash")
+    private String tokenHash;
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(columnDefinition = "TIMESTAMP", name = "expires_at")
+    private Instant expiresAt;
+    @CreationTimestamp
+    @Column(columnDefinition = "TIMESTAMP", updatable = false, name = "created_at")
+    private Instant createdAt;
+
+    public RefreshToken() {}
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public RefreshToken setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+        return this;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public RefreshToken setUserId(Long userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public RefreshToken setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+        return this;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return tokenHash;
+    }
+
+    // the hash is assigned by the application, so without this save() would issue a SELECT before every INSERT
+    @Override
+    public boolean isNew() {
+        return createdAt == null;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+                "userId=" + userId +
+                ", expiresAt=" + expiresAt +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
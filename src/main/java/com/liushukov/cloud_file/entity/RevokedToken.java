@@ -0,0 +1,42 @@
+package com.liushukov.cloud_file.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    @Column(name = "jti")
+    private String jti;
+    @Column(columnDefinition = "TIMESTAMP", name = "expires_at")
+    private Instant expiresAt;
+
+    public RevokedToken() {}
+
+    public String getJti() {
+        return jti;
+    }
+
+    public RevokedToken setJti(String jti) {
+        this.jti = jti;
+        return this;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public RevokedToken setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+                "jti='" + jti + '\'' +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
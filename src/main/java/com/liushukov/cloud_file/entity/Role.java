@@ -1,5 +1,41 @@
 package com.liushukov.cloud_file.entity;
 
-public enum Role {
-    ADMIN, USER;
+import org.springframework.security.core.GrantedAuthority;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Each role is its own granted authority, so principals share the same immutable authority list
+ * instead of building a {@code ROLE_} string and a list on every call. The permissions of a role are
+ * folded into a bitmask once, when the enum is initialized.
+ */
+public enum Role implements GrantedAuthority {
+    ADMIN(Permission.USER_READ, Permission.USER_SEARCH, Permission.USER_CREATE,
+            Permission.USER_UPDATE, Permission.USER_DELETE),
+    USER;
+
+    private final String authority = "ROLE_" + name();
+    private final List<Role> authorities = List.of(this);
+    private final long permissions;
+
+    Role(Permission... permissions) {
+        long mask = 0L;
+        for (Permission permission : permissions) {
+            mask |= permission.getMask();
+        }
+        this.permissions = mask;
+    }
+
+    @Override
+    public String getAuthority() {
+        return authority;
+    }
+
+    public Collection<Role> getAuthorities() {
+        return authorities;
+    }
+
+    public boolean grants(Permission permission) {
+        return (permissions & permission.getMask()) != 0;
+    }
 }
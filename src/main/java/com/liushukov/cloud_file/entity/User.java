@@ -4,12 +4,9 @@ import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import java.time.Instant;
 import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
 
 @Entity
 @Table(name = "users")
@@ -92,8 +89,7 @@ public class User implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        SimpleGrantedAuthority simpleGrantedAuthority = new SimpleGrantedAuthority("ROLE_" + role.toString());
-        return List.of(simpleGrantedAuthority);
+        return role.getAuthorities();
     }
 
     @Override
@@ -139,16 +135,20 @@ public class User implements UserDetails {
                 '}';
     }
 
+    /**
+     * Identity is the database id. A transient user only equals itself, and the hash code is the same
+     * for every user so that it does not change when the id is assigned on persist. Hibernate proxies
+     * are subclasses and compare through {@link #getId()}, which does not initialize them.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        User user = (User) o;
-        return Objects.equals(id, user.id) && Objects.equals(createdAt, user.createdAt) && Objects.equals(updatedAt, user.updatedAt) && Objects.equals(fullName, user.fullName) && Objects.equals(email, user.email) && Objects.equals(password, user.password) && role == user.role && Objects.equals(enabled, user.enabled);
+        if (!(o instanceof User user)) return false;
+        return id != null && id.equals(user.getId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, createdAt, updatedAt, fullName, email, password, role, enabled);
+        return User.class.hashCode();
     }
 }
@@ -0,0 +1,5 @@
+package com.liushukov.cloud_file.entity;
+
+public enum UserEventType {
+    USER_CREATED, USER_UPDATED, USER_DISABLED;
+}
@@ -0,0 +1,42 @@
+package com.liushukov.cloud_file.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "user_token_revocations")
+public class UserTokenRevocation {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(columnDefinition = "TIMESTAMP", name = "revoked_before")
+    private Instant revokedBefore;
+
+    public UserTokenRevocation() {}
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public UserTokenRevocation setUserId(Long userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public Instant getRevokedBefore() {
+        return revokedBefore;
+    }
+
+    public UserTokenRevocation setRevokedBefore(Instant revokedBefore) {
+        this.revokedBefore = revokedBefore;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "UserTokenRevocation{" +
+                "userId=" + userId +
+                ", revokedBefore=" + revokedBefore +
+                '}';
+    }
+}
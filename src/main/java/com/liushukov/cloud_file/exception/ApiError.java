@@ -0,0 +1,155 @@
+package com.liushukov.cloud_file.exception;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.BadCredentialsException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * The fixed error responses of the API. The exception type to error mapping is resolved once per
+ * class, and the JSON around the timestamp and request uri is serialized up front, so rejecting a
+ * request costs a clock read and a single write.
+ */
+public enum ApiError {
+    BAD_CREDENTIALS(401, "The username or password is incorrect"),
+    ACCOUNT_LOCKED(403, "The account is locked"),
+    ACCESS_DENIED(403, "You are not authorized to access this resource"),
+    JWT_SIGNATURE_INVALID(403, "The JWT signature is invalid"),
+    JWT_EXPIRED(403, "The JWT has expired"),
+    JWT_REVOKED(403, "The JWT has been revoked"),
+    REFRESH_TOKEN_INVALID(401, "The refresh token is invalid or expired"),
+    DATA_CONFLICT(409, "The request conflicts with existing data"),
+    DELTA_INVALID(400, "The delta is malformed or does not match the file"),
+    INTERNAL_ERROR(500, "Internal server error");
+
+    private static final byte[] BODY_PREFIX = "{\"timestamp\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BODY_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final ClassValue<ApiError> BY_EXCEPTION_TYPE = new ClassValue<>() {
+        @Override
+        protected ApiError computeValue(Class<?> type) {
+            if (BadCredentialsException.class.isAssignableFrom(type)) {
+                return BAD_CREDENTIALS;
+            }
+            if (AccountStatusException.class.isAssignableFrom(type)) {
+                return ACCOUNT_LOCKED;
+            }
+            if (AccessDeniedException.class.isAssignableFrom(type)) {
+                return ACCESS_DENIED;
+            }
+            if (SignatureException.class.isAssignableFrom(type)) {
+                return JWT_SIGNATURE_INVALID;
+            }
+            if (ExpiredJwtException.class.isAssignableFrom(type)) {
+                return JWT_EXPIRED;
+            }
+            if (RevokedTokenException.class.isAssignableFrom(type)) {
+                return JWT_REVOKED;
+            }
+            if (InvalidRefreshTokenException.class.isAssignableFrom(type)) {
+                return REFRESH_TOKEN_INVALID;
+            }
+            if (DataIntegrityViolationException.class.isAssignableFrom(type)) {
+                return DATA_CONFLICT;
+            }
+            if (InvalidDeltaException.class.isAssignableFrom(type)) {
+                return DELTA_INVALID;
+            }
+            return INTERNAL_ERROR;
+        }
+    };
+
+    private final int status;
+    private final String message;
+    private final byte[] messageSegment;
+
+    ApiError(int status, String message) {
+        this.status = status;
+        this.message = message;
+        this.messageSegment = ("\",\"message\":\"" + escapeJson(message) + "\",\"description\":\"uri=")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static ApiError forException(Throwable exception) {
+        return BY_EXCEPTION_TYPE.get(exception.getClass());
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Writes the same body {@link GlobalExceptionHandler} produces for this error, without going
+     * through the handler exception resolvers and message converters.
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        byte[] body = body(request.getRequestURI());
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    public byte[] body(String requestUri) {
+        byte[] timestamp = Instant.now().toString().getBytes(StandardCharsets.US_ASCII);
+        byte[] uri = escapeJson(requestUri).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(
+                BODY_PREFIX.length + timestamp.length + messageSegment.length + uri.length + BODY_SUFFIX.length
+        );
+        body.writeBytes(BODY_PREFIX);
+        body.writeBytes(timestamp);
+        body.writeBytes(messageSegment);
+        body.writeBytes(uri);
+        body.writeBytes(BODY_SUFFIX);
+        return body.toByteArray();
+    }
+
+    static String escapeJson(String value) {
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                break;
+            }
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
+
+        StringBuilder escaped = new StringBuilder(length + 16).append(value, 0, i);
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.liushukov.cloud_file.exception;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable exception, DataFetchingEnvironment environment) {
+        if (exception instanceof ResponseStatusException responseStatusException) {
+            ErrorType errorType = switch (responseStatusException.getStatusCode().value()) {
+                case 401 -> ErrorType.UNAUTHORIZED;
+                case 403 -> ErrorType.FORBIDDEN;
+                case 404 -> ErrorType.NOT_FOUND;
+                default -> ErrorType.BAD_REQUEST;
+            };
+            return GraphqlErrorBuilder.newError(environment)
+                    .errorType(errorType)
+                    .message(responseStatusException.getReason())
+                    .extensions(Map.of("status", responseStatusException.getStatusCode().value()))
+                    .build();
+        }
+        return null;
+    }
+}
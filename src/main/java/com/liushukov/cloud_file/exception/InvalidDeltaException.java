@@ -0,0 +1,10 @@
+package com.liushukov.cloud_file.exception;
+
+/**
+ * An expected client error answered with a fixed body, so no stack trace is captured.
+ */
+public class InvalidDeltaException extends RuntimeException {
+    public InvalidDeltaException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,16 @@
+package com.liushukov.cloud_file.exception;
+
+/**
+ * Raised for every request carrying a revoked JWT, so it is stackless and the two expected cases are
+ * shared instances.
+ */
+public class RevokedTokenException extends RuntimeException {
+    public static final RevokedTokenException TOKEN_REVOKED =
+            new RevokedTokenException("Token has been revoked");
+    public static final RevokedTokenException USER_TOKENS_REVOKED =
+            new RevokedTokenException("Tokens of the user have been revoked");
+
+    public RevokedTokenException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -7,11 +7,14 @@ import com.liushukov.cloud_file.entity.User;
 import org.mapstruct.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Locale;
+
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     @Mapping(target = "role", source = "role")
     @Mapping(target = "enabled", source = "enabled")
     @Mapping(target = "password", expression = "java(passwordEncoder.encode(userDto.password()))")
+    @Mapping(target = "email", source = "userDto.email", qualifiedByName = "canonicalEmail")
     @Mapping(target = "authorities", ignore = true)
     User toEntity(UserDto userDto, Role role, boolean enabled, PasswordEncoder passwordEncoder);
 
@@ -29,5 +32,11 @@ public interface UserMapper {
     @Mapping(target = "enabled", expression = "java(user.getEnabled())")
     @Mapping(target = "password", expression = "java(user.getPassword())")
     @Mapping(target = "role", expression = "java(user.getRole())")
+    @Mapping(target = "email", source = "email", qualifiedByName = "canonicalEmail")
     User update(UserUpdateDto userUpdateDto, @MappingTarget User user);
+
+    @Named("canonicalEmail")
+    default String canonicalEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
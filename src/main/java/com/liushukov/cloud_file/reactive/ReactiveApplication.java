@@ -0,0 +1,26 @@
+package com.liushukov.cloud_file.reactive;
+
+import com.liushukov.cloud_file.CloudFileApplication;
+import com.liushukov.cloud_file.reactive.config.ReactiveConfiguration;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+
+/**
+ * Serves the REST endpoints of {@link CloudFileApplication} on WebFlux with R2DBC repositories, for
+ * comparing resource use under high-concurrency load. GraphQL, the principal cache, and the scheduled
+ * jobs stay with the servlet service. Runs against a database that is already migrated:
+ *
+ * <pre>
+ * ./gradlew bootRunReactive
+ * java -Dloader.main=com.liushukov.cloud_file.reactive.ReactiveApplication -cp cloud-file.jar org.springframework.boot.loader.launch.PropertiesLauncher
+ * </pre>
+ */
+public class ReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveConfiguration.class);
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.setAdditionalProfiles("reactive");
+        application.run(args);
+    }
+}
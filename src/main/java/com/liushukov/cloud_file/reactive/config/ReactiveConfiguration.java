@@ -0,0 +1,158 @@
+package com.liushukov.cloud_file.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liushukov.cloud_file.config.JacksonConfiguration;
+import com.liushukov.cloud_file.config.JwtKeyRing;
+import com.liushukov.cloud_file.config.JwtSigningProperties;
+import com.liushukov.cloud_file.config.PermissionChecker;
+import com.liushukov.cloud_file.reactive.exception.ReactiveExceptionHandler;
+import com.liushukov.cloud_file.reactive.handler.ReactiveAdminHandler;
+import com.liushukov.cloud_file.reactive.handler.ReactiveAuthenticationHandler;
+import com.liushukov.cloud_file.reactive.handler.ReactiveUserHandler;
+import com.liushukov.cloud_file.reactive.handler.RequestValidator;
+import com.liushukov.cloud_file.reactive.repository.ReactiveEventRepository;
+import com.liushukov.cloud_file.reactive.repository.ReactiveTokenRepository;
+import com.liushukov.cloud_file.reactive.repository.ReactiveUserRepository;
+import com.liushukov.cloud_file.reactive.repository.impl.ReactiveEventRepositoryImpl;
+import com.liushukov.cloud_file.reactive.repository.impl.ReactiveTokenRepositoryImpl;
+import com.liushukov.cloud_file.reactive.repository.impl.ReactiveUserRepositoryImpl;
+import com.liushukov.cloud_file.reactive.service.ReactiveAuthenticationService;
+import com.liushukov.cloud_file.reactive.service.ReactiveUserService;
+import com.liushukov.cloud_file.reactive.service.impl.ReactiveAuthenticationServiceImpl;
+import com.liushukov.cloud_file.reactive.service.impl.ReactiveUserServiceImpl;
+import com.liushukov.cloud_file.service.JwtService;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.graphql.GraphQlAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Wires the WebFlux and R2DBC variant of the user API. It serves the same routes with the same
+ * statuses and bodies as the controllers, and shares the JWT keys, the permission checks and the
+ * JSON tuning with them. Migrations, GraphQL and the scheduled jobs stay with the servlet application
+ * running against the same database.
+ * <p>
+ * Deliberately not a {@code @Configuration}: the servlet application scans this package too.
+ */
+@EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        FlywayAutoConfiguration.class,
+        GraphQlAutoConfiguration.class
+})
+@EnableWebFluxSecurity
+@EnableConfigurationProperties(JwtSigningProperties.class)
+@Import({
+        JwtKeyRing.class,
+        JwtService.class,
+        PermissionChecker.class,
+        JacksonConfiguration.class,
+        ReactiveSecurityConfiguration.class
+})
+public class ReactiveConfiguration {
+    @Bean
+    ReactiveUserRepository reactiveUserRepository(DatabaseClient databaseClient) {
+        return new ReactiveUserRepositoryImpl(databaseClient);
+    }
+
+    @Bean
+    ReactiveTokenRepository reactiveTokenRepository(DatabaseClient databaseClient) {
+        return new ReactiveTokenRepositoryImpl(databaseClient);
+    }
+
+    @Bean
+    ReactiveEventRepository reactiveEventRepository(DatabaseClient databaseClient) {
+        return new ReactiveEventRepositoryImpl(databaseClient);
+    }
+
+    @Bean
+    TransactionalOperator transactionalOperator(ReactiveTransactionManager transactionManager) {
+        return TransactionalOperator.create(transactionManager);
+    }
+
+    @Bean
+    ReactiveUserService reactiveUserService(
+            ReactiveUserRepository userRepository,
+            ReactiveTokenRepository tokenRepository,
+            ReactiveEventRepository eventRepository,
+            TransactionalOperator transactionalOperator,
+            PasswordEncoder passwordEncoder,
+            Scheduler passwordHashingScheduler,
+            ObjectMapper objectMapper,
+            @Value("${app.cache.invalidation-channel:user_changes}") String invalidationChannel
+    ) {
+        return new ReactiveUserServiceImpl(
+                userRepository, tokenRepository, eventRepository, transactionalOperator,
+                passwordEncoder, passwordHashingScheduler, objectMapper, invalidationChannel
+        );
+    }
+
+    @Bean
+    ReactiveAuthenticationService reactiveAuthenticationService(
+            ReactiveAuthenticationManager authenticationManager,
+            ReactiveUserRepository userRepository,
+            ReactiveTokenRepository tokenRepository,
+            ReactiveEventRepository eventRepository,
+            JwtService jwtService,
+            @Value("${app.jwt.refresh-expiration-time:1209600000}") long refreshExpiration
+    ) {
+        return new ReactiveAuthenticationServiceImpl(
+                authenticationManager, userRepository, tokenRepository, eventRepository, jwtService, refreshExpiration
+        );
+    }
+
+    @Bean
+    RequestValidator requestValidator(Validator validator) {
+        return new RequestValidator(validator);
+    }
+
+    @Bean
+    ReactiveExceptionHandler reactiveExceptionHandler() {
+        return new ReactiveExceptionHandler();
+    }
+
+    @Bean
+    RouterFunction<ServerResponse> userRoutes(
+            ReactiveUserService userService,
+            ReactiveAuthenticationService authenticationService,
+            ReactiveEventRepository eventRepository,
+            RequestValidator requestValidator
+    ) {
+        ReactiveAuthenticationHandler auth = new ReactiveAuthenticationHandler(
+                userService, authenticationService, requestValidator
+        );
+        ReactiveUserHandler users = new ReactiveUserHandler(userService, authenticationService, requestValidator);
+        ReactiveAdminHandler admin = new ReactiveAdminHandler(userService, eventRepository, requestValidator);
+
+        return route()
+                .POST("/auth/register", auth::registration)
+                .POST("/auth/login", auth::login)
+                .POST("/auth/refresh", auth::refresh)
+                .GET("/users/me", users::me)
+                .PATCH("/users/update", users::updateUser)
+                .DELETE("/users/delete", users::deleteUser)
+                .POST("/users/logout", users::logout)
+                .GET("/admin/users/user/{userId}", admin::userById)
+                .GET("/admin/users/all", admin::allUsers)
+                .GET("/admin/users/search", admin::searchUsers)
+                .POST("/admin/users/create", admin::createUserForAdmin)
+                .PATCH("/admin/users/update/{userId}", admin::updateUserForAdmin)
+                .DELETE("/admin/users/delete/{userId}", admin::deleteUserForAdmin)
+                .build();
+    }
+}
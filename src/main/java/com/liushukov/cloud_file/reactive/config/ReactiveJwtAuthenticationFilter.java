@@ -0,0 +1,74 @@
+package com.liushukov.cloud_file.reactive.config;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.exception.RevokedTokenException;
+import com.liushukov.cloud_file.reactive.repository.ReactiveUserRepository;
+import com.liushukov.cloud_file.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * The reactive counterpart of the servlet JWT filter. The principal and both revocation checks come
+ * from a single query, since there is no blocking principal cache to put in front of the database here.
+ */
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+    private final JwtService jwtService;
+    private final ReactiveUserRepository userRepository;
+
+    public ReactiveJwtAuthenticationFilter(JwtService jwtService, ReactiveUserRepository userRepository) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        final String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        return Mono.fromCallable(() -> jwtService.extractAllClaims(authHeader.substring(7)))
+                .flatMap(claims -> {
+                    if (claims.getSubject() == null) {
+                        return chain.filter(exchange);
+                    }
+                    return loadPrincipal(claims).flatMap(principal -> {
+                        if (!jwtService.isTokenValid(claims, principal)) {
+                            return chain.filter(exchange);
+                        }
+                        UsernamePasswordAuthenticationToken authToken = UsernamePasswordAuthenticationToken.authenticated(
+                                principal,
+                                null,
+                                principal.getAuthorities()
+                        );
+                        return chain.filter(exchange)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authToken));
+                    });
+                });
+    }
+
+    private Mono<AuthenticatedUser> loadPrincipal(Claims claims) {
+        Instant issuedAt = claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant();
+        return userRepository.findTokenPrincipal(claims.getSubject(), claims.getId())
+                .switchIfEmpty(Mono.error(() -> new UsernameNotFoundException("User not found")))
+                .flatMap(tokenPrincipal -> {
+                    if (tokenPrincipal.tokenRevoked()) {
+                        return Mono.error(RevokedTokenException.TOKEN_REVOKED);
+                    }
+                    if (tokenPrincipal.isUserTokenRevoked(issuedAt)) {
+                        return Mono.error(RevokedTokenException.USER_TOKENS_REVOKED);
+                    }
+                    return Mono.just(tokenPrincipal.principal());
+                });
+    }
+}
@@ -0,0 +1,115 @@
+package com.liushukov.cloud_file.reactive.config;
+
+import com.liushukov.cloud_file.config.PermissionChecker;
+import com.liushukov.cloud_file.entity.Permission;
+import com.liushukov.cloud_file.reactive.repository.ReactiveUserRepository;
+import com.liushukov.cloud_file.service.JwtService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Security of the reactive variant. Not a {@code @Configuration}, so the servlet application's
+ * component scan leaves it alone; {@link ReactiveConfiguration} imports it.
+ * <p>
+ * BCrypt is deliberately slow and would stall an event loop, so both the login check and password
+ * hashing run on a bounded scheduler. Its queue caps how many hashes can wait, which keeps a login
+ * flood from growing an unbounded backlog.
+ */
+public class ReactiveSecurityConfiguration {
+    @Bean(destroyMethod = "dispose")
+    Scheduler passwordHashingScheduler(
+            @Value("${app.reactive.password-hashing-threads:0}") int threads,
+            @Value("${app.reactive.password-hashing-queue:1000}") int queueSize
+    ) {
+        int threadCap = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Schedulers.newBoundedElastic(threadCap, queueSize, "password-hashing");
+    }
+
+    @Bean
+    PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Bean
+    ReactiveUserDetailsService reactiveUserDetailsService(ReactiveUserRepository userRepository) {
+        return username -> userRepository.findPrincipalByEmail(username).cast(UserDetails.class);
+    }
+
+    @Bean
+    ReactiveAuthenticationManager reactiveAuthenticationManager(
+            ReactiveUserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder,
+            Scheduler passwordHashingScheduler
+    ) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setScheduler(passwordHashingScheduler);
+        return authenticationManager;
+    }
+
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(
+            ServerHttpSecurity http,
+            JwtService jwtService,
+            ReactiveUserRepository userRepository,
+            PermissionChecker permissions
+    ) {
+        http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(authorize -> authorize
+                        .pathMatchers("/auth/**").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/admin/users/user/**", "/admin/users/all")
+                        .access(permission(permissions, Permission.USER_READ))
+                        .pathMatchers(HttpMethod.GET, "/admin/users/search")
+                        .access(permission(permissions, Permission.USER_SEARCH))
+                        .pathMatchers(HttpMethod.POST, "/admin/users/create")
+                        .access(permission(permissions, Permission.USER_CREATE))
+                        .pathMatchers(HttpMethod.PATCH, "/admin/users/update/**")
+                        .access(permission(permissions, Permission.USER_UPDATE))
+                        .pathMatchers(HttpMethod.DELETE, "/admin/users/delete/**")
+                        .access(permission(permissions, Permission.USER_DELETE))
+                        .anyExchange().authenticated()
+                )
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN))
+                )
+                // not a bean, so it is not registered a second time as a global WebFilter
+                .addFilterAt(
+                        new ReactiveJwtAuthenticationFilter(jwtService, userRepository),
+                        SecurityWebFiltersOrder.AUTHENTICATION
+                );
+
+        return http.build();
+    }
+
+    private static ReactiveAuthorizationManager<AuthorizationContext> permission(
+            PermissionChecker permissions,
+            Permission permission
+    ) {
+        return (authentication, context) -> authentication
+                .map(auth -> new AuthorizationDecision(permissions.has(auth, permission)))
+                .defaultIfEmpty(new AuthorizationDecision(false));
+    }
+}
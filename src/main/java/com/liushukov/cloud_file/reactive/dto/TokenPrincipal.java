@@ -0,0 +1,15 @@
+package com.liushukov.cloud_file.reactive.dto;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+
+import java.time.Instant;
+
+/**
+ * The principal of a bearer token together with its revocation state, loaded in one query.
+ */
+public record TokenPrincipal(AuthenticatedUser principal, boolean tokenRevoked, Instant revokedBefore) {
+    public boolean isUserTokenRevoked(Instant issuedAt) {
+        // iat has second precision, so a token issued in the same second as the revocation is revoked too
+        return revokedBefore != null && (issuedAt == null || !issuedAt.isAfter(revokedBefore));
+    }
+}
@@ -0,0 +1,58 @@
+package com.liushukov.cloud_file.reactive.dto;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserEventPayload;
+import com.liushukov.cloud_file.dto.UserUpdateDto;
+import com.liushukov.cloud_file.entity.Role;
+
+import java.util.Locale;
+
+/**
+ * The writable columns of a {@code users} row. Stands in for the {@code User} entity, whose id is only
+ * ever assigned by Hibernate.
+ */
+public record UserRow(
+        Long id,
+        String fullName,
+        String email,
+        String password,
+        Role role,
+        boolean enabled
+) {
+    public UserRow withId(long id) {
+        return new UserRow(id, fullName, email, password, role, enabled);
+    }
+
+    public UserRow withEnabled(boolean enabled) {
+        return new UserRow(id, fullName, email, password, role, enabled);
+    }
+
+    // same rules as UserMapper.update: absent fields are kept and emails are stored in canonical form
+    public UserRow apply(UserUpdateDto userUpdateDto, String passwordHash) {
+        return new UserRow(
+                id,
+                userUpdateDto.fullName() != null ? userUpdateDto.fullName() : fullName,
+                userUpdateDto.email() != null ? canonicalEmail(userUpdateDto.email()) : email,
+                passwordHash != null ? passwordHash : password,
+                role,
+                enabled
+        );
+    }
+
+    public UserDto toUserDto() {
+        return new UserDto(fullName, email, password);
+    }
+
+    public AuthenticatedUser toPrincipal() {
+        return new AuthenticatedUser(id, email, password, role, enabled);
+    }
+
+    public UserEventPayload toEventPayload() {
+        return new UserEventPayload(id, fullName, email, role, enabled);
+    }
+
+    public static String canonicalEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,41 @@
+package com.liushukov.cloud_file.reactive.exception;
+
+import com.liushukov.cloud_file.exception.ApiError;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers errors of the reactive variant with the same bodies {@link ApiError} gives the servlet one.
+ * Framework errors that carry their own status, such as unreadable bodies or unknown routes, are left
+ * to the default handler.
+ */
+public class ReactiveExceptionHandler implements WebExceptionHandler, Ordered {
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable exception) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (exception instanceof ResponseStatusException || response.isCommitted()) {
+            return Mono.error(exception);
+        }
+
+        ApiError error = ApiError.forException(exception);
+        byte[] body = error.body(exchange.getRequest().getPath().value());
+        response.setStatusCode(HttpStatusCode.valueOf(error.getStatus()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    @Override
+    public int getOrder() {
+        // ahead of the Boot error handler, which renders its own error attributes
+        return -2;
+    }
+}
@@ -0,0 +1,108 @@
+package com.liushukov.cloud_file.reactive.handler;
+
+import org.springframework.http.codec.json.Jackson2CodecSupport;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserUpdateDto;
+import com.liushukov.cloud_file.dto.UserViews;
+import com.liushukov.cloud_file.entity.AuditAction;
+import com.liushukov.cloud_file.reactive.repository.ReactiveEventRepository;
+import com.liushukov.cloud_file.reactive.service.ReactiveUserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+public class ReactiveAdminHandler {
+    // trigram indexes can only serve patterns of at least three characters
+    private static final int MIN_SEARCH_QUERY_LENGTH = 3;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    private final ReactiveUserService userService;
+    private final ReactiveEventRepository eventRepository;
+    private final RequestValidator requestValidator;
+
+    public ReactiveAdminHandler(
+            ReactiveUserService userService,
+            ReactiveEventRepository eventRepository,
+            RequestValidator requestValidator
+    ) {
+        this.userService = userService;
+        this.eventRepository = eventRepository;
+        this.requestValidator = requestValidator;
+    }
+
+    public Mono<ServerResponse> userById(ServerRequest request) {
+        return userService.getUserProfileById(userId(request))
+                .flatMap(user -> ServerResponse.ok().bodyValue(user))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    public Mono<ServerResponse> allUsers(ServerRequest request) {
+        String sortBy = request.queryParam("sortBy").orElse("id");
+        String orderBy = request.queryParam("orderBy").orElse("asc");
+        int pageNumber = Integer.parseInt(request.queryParam("pageNumber").orElse("0"));
+        int pageSize = Integer.parseInt(request.queryParam("pageSize").orElse("10"));
+        boolean compact = "compact".equals(request.queryParam("view").orElse("full"));
+
+        Mono<List<UserProfileDto>> users = userService.getAllUsers(sortBy, orderBy, pageNumber, pageSize).collectList();
+        return users.flatMap(page -> compact
+                ? ServerResponse.ok().hint(Jackson2CodecSupport.JSON_VIEW_HINT, UserViews.Compact.class).bodyValue(page)
+                : ServerResponse.ok().bodyValue(page));
+    }
+
+    public Mono<ServerResponse> searchUsers(ServerRequest request) {
+        String query = request.queryParam("query").map(String::trim).orElse("");
+        String mode = request.queryParam("mode").orElse("substring");
+        long afterId = Long.parseLong(request.queryParam("afterId").orElse("0"));
+        int pageSize = Integer.parseInt(request.queryParam("pageSize").orElse("20"));
+        if (query.length() < MIN_SEARCH_QUERY_LENGTH || pageSize < 1 || pageSize > MAX_SEARCH_PAGE_SIZE) {
+            return ServerResponse.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return userService.searchUsers(query, mode, afterId, pageSize)
+                .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    public Mono<ServerResponse> createUserForAdmin(ServerRequest request) {
+        return request.principal().zipWith(request.bodyToMono(UserDto.class).map(requestValidator::validate))
+                .flatMap(tuple -> userService.createUser(tuple.getT2())
+                        .flatMap(user -> audit(AuditAction.USER_CREATED, tuple.getT1().getName(), null, user.email())
+                                .thenReturn(user)))
+                .flatMap(user -> ServerResponse.status(HttpStatus.CREATED).bodyValue(user))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.CONFLICT).build());
+    }
+
+    public Mono<ServerResponse> updateUserForAdmin(ServerRequest request) {
+        long userId = userId(request);
+        return request.principal().zipWith(request.bodyToMono(UserUpdateDto.class).map(requestValidator::validate))
+                .flatMap(tuple -> userService.updateUser(userId, tuple.getT2())
+                        .flatMap(user -> audit(AuditAction.USER_UPDATED, tuple.getT1().getName(), userId, null)
+                                .thenReturn(user)))
+                .flatMap(user -> ServerResponse.ok().bodyValue(user))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    public Mono<ServerResponse> deleteUserForAdmin(ServerRequest request) {
+        long userId = userId(request);
+        return request.principal()
+                .flatMap(principal -> userService.deleteUser(userId)
+                        .flatMap(deleted -> deleted
+                                ? audit(AuditAction.USER_DELETED, principal.getName(), userId, null).thenReturn(true)
+                                : Mono.just(false)))
+                .flatMap(deleted -> deleted
+                        ? ServerResponse.noContent().build()
+                        : ServerResponse.status(HttpStatus.BAD_REQUEST).build())
+                .switchIfEmpty(ServerResponse.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    private Mono<Void> audit(AuditAction action, String actor, Long targetUserId, String details) {
+        return eventRepository.insertAuditEvent(action, actor, targetUserId, details, Instant.now());
+    }
+
+    private static long userId(ServerRequest request) {
+        return Long.parseLong(request.pathVariable("userId"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.liushukov.cloud_file.reactive.handler;
+
+import com.liushukov.cloud_file.dto.RefreshTokenDto;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserLoginDto;
+import com.liushukov.cloud_file.reactive.service.ReactiveAuthenticationService;
+import com.liushukov.cloud_file.reactive.service.ReactiveUserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+public class ReactiveAuthenticationHandler {
+    private final ReactiveUserService userService;
+    private final ReactiveAuthenticationService authenticationService;
+    private final RequestValidator requestValidator;
+
+    public ReactiveAuthenticationHandler(
+            ReactiveUserService userService,
+            ReactiveAuthenticationService authenticationService,
+            RequestValidator requestValidator
+    ) {
+        this.userService = userService;
+        this.authenticationService = authenticationService;
+        this.requestValidator = requestValidator;
+    }
+
+    public Mono<ServerResponse> registration(ServerRequest request) {
+        return request.bodyToMono(UserDto.class)
+                .map(requestValidator::validate)
+                .flatMap(userService::createUser)
+                .flatMap(user -> ServerResponse.status(HttpStatus.CREATED).bodyValue(user))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.CONFLICT).build());
+    }
+
+    public Mono<ServerResponse> login(ServerRequest request) {
+        return request.bodyToMono(UserLoginDto.class)
+                .map(requestValidator::validate)
+                .flatMap(authenticationService::login)
+                .flatMap(tokens -> ServerResponse.ok().bodyValue(tokens));
+    }
+
+    public Mono<ServerResponse> refresh(ServerRequest request) {
+        return request.bodyToMono(RefreshTokenDto.class)
+                .map(requestValidator::validate)
+                .flatMap(refreshTokenDto -> authenticationService.refresh(refreshTokenDto.refreshToken()))
+                .flatMap(tokens -> ServerResponse.ok().bodyValue(tokens));
+    }
+}
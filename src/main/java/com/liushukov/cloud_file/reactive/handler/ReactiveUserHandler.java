@@ -0,0 +1,64 @@
+package com.liushukov.cloud_file.reactive.handler;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.UserUpdateDto;
+import com.liushukov.cloud_file.reactive.service.ReactiveAuthenticationService;
+import com.liushukov.cloud_file.reactive.service.ReactiveUserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+public class ReactiveUserHandler {
+    private final ReactiveUserService userService;
+    private final ReactiveAuthenticationService authenticationService;
+    private final RequestValidator requestValidator;
+
+    public ReactiveUserHandler(
+            ReactiveUserService userService,
+            ReactiveAuthenticationService authenticationService,
+            RequestValidator requestValidator
+    ) {
+        this.userService = userService;
+        this.authenticationService = authenticationService;
+        this.requestValidator = requestValidator;
+    }
+
+    public Mono<ServerResponse> me(ServerRequest request) {
+        return principal(request)
+                .flatMap(user -> userService.getActiveUserProfile(user.getUsername()))
+                .flatMap(profile -> ServerResponse.ok().bodyValue(profile))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    public Mono<ServerResponse> updateUser(ServerRequest request) {
+        return principal(request)
+                .zipWith(request.bodyToMono(UserUpdateDto.class).map(requestValidator::validate))
+                .flatMap(tuple -> userService.updateUser(tuple.getT1().id(), tuple.getT2()))
+                .flatMap(user -> ServerResponse.ok().bodyValue(user))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    public Mono<ServerResponse> deleteUser(ServerRequest request) {
+        return principal(request)
+                .flatMap(user -> userService.deleteUser(user.id()))
+                .flatMap(deleted -> deleted
+                        ? ServerResponse.noContent().build()
+                        : ServerResponse.status(HttpStatus.BAD_REQUEST).build())
+                .switchIfEmpty(ServerResponse.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    public Mono<ServerResponse> logout(ServerRequest request) {
+        String authHeader = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        return authenticationService.logout(authHeader.substring(7))
+                .then(ServerResponse.noContent().build());
+    }
+
+    private static Mono<AuthenticatedUser> principal(ServerRequest request) {
+        return request.principal()
+                .cast(Authentication.class)
+                .map(authentication -> (AuthenticatedUser) authentication.getPrincipal());
+    }
+}
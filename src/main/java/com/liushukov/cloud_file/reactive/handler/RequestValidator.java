@@ -0,0 +1,27 @@
+package com.liushukov.cloud_file.reactive.handler;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+import java.util.Set;
+
+/**
+ * The functional endpoints have no {@code @Valid}, so request bodies are checked against the same
+ * constraints here. Violations are answered like the MVC variant answers them.
+ */
+public class RequestValidator {
+    private final Validator validator;
+
+    public RequestValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    public <T> T validate(T body) {
+        Set<ConstraintViolation<T>> violations = validator.validate(body);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return body;
+    }
+}
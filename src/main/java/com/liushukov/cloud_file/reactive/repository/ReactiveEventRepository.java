@@ -0,0 +1,18 @@
+package com.liushukov.cloud_file.reactive.repository;
+
+import com.liushukov.cloud_file.entity.AuditAction;
+import com.liushukov.cloud_file.entity.UserEventType;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface ReactiveEventRepository {
+    Mono<Void> insertOutboxEvent(UserEventType type, long userId, String payload, Instant createdAt);
+
+    Mono<Void> insertAuditEvent(AuditAction action, String actor, Long targetUserId, String details, Instant occurredAt);
+
+    /**
+     * Sends a Postgres notification, delivered when the surrounding transaction commits.
+     */
+    Mono<Void> notify(String channel, String payload);
+}
@@ -0,0 +1,20 @@
+package com.liushukov.cloud_file.reactive.repository;
+
+import com.liushukov.cloud_file.entity.RefreshToken;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface ReactiveTokenRepository {
+    Mono<Void> insertRefreshToken(RefreshToken refreshToken);
+
+    /**
+     * Deletes the refresh token and emits the deleted row, so a token can be consumed only once even by
+     * concurrent requests. Completes empty when the token does not exist.
+     */
+    Mono<RefreshToken> deleteRefreshTokenByHash(String tokenHash);
+
+    Mono<Void> insertRevokedToken(String jti, Instant expiresAt);
+
+    Mono<Void> upsertUserTokenRevocation(long userId, Instant revokedBefore);
+}
@@ -0,0 +1,37 @@
+package com.liushukov.cloud_file.reactive.repository;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.reactive.dto.TokenPrincipal;
+import com.liushukov.cloud_file.reactive.dto.UserRow;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserRepository {
+    /**
+     * Loads the principal for {@code email} and whether the token {@code tokenId} or all tokens of the
+     * user were revoked, in a single round trip.
+     */
+    Mono<TokenPrincipal> findTokenPrincipal(String email, String tokenId);
+
+    Mono<AuthenticatedUser> findPrincipalByEmail(String email);
+
+    Mono<UserRow> findUserById(long id);
+
+    Mono<UserProfileDto> findUserProfileById(long id);
+
+    Mono<UserProfileDto> findActiveUserProfileByEmail(String email);
+
+    Flux<UserProfileDto> findUserProfiles(String sortBy, boolean descending, int limit, long offset);
+
+    Flux<UserProfileDto> searchUserProfilesByPattern(String pattern, long afterId, int limit);
+
+    Flux<UserProfileDto> searchUserProfilesBySimilarity(String term, long afterId, int limit);
+
+    /**
+     * Inserts the user unless the email is taken and returns the new id, or completes empty on conflict.
+     */
+    Mono<Long> insertUserIfAbsent(UserRow user);
+
+    Mono<Void> updateUser(UserRow user);
+}
@@ -0,0 +1,23 @@
+package com.liushukov.cloud_file.reactive.repository.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * The timestamp columns are {@code TIMESTAMP} without time zone and hold the local time of the JVM that
+ * wrote them, which is what JDBC and Hibernate store for an {@link Instant}. R2DBC maps those columns to
+ * {@link LocalDateTime}, so the conversion uses the same zone.
+ */
+final class R2dbcTimestamps {
+    private R2dbcTimestamps() {
+    }
+
+    static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    static Instant toInstant(LocalDateTime localDateTime) {
+        return localDateTime == null ? null : localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,59 @@
+package com.liushukov.cloud_file.reactive.repository.impl;
+
+import com.liushukov.cloud_file.entity.AuditAction;
+import com.liushukov.cloud_file.entity.UserEventType;
+import com.liushukov.cloud_file.reactive.repository.ReactiveEventRepository;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static com.liushukov.cloud_file.reactive.repository.impl.R2dbcTimestamps.toLocalDateTime;
+
+public class ReactiveEventRepositoryImpl implements ReactiveEventRepository {
+    private static final String INSERT_OUTBOX_EVENT =
+            "INSERT INTO user_outbox(created_at, event_type, user_id, payload, next_attempt_at) " +
+            "VALUES (:createdAt, :type, :userId, :payload, :createdAt)";
+    private static final String INSERT_AUDIT_EVENT =
+            "INSERT INTO audit_events(occurred_at, action, actor, target_user_id, details) " +
+            "VALUES (:occurredAt, :action, :actor, :targetUserId, :details)";
+    private static final String NOTIFY = "SELECT pg_notify(:channel, :payload)";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveEventRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Void> insertOutboxEvent(UserEventType type, long userId, String payload, Instant createdAt) {
+        return databaseClient.sql(INSERT_OUTBOX_EVENT)
+                .bind("createdAt", toLocalDateTime(createdAt))
+                .bind("type", type.name())
+                .bind("userId", userId)
+                .bind("payload", payload)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> insertAuditEvent(
+            AuditAction action, String actor, Long targetUserId, String details, Instant occurredAt
+    ) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_AUDIT_EVENT)
+                .bind("occurredAt", toLocalDateTime(occurredAt))
+                .bind("action", action.name());
+        spec = actor == null ? spec.bindNull("actor", String.class) : spec.bind("actor", actor);
+        spec = targetUserId == null ? spec.bindNull("targetUserId", Long.class) : spec.bind("targetUserId", targetUserId);
+        spec = details == null ? spec.bindNull("details", String.class) : spec.bind("details", details);
+        return spec.then();
+    }
+
+    @Override
+    public Mono<Void> notify(String channel, String payload) {
+        return databaseClient.sql(NOTIFY)
+                .bind("channel", channel)
+                .bind("payload", payload)
+                .then();
+    }
+}
@@ -0,0 +1,68 @@
+package com.liushukov.cloud_file.reactive.repository.impl;
+
+import com.liushukov.cloud_file.entity.RefreshToken;
+import com.liushukov.cloud_file.reactive.repository.ReactiveTokenRepository;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static com.liushukov.cloud_file.reactive.repository.impl.R2dbcTimestamps.toInstant;
+import static com.liushukov.cloud_file.reactive.repository.impl.R2dbcTimestamps.toLocalDateTime;
+
+public class ReactiveTokenRepositoryImpl implements ReactiveTokenRepository {
+    private static final String INSERT_REFRESH_TOKEN =
+            "INSERT INTO refresh_tokens(token_hash, user_id, expires_at, created_at) " +
+            "VALUES (:tokenHash, :userId, :expiresAt, :createdAt)";
+    private static final String DELETE_REFRESH_TOKEN =
+            "DELETE FROM refresh_tokens WHERE token_hash = :tokenHash RETURNING token_hash, user_id, expires_at";
+    private static final String INSERT_REVOKED_TOKEN =
+            "INSERT INTO revoked_tokens(jti, expires_at) VALUES (:jti, :expiresAt) ON CONFLICT (jti) DO NOTHING";
+    private static final String UPSERT_USER_TOKEN_REVOCATION =
+            "INSERT INTO user_token_revocations(user_id, revoked_before) VALUES (:userId, :revokedBefore) " +
+            "ON CONFLICT (user_id) DO UPDATE SET revoked_before = EXCLUDED.revoked_before";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveTokenRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Void> insertRefreshToken(RefreshToken refreshToken) {
+        return databaseClient.sql(INSERT_REFRESH_TOKEN)
+                .bind("tokenHash", refreshToken.getTokenHash())
+                .bind("userId", refreshToken.getUserId())
+                .bind("expiresAt", toLocalDateTime(refreshToken.getExpiresAt()))
+                .bind("createdAt", toLocalDateTime(Instant.now()))
+                .then();
+    }
+
+    @Override
+    public Mono<RefreshToken> deleteRefreshTokenByHash(String tokenHash) {
+        return databaseClient.sql(DELETE_REFRESH_TOKEN)
+                .bind("tokenHash", tokenHash)
+                .map((row, metadata) -> new RefreshToken()
+                        .setTokenHash(row.get("token_hash", String.class))
+                        .setUserId(row.get("user_id", Long.class))
+                        .setExpiresAt(toInstant(row.get("expires_at", LocalDateTime.class))))
+                .one();
+    }
+
+    @Override
+    public Mono<Void> insertRevokedToken(String jti, Instant expiresAt) {
+        return databaseClient.sql(INSERT_REVOKED_TOKEN)
+                .bind("jti", jti)
+                .bind("expiresAt", toLocalDateTime(expiresAt))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> upsertUserTokenRevocation(long userId, Instant revokedBefore) {
+        return databaseClient.sql(UPSERT_USER_TOKEN_REVOCATION)
+                .bind("userId", userId)
+                .bind("revokedBefore", toLocalDateTime(revokedBefore))
+                .then();
+    }
+}
@@ -0,0 +1,201 @@
+package com.liushukov.cloud_file.reactive.repository.impl;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.reactive.dto.TokenPrincipal;
+import com.liushukov.cloud_file.reactive.dto.UserRow;
+import com.liushukov.cloud_file.reactive.repository.ReactiveUserRepository;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static com.liushukov.cloud_file.reactive.repository.impl.R2dbcTimestamps.toInstant;
+import static com.liushukov.cloud_file.reactive.repository.impl.R2dbcTimestamps.toLocalDateTime;
+
+public class ReactiveUserRepositoryImpl implements ReactiveUserRepository {
+    private static final String USER_PROFILE_COLUMNS =
+            "SELECT id, created_at, updated_at, full_name, email, role, enabled FROM users ";
+    private static final String FIND_TOKEN_PRINCIPAL =
+            "SELECT u.id, u.email, u.password, u.role, u.enabled, r.revoked_before, " +
+            "EXISTS (SELECT 1 FROM revoked_tokens t WHERE t.jti = :tokenId) AS token_revoked " +
+            "FROM users u LEFT JOIN user_token_revocations r ON r.user_id = u.id " +
+            "WHERE lower(u.email) = lower(:email)";
+    private static final String FIND_PRINCIPAL =
+            "SELECT id, email, password, role, enabled FROM users WHERE lower(email) = lower(:email)";
+    private static final String FIND_USER_BY_ID =
+            "SELECT id, full_name, email, password, role, enabled FROM users WHERE id = :id";
+    private static final String FIND_PROFILE_BY_ID = USER_PROFILE_COLUMNS + "WHERE id = :id";
+    private static final String FIND_ACTIVE_PROFILE_BY_EMAIL = USER_PROFILE_COLUMNS +
+            "WHERE lower(email) = lower(:email) AND enabled = true";
+    private static final String FIND_PROFILES = USER_PROFILE_COLUMNS + "ORDER BY %s %s LIMIT :limit OFFSET :offset";
+    private static final String SEARCH_BY_PATTERN = USER_PROFILE_COLUMNS +
+            "WHERE (full_name ILIKE :pattern OR email ILIKE :pattern) AND id > :afterId " +
+            "ORDER BY id LIMIT :limit";
+    private static final String SEARCH_BY_SIMILARITY = USER_PROFILE_COLUMNS +
+            "WHERE (full_name % :term OR email % :term) AND id > :afterId " +
+            "ORDER BY id LIMIT :limit";
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO users(created_at, updated_at, full_name, email, password, role, enabled) " +
+            "VALUES (:createdAt, :updatedAt, :fullName, :email, :password, :role, :enabled) " +
+            "ON CONFLICT ((lower(email))) DO NOTHING RETURNING id";
+    private static final String UPDATE_USER =
+            "UPDATE users SET updated_at = :updatedAt, full_name = :fullName, email = :email, " +
+            "password = :password, enabled = :enabled WHERE id = :id";
+
+    // the sortable properties of UserProfileDto; the column name is spliced into ORDER BY
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at",
+            "fullName", "full_name",
+            "email", "email",
+            "role", "role",
+            "enabled", "enabled"
+    );
+
+    private static final BiFunction<Row, RowMetadata, UserProfileDto> USER_PROFILE_MAPPER = (row, metadata) ->
+            new UserProfileDto(
+                    row.get("id", Long.class),
+                    toInstant(row.get("created_at", LocalDateTime.class)),
+                    toInstant(row.get("updated_at", LocalDateTime.class)),
+                    row.get("full_name", String.class),
+                    row.get("email", String.class),
+                    Role.valueOf(row.get("role", String.class)),
+                    row.get("enabled", Boolean.class)
+            );
+    private static final BiFunction<Row, RowMetadata, AuthenticatedUser> PRINCIPAL_MAPPER = (row, metadata) ->
+            new AuthenticatedUser(
+                    row.get("id", Long.class),
+                    row.get("email", String.class),
+                    row.get("password", String.class),
+                    Role.valueOf(row.get("role", String.class)),
+                    row.get("enabled", Boolean.class)
+            );
+    private static final BiFunction<Row, RowMetadata, TokenPrincipal> TOKEN_PRINCIPAL_MAPPER = (row, metadata) ->
+            new TokenPrincipal(
+                    PRINCIPAL_MAPPER.apply(row, metadata),
+                    Boolean.TRUE.equals(row.get("token_revoked", Boolean.class)),
+                    toInstant(row.get("revoked_before", LocalDateTime.class))
+            );
+    private static final BiFunction<Row, RowMetadata, UserRow> USER_MAPPER = (row, metadata) -> new UserRow(
+            row.get("id", Long.class),
+            row.get("full_name", String.class),
+            row.get("email", String.class),
+            row.get("password", String.class),
+            Role.valueOf(row.get("role", String.class)),
+            row.get("enabled", Boolean.class)
+    );
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<TokenPrincipal> findTokenPrincipal(String email, String tokenId) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(FIND_TOKEN_PRINCIPAL).bind("email", email);
+        spec = tokenId == null ? spec.bindNull("tokenId", String.class) : spec.bind("tokenId", tokenId);
+        return spec.map(TOKEN_PRINCIPAL_MAPPER).one();
+    }
+
+    @Override
+    public Mono<AuthenticatedUser> findPrincipalByEmail(String email) {
+        return databaseClient.sql(FIND_PRINCIPAL)
+                .bind("email", email)
+                .map(PRINCIPAL_MAPPER)
+                .one();
+    }
+
+    @Override
+    public Mono<UserRow> findUserById(long id) {
+        return databaseClient.sql(FIND_USER_BY_ID)
+                .bind("id", id)
+                .map(USER_MAPPER)
+                .one();
+    }
+
+    @Override
+    public Mono<UserProfileDto> findUserProfileById(long id) {
+        return databaseClient.sql(FIND_PROFILE_BY_ID)
+                .bind("id", id)
+                .map(USER_PROFILE_MAPPER)
+                .one();
+    }
+
+    @Override
+    public Mono<UserProfileDto> findActiveUserProfileByEmail(String email) {
+        return databaseClient.sql(FIND_ACTIVE_PROFILE_BY_EMAIL)
+                .bind("email", email)
+                .map(USER_PROFILE_MAPPER)
+                .one();
+    }
+
+    @Override
+    public Flux<UserProfileDto> findUserProfiles(String sortBy, boolean descending, int limit, long offset) {
+        String column = SORT_COLUMNS.get(sortBy);
+        if (column == null) {
+            return Flux.error(new IllegalArgumentException("Unknown sort property: " + sortBy));
+        }
+        return databaseClient.sql(String.format(FIND_PROFILES, column, descending ? "DESC" : "ASC"))
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(USER_PROFILE_MAPPER)
+                .all();
+    }
+
+    @Override
+    public Flux<UserProfileDto> searchUserProfilesByPattern(String pattern, long afterId, int limit) {
+        return databaseClient.sql(SEARCH_BY_PATTERN)
+                .bind("pattern", pattern)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(USER_PROFILE_MAPPER)
+                .all();
+    }
+
+    @Override
+    public Flux<UserProfileDto> searchUserProfilesBySimilarity(String term, long afterId, int limit) {
+        return databaseClient.sql(SEARCH_BY_SIMILARITY)
+                .bind("term", term)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(USER_PROFILE_MAPPER)
+                .all();
+    }
+
+    @Override
+    public Mono<Long> insertUserIfAbsent(UserRow user) {
+        LocalDateTime now = toLocalDateTime(Instant.now());
+        return databaseClient.sql(INSERT_IF_ABSENT)
+                .bind("createdAt", now)
+                .bind("updatedAt", now)
+                .bind("fullName", user.fullName())
+                .bind("email", user.email())
+                .bind("password", user.password())
+                .bind("role", user.role().name())
+                .bind("enabled", user.enabled())
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Void> updateUser(UserRow user) {
+        return databaseClient.sql(UPDATE_USER)
+                .bind("updatedAt", toLocalDateTime(Instant.now()))
+                .bind("fullName", user.fullName())
+                .bind("email", user.email())
+                .bind("password", user.password())
+                .bind("enabled", user.enabled())
+                .bind("id", user.id())
+                .then();
+    }
+}
@@ -0,0 +1,13 @@
+package com.liushukov.cloud_file.reactive.service;
+
+import com.liushukov.cloud_file.dto.TokenDto;
+import com.liushukov.cloud_file.dto.UserLoginDto;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAuthenticationService {
+    Mono<TokenDto> login(UserLoginDto loginDto);
+
+    Mono<TokenDto> refresh(String refreshToken);
+
+    Mono<Void> logout(String jwt);
+}
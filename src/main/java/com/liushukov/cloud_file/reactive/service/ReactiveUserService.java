@@ -0,0 +1,33 @@
+package com.liushukov.cloud_file.reactive.service;
+
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserSearchResultDto;
+import com.liushukov.cloud_file.dto.UserUpdateDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+    Mono<UserProfileDto> getActiveUserProfile(String email);
+
+    Mono<UserProfileDto> getUserProfileById(long id);
+
+    Flux<UserProfileDto> getAllUsers(String sortBy, String orderBy, int pageNumber, int pageSize);
+
+    Mono<UserSearchResultDto> searchUsers(String query, String mode, long afterId, int limit);
+
+    /**
+     * Completes empty when the email is already registered.
+     */
+    Mono<UserDto> createUser(UserDto userDto);
+
+    /**
+     * Completes empty when the user does not exist.
+     */
+    Mono<UserDto> updateUser(long userId, UserUpdateDto userUpdateDto);
+
+    /**
+     * Emits {@code false} when the user is already disabled and completes empty when it does not exist.
+     */
+    Mono<Boolean> deleteUser(long userId);
+}
@@ -0,0 +1,121 @@
+package com.liushukov.cloud_file.reactive.service.impl;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.TokenDto;
+import com.liushukov.cloud_file.dto.UserLoginDto;
+import com.liushukov.cloud_file.entity.AuditAction;
+import com.liushukov.cloud_file.entity.RefreshToken;
+import com.liushukov.cloud_file.exception.InvalidRefreshTokenException;
+import com.liushukov.cloud_file.reactive.dto.UserRow;
+import com.liushukov.cloud_file.reactive.repository.ReactiveEventRepository;
+import com.liushukov.cloud_file.reactive.repository.ReactiveTokenRepository;
+import com.liushukov.cloud_file.reactive.repository.ReactiveUserRepository;
+import com.liushukov.cloud_file.reactive.service.ReactiveAuthenticationService;
+import com.liushukov.cloud_file.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Login, refresh and logout as done by {@code AuthenticationServiceImpl}, {@code RefreshTokenServiceImpl}
+ * and {@code UserController}. Audit events are written directly instead of through the batching
+ * {@code AuditService}, which is built around a servlet-side writer thread.
+ */
+public class ReactiveAuthenticationServiceImpl implements ReactiveAuthenticationService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveTokenRepository tokenRepository;
+    private final ReactiveEventRepository eventRepository;
+    private final JwtService jwtService;
+    private final long refreshExpiration;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public ReactiveAuthenticationServiceImpl(
+            ReactiveAuthenticationManager authenticationManager,
+            ReactiveUserRepository userRepository,
+            ReactiveTokenRepository tokenRepository,
+            ReactiveEventRepository eventRepository,
+            JwtService jwtService,
+            long refreshExpiration
+    ) {
+        this.authenticationManager = authenticationManager;
+        this.userRepository = userRepository;
+        this.tokenRepository = tokenRepository;
+        this.eventRepository = eventRepository;
+        this.jwtService = jwtService;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    @Override
+    public Mono<TokenDto> login(UserLoginDto loginDto) {
+        return authenticationManager
+                .authenticate(UsernamePasswordAuthenticationToken.unauthenticated(loginDto.email(), loginDto.password()))
+                .map(authentication -> (AuthenticatedUser) authentication.getPrincipal())
+                .onErrorResume(AuthenticationException.class, exception -> eventRepository
+                        .insertAuditEvent(AuditAction.LOGIN_FAILED, loginDto.email(), null,
+                                exception.getClass().getSimpleName(), Instant.now())
+                        .then(Mono.error(exception)))
+                .flatMap(user -> eventRepository
+                        .insertAuditEvent(AuditAction.LOGIN_SUCCEEDED, user.getUsername(), user.id(), null, Instant.now())
+                        .then(issueTokens(user)));
+    }
+
+    @Override
+    public Mono<TokenDto> refresh(String refreshToken) {
+        return tokenRepository.deleteRefreshTokenByHash(hash(refreshToken))
+                .switchIfEmpty(Mono.error(() -> new InvalidRefreshTokenException("Refresh token not found")))
+                .filter(token -> token.getExpiresAt().isAfter(Instant.now()))
+                .switchIfEmpty(Mono.error(() -> new InvalidRefreshTokenException("Refresh token expired")))
+                .flatMap(token -> userRepository.findUserById(token.getUserId()))
+                .filter(UserRow::enabled)
+                .switchIfEmpty(Mono.error(() -> new InvalidRefreshTokenException("Refresh token owner is not active")))
+                .flatMap(user -> issueTokens(user.toPrincipal()));
+    }
+
+    @Override
+    public Mono<Void> logout(String jwt) {
+        return Mono.fromCallable(() -> jwtService.extractAllClaims(jwt))
+                .flatMap(this::revoke);
+    }
+
+    private Mono<Void> revoke(Claims claims) {
+        return tokenRepository.insertRevokedToken(claims.getId(), claims.getExpiration().toInstant());
+    }
+
+    private Mono<TokenDto> issueTokens(AuthenticatedUser user) {
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        RefreshToken entity = new RefreshToken()
+                .setTokenHash(hash(refreshToken))
+                .setUserId(user.id())
+                .setExpiresAt(Instant.now().plusMillis(refreshExpiration));
+        return tokenRepository.insertRefreshToken(entity)
+                .then(Mono.fromCallable(() -> new TokenDto(
+                        jwtService.generateToken(user), refreshToken, jwtService.getExpirationTime()
+                )));
+    }
+
+    // the digest RefreshTokenServiceImpl stores, so refresh tokens work against either variant
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+}
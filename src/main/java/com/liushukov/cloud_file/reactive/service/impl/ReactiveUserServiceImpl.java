@@ -0,0 +1,160 @@
+package com.liushukov.cloud_file.reactive.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserSearchResultDto;
+import com.liushukov.cloud_file.dto.UserUpdateDto;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.UserEventType;
+import com.liushukov.cloud_file.reactive.dto.UserRow;
+import com.liushukov.cloud_file.reactive.repository.ReactiveEventRepository;
+import com.liushukov.cloud_file.reactive.repository.ReactiveTokenRepository;
+import com.liushukov.cloud_file.reactive.repository.ReactiveUserRepository;
+import com.liushukov.cloud_file.reactive.service.ReactiveUserService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Mirrors {@code UserServiceImpl}: changes record an outbox event in the same transaction and notify the
+ * principal caches of the servlet instances. BCrypt runs on the bounded password hashing scheduler before
+ * the transaction starts, so no pooled connection is held while hashing.
+ */
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveTokenRepository tokenRepository;
+    private final ReactiveEventRepository eventRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler passwordHashingScheduler;
+    private final ObjectMapper objectMapper;
+    private final String invalidationChannel;
+
+    public ReactiveUserServiceImpl(
+            ReactiveUserRepository userRepository,
+            ReactiveTokenRepository tokenRepository,
+            ReactiveEventRepository eventRepository,
+            TransactionalOperator transactionalOperator,
+            PasswordEncoder passwordEncoder,
+            Scheduler passwordHashingScheduler,
+            ObjectMapper objectMapper,
+            String invalidationChannel
+    ) {
+        this.userRepository = userRepository;
+        this.tokenRepository = tokenRepository;
+        this.eventRepository = eventRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.objectMapper = objectMapper;
+        this.invalidationChannel = invalidationChannel;
+    }
+
+    @Override
+    public Mono<UserProfileDto> getActiveUserProfile(String email) {
+        return userRepository.findActiveUserProfileByEmail(email);
+    }
+
+    @Override
+    public Mono<UserProfileDto> getUserProfileById(long id) {
+        return userRepository.findUserProfileById(id);
+    }
+
+    @Override
+    public Flux<UserProfileDto> getAllUsers(String sortBy, String orderBy, int pageNumber, int pageSize) {
+        return userRepository.findUserProfiles(sortBy, "desc".equals(orderBy), pageSize, (long) pageNumber * pageSize);
+    }
+
+    @Override
+    public Mono<UserSearchResultDto> searchUsers(String query, String mode, long afterId, int limit) {
+        // one extra row tells whether another page exists without a separate count query
+        Flux<UserProfileDto> users;
+        switch (mode) {
+            case "prefix" -> users = userRepository.searchUserProfilesByPattern(
+                    escapeLikePattern(query) + "%", afterId, limit + 1);
+            case "fuzzy" -> users = userRepository.searchUserProfilesBySimilarity(query, afterId, limit + 1);
+            default -> users = userRepository.searchUserProfilesByPattern(
+                    "%" + escapeLikePattern(query) + "%", afterId, limit + 1);
+        }
+        return users.collectList().map(page -> {
+            if (page.size() > limit) {
+                List<UserProfileDto> result = page.subList(0, limit);
+                return new UserSearchResultDto(result, result.get(limit - 1).id());
+            }
+            return new UserSearchResultDto(page, null);
+        });
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public Mono<UserDto> createUser(UserDto userDto) {
+        return encode(userDto.password()).flatMap(passwordHash -> {
+            UserRow user = new UserRow(
+                    null, userDto.fullName(), UserRow.canonicalEmail(userDto.email()), passwordHash, Role.USER, true
+            );
+            return userRepository.insertUserIfAbsent(user)
+                    .flatMap(id -> recordUserEvent(UserEventType.USER_CREATED, user.withId(id))
+                            .thenReturn(user.toUserDto()))
+                    .as(transactionalOperator::transactional);
+        });
+    }
+
+    @Override
+    public Mono<UserDto> updateUser(long userId, UserUpdateDto userUpdateDto) {
+        Mono<Optional<String>> passwordHash = userUpdateDto.password() == null
+                ? Mono.just(Optional.empty())
+                : encode(userUpdateDto.password()).map(Optional::of);
+        return passwordHash.flatMap(hash -> userRepository.findUserById(userId)
+                .flatMap(user -> {
+                    UserRow updated = user.apply(userUpdateDto, hash.orElse(null));
+                    Mono<Void> notifyNewEmail = user.email().equals(updated.email())
+                            ? Mono.empty()
+                            : eventRepository.notify(invalidationChannel, updated.email());
+                    return userRepository.updateUser(updated)
+                            .then(recordUserEvent(UserEventType.USER_UPDATED, updated))
+                            .then(eventRepository.notify(invalidationChannel, user.email()))
+                            .then(notifyNewEmail)
+                            .thenReturn(updated.toUserDto());
+                })
+                .as(transactionalOperator::transactional));
+    }
+
+    @Override
+    public Mono<Boolean> deleteUser(long userId) {
+        return userRepository.findUserById(userId)
+                .flatMap(user -> {
+                    if (!user.enabled()) {
+                        return Mono.just(false);
+                    }
+                    UserRow disabled = user.withEnabled(false);
+                    return userRepository.updateUser(disabled)
+                            .then(recordUserEvent(UserEventType.USER_DISABLED, disabled))
+                            .then(tokenRepository.upsertUserTokenRevocation(user.id(), Instant.now()))
+                            .then(eventRepository.notify(invalidationChannel, user.email()))
+                            .thenReturn(true);
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<String> encode(String password) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(password)).subscribeOn(passwordHashingScheduler);
+    }
+
+    private Mono<Void> recordUserEvent(UserEventType type, UserRow user) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(user.toEventPayload()))
+                .onErrorMap(JsonProcessingException.class,
+                        exception -> new IllegalStateException("Failed to serialize the user event", exception))
+                .flatMap(payload -> eventRepository.insertOutboxEvent(type, user.id(), payload, Instant.now()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.liushukov.cloud_file.repository;
+
+import com.liushukov.cloud_file.dto.AuditEvent;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface AuditEventRepository {
+    /**
+     * Appends the events with one multi-row {@code INSERT}.
+     */
+    void insertAuditEvents(List<AuditEvent> events);
+
+    /**
+     * Creates the monthly partition of {@code audit_events} unless it already exists.
+     */
+    void createMonthlyPartition(YearMonth month);
+}
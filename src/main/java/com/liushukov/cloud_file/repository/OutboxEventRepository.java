@@ -0,0 +1,30 @@
+package com.liushukov.cloud_file.repository;
+
+import com.liushukov.cloud_file.dto.OutboxEvent;
+import com.liushukov.cloud_file.entity.UserEventType;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface OutboxEventRepository {
+    void insertOutboxEvent(UserEventType type, long userId, String payload, Instant createdAt);
+
+    /**
+     * Inserts one event per user as a single JDBC batch, in the iteration order of the map.
+     */
+    void insertOutboxEvents(UserEventType type, Map<Long, String> payloadsByUserId, Instant createdAt);
+
+    /**
+     * Claims up to {@code limit} due events in one statement by moving their next attempt to
+     * {@code leaseUntil}, and returns them in id order. Rows are picked with {@code FOR UPDATE SKIP
+     * LOCKED}, so concurrent relays pass over each other's claims instead of waiting, and the claim
+     * commits right away. An event whose relay dies is due again once the lease runs out.
+     */
+    List<OutboxEvent> claimDueOutboxEvents(Instant now, Instant leaseUntil, int limit);
+
+    void deleteOutboxEvents(Collection<Long> ids);
+
+    void rescheduleOutboxEvents(Collection<Long> ids, Instant nextAttemptAt);
+}
@@ -0,0 +1,33 @@
+package com.liushukov.cloud_file.repository;
+
+import com.liushukov.cloud_file.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    @Query(value = "SELECT * FROM refresh_tokens WHERE token_hash = ?1", nativeQuery = true)
+    Optional<RefreshToken> findRefreshTokenByHash(String tokenHash);
+
+    @Query(value = "SELECT r.userId, COUNT(r) FROM RefreshToken r " +
+            "WHERE r.userId IN ?1 AND r.expiresAt > ?2 GROUP BY r.userId")
+    List<Object[]> countActiveRefreshTokensByUserIds(Collection<Long> userIds, Instant now);
+
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE token_hash = ?1", nativeQuery = true)
+    int deleteRefreshTokenByHash(String tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE token_hash IN " +
+            "(SELECT token_hash FROM refresh_tokens WHERE expires_at < ?1 LIMIT ?2)", nativeQuery = true)
+    int deleteExpiredRefreshTokens(Instant now, int limit);
+}
@@ -0,0 +1,24 @@
+package com.liushukov.cloud_file.repository;
+
+import com.liushukov.cloud_file.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens(jti, expires_at) VALUES (?1, ?2) ON CONFLICT (jti) DO NOTHING",
+            nativeQuery = true)
+    void insertRevokedToken(String jti, Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM revoked_tokens WHERE expires_at < ?1", nativeQuery = true)
+    int deleteExpiredRevokedTokens(Instant now);
+}
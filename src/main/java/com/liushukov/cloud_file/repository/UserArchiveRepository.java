@@ -0,0 +1,14 @@
+package com.liushukov.cloud_file.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface UserArchiveRepository {
+    /**
+     * Moves up to {@code limit} users disabled before {@code disabledBefore} into {@code users_archive}
+     * in one statement and returns their emails. Candidates are locked with {@code FOR UPDATE SKIP LOCKED},
+     * so rows held by a concurrent request or another instance's job are left for the next run.
+     * Must run inside a transaction.
+     */
+    List<String> archiveDisabledUsers(Instant disabledBefore, Instant archivedAt, int limit);
+}
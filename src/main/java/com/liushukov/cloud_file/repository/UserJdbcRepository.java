@@ -0,0 +1,53 @@
+package com.liushukov.cloud_file.repository;
+
+import com.liushukov.cloud_file.dto.UserChange;
+import com.liushukov.cloud_file.dto.UserEventPayload;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Postgres specific user queries that JPQL cannot express. Mixed into {@link UserRepository} as a
+ * repository fragment.
+ */
+public interface UserJdbcRepository {
+    /**
+     * Case-insensitive {@code ILIKE} match on full name or email, served by the trigram indexes.
+     * Results are ordered by id and start after {@code afterId}.
+     */
+    List<UserProfileDto> searchUserProfilesByPattern(String pattern, long afterId, int limit);
+
+    /**
+     * Trigram similarity ({@code %} operator) match on full name or email, for misspelled queries.
+     * Results are ordered by id and start after {@code afterId}.
+     */
+    List<UserProfileDto> searchUserProfilesBySimilarity(String term, long afterId, int limit);
+
+    /**
+     * Inserts the user in a single {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} statement.
+     * Returns the generated id, or an empty optional when the email is already taken, including
+     * when a concurrent insert won the race.
+     */
+    Optional<Long> insertUserIfAbsent(User user);
+
+    /**
+     * Loads the users with one {@code IN} query and locks their rows until the transaction ends, so a
+     * batch works on the state it checked. Must run inside a transaction.
+     */
+    List<UserEventPayload> lockUsersByIds(Collection<Long> ids);
+
+    /**
+     * Returns which of the given canonical emails already belong to a user, in lower case.
+     */
+    List<String> findTakenEmails(Collection<String> emails);
+
+    /**
+     * Applies all changes as one JDBC batch.
+     */
+    void updateUsers(List<UserChange> changes);
+
+    void disableUsers(Collection<Long> ids);
+}
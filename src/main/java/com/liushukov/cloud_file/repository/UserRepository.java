@@ -1,17 +1,48 @@
 package com.liushukov.cloud_file.repository;
 
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.UserProfileDto;
 import com.liushukov.cloud_file.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserJdbcRepository {
+    String USER_PROFILE = "new com.liushukov.cloud_file.dto.UserProfileDto(" +
+            "u.id, u.createdAt, u.updatedAt, u.fullName, u.email, u.role, u.enabled)";
+
     @Query(value = "SELECT * FROM users WHERE id = ?1", nativeQuery = true)
     Optional<User> findUserById(long id);
 
-    @Query(value = "SELECT * FROM users WHERE email = ?1", nativeQuery = true)
+    // lower(email) on both sides matches the users_email_lower_idx expression index
+    @Query(value = "SELECT * FROM users WHERE lower(email) = lower(?1)", nativeQuery = true)
     Optional<User> findUserByEmail(String email);
+
+    // fills the principal cache, so it reads the primary: a lagging replica would hand back the row an
+    // invalidation just evicted, and it would stay cached for the whole time to live
+    @Transactional
+    @Query(value = "SELECT new com.liushukov.cloud_file.dto.AuthenticatedUser(" +
+            "u.id, u.email, u.password, u.role, u.enabled) FROM User u WHERE lower(u.email) = lower(?1)")
+    Optional<AuthenticatedUser> findPrincipalByEmail(String email);
+
+    // constructor projections select only the listed columns and return unmanaged records
+    @Query(value = "SELECT " + USER_PROFILE + " FROM User u WHERE u.id = ?1")
+    Optional<UserProfileDto> findUserProfileById(long id);
+
+    // the enabled predicate lets Postgres use the partial users_active_email_lower_idx
+    @Query(value = "SELECT " + USER_PROFILE + " FROM User u WHERE lower(u.email) = lower(?1) AND u.enabled = true")
+    Optional<UserProfileDto> findActiveUserProfileByEmail(String email);
+
+    @Query(value = "SELECT " + USER_PROFILE + " FROM User u WHERE u.id IN ?1")
+    List<UserProfileDto> findUserProfilesByIds(Collection<Long> ids);
+
+    @Query(value = "SELECT " + USER_PROFILE + " FROM User u")
+    List<UserProfileDto> findUserProfiles(Pageable pageable);
 }
@@ -0,0 +1,31 @@
+package com.liushukov.cloud_file.repository;
+
+import com.liushukov.cloud_file.entity.UserTokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface UserTokenRevocationRepository extends JpaRepository<UserTokenRevocation, Long> {
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_token_revocations(user_id, revoked_before) VALUES (?1, ?2) " +
+            "ON CONFLICT (user_id) DO UPDATE SET revoked_before = EXCLUDED.revoked_before", nativeQuery = true)
+    void upsertUserTokenRevocation(long userId, Instant revokedBefore);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_token_revocations(user_id, revoked_before) " +
+            "SELECT user_id, ?2 FROM unnest(cast(?1 AS bigint[])) AS user_id " +
+            "ON CONFLICT (user_id) DO UPDATE SET revoked_before = EXCLUDED.revoked_before", nativeQuery = true)
+    void upsertUserTokenRevocations(Long[] userIds, Instant revokedBefore);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM user_token_revocations WHERE revoked_before < ?1", nativeQuery = true)
+    int deleteOutdatedUserTokenRevocations(Instant threshold);
+}
@@ -0,0 +1,68 @@
+package com.liushukov.cloud_file.repository.impl;
+
+import com.liushukov.cloud_file.dto.AuditEvent;
+import com.liushukov.cloud_file.repository.AuditEventRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.YearMonth;
+import java.util.List;
+
+@Repository
+public class AuditEventRepositoryImpl implements AuditEventRepository {
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_events(occurred_at, action, actor, target_user_id, details) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?)";
+    private static final int COLUMN_COUNT = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditEventRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAuditEvents(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + events.size() * (ROW_PLACEHOLDERS.length() + 1))
+                .append(INSERT_PREFIX);
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString());
+            int parameter = 1;
+            for (AuditEvent event : events) {
+                statement.setTimestamp(parameter, Timestamp.from(event.occurredAt()));
+                statement.setString(parameter + 1, event.action().name());
+                statement.setString(parameter + 2, event.actor());
+                if (event.targetUserId() == null) {
+                    statement.setNull(parameter + 3, Types.BIGINT);
+                } else {
+                    statement.setLong(parameter + 3, event.targetUserId());
+                }
+                statement.setString(parameter + 4, event.details());
+                parameter += COLUMN_COUNT;
+            }
+            return statement;
+        });
+    }
+
+    @Override
+    public void createMonthlyPartition(YearMonth month) {
+        // DDL cannot take bind parameters; the values are derived from YearMonth, never from input
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS audit_events_%d_%02d PARTITION OF audit_events " +
+                "FOR VALUES FROM ('%s') TO ('%s')",
+                month.getYear(), month.getMonthValue(), month.atDay(1), month.plusMonths(1).atDay(1)
+        ));
+    }
+}
@@ -0,0 +1,102 @@
+package com.liushukov.cloud_file.repository.impl;
+
+import com.liushukov.cloud_file.dto.OutboxEvent;
+import com.liushukov.cloud_file.entity.UserEventType;
+import com.liushukov.cloud_file.repository.OutboxEventRepository;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class OutboxEventRepositoryImpl implements OutboxEventRepository {
+    private static final String INSERT_EVENT =
+            "INSERT INTO user_outbox(created_at, event_type, user_id, payload, next_attempt_at) " +
+            "VALUES (:createdAt, :type, :userId, :payload, :createdAt)";
+    private static final String CLAIM_DUE_EVENTS =
+            "UPDATE user_outbox SET next_attempt_at = :leaseUntil WHERE id IN (" +
+            "SELECT id FROM user_outbox WHERE next_attempt_at <= :now ORDER BY id LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, created_at, event_type, user_id, payload, attempts";
+    private static final String DELETE_EVENTS = "DELETE FROM user_outbox WHERE id IN (:ids)";
+    private static final String RESCHEDULE_EVENTS =
+            "UPDATE user_outbox SET attempts = attempts + 1, next_attempt_at = :nextAttemptAt WHERE id IN (:ids)";
+
+    private static final RowMapper<OutboxEvent> OUTBOX_EVENT_MAPPER = (resultSet, rowNum) -> new OutboxEvent(
+            resultSet.getLong("id"),
+            resultSet.getTimestamp("created_at").toInstant(),
+            UserEventType.valueOf(resultSet.getString("event_type")),
+            resultSet.getLong("user_id"),
+            resultSet.getString("payload"),
+            resultSet.getInt("attempts")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OutboxEventRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertOutboxEvent(UserEventType type, long userId, String payload, Instant createdAt) {
+        jdbcTemplate.update(INSERT_EVENT, new MapSqlParameterSource()
+                .addValue("createdAt", Timestamp.from(createdAt))
+                .addValue("type", type.name())
+                .addValue("userId", userId)
+                .addValue("payload", payload));
+    }
+
+    @Override
+    public void insertOutboxEvents(UserEventType type, Map<Long, String> payloadsByUserId, Instant createdAt) {
+        if (payloadsByUserId.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.from(createdAt);
+        SqlParameterSource[] batch = new SqlParameterSource[payloadsByUserId.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> event : payloadsByUserId.entrySet()) {
+            batch[i++] = new MapSqlParameterSource()
+                    .addValue("createdAt", timestamp)
+                    .addValue("type", type.name())
+                    .addValue("userId", event.getKey())
+                    .addValue("payload", event.getValue());
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, batch);
+    }
+
+    @Override
+    public List<OutboxEvent> claimDueOutboxEvents(Instant now, Instant leaseUntil, int limit) {
+        List<OutboxEvent> events = jdbcTemplate.query(CLAIM_DUE_EVENTS, new MapSqlParameterSource()
+                .addValue("now", Timestamp.from(now))
+                .addValue("leaseUntil", Timestamp.from(leaseUntil))
+                .addValue("limit", limit), OUTBOX_EVENT_MAPPER);
+        // RETURNING does not keep the order of the subquery
+        return events.stream().sorted(Comparator.comparing(OutboxEvent::id)).toList();
+    }
+
+    @Override
+    public void deleteOutboxEvents(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(DELETE_EVENTS, new MapSqlParameterSource("ids", ids));
+    }
+
+    @Override
+    public void rescheduleOutboxEvents(Collection<Long> ids, Instant nextAttemptAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(RESCHEDULE_EVENTS, new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("nextAttemptAt", Timestamp.from(nextAttemptAt)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.liushukov.cloud_file.repository.impl;
+
+import com.liushukov.cloud_file.repository.UserArchiveRepository;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public class UserArchiveRepositoryImpl implements UserArchiveRepository {
+    // refresh tokens and revocation rows go with the user through ON DELETE CASCADE
+    private static final String ARCHIVE_DISABLED_USERS =
+            "WITH moved AS (" +
+            "DELETE FROM users WHERE id IN (" +
+            "SELECT id FROM users WHERE enabled = false AND updated_at < :disabledBefore " +
+            "ORDER BY updated_at, id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, created_at, updated_at, full_name, email, role) " +
+            "INSERT INTO users_archive(id, created_at, updated_at, full_name, email, role, archived_at) " +
+            "SELECT id, created_at, updated_at, full_name, email, role, :archivedAt FROM moved " +
+            "RETURNING email";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserArchiveRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<String> archiveDisabledUsers(Instant disabledBefore, Instant archivedAt, int limit) {
+        return jdbcTemplate.queryForList(ARCHIVE_DISABLED_USERS, new MapSqlParameterSource()
+                .addValue("disabledBefore", Timestamp.from(disabledBefore))
+                .addValue("archivedAt", Timestamp.from(archivedAt))
+                .addValue("limit", limit), String.class);
+    }
+}
@@ -0,0 +1,146 @@
+package com.liushukov.cloud_file.repository.impl;
+
+import com.liushukov.cloud_file.dto.UserChange;
+import com.liushukov.cloud_file.dto.UserEventPayload;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.repository.UserJdbcRepository;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public class UserJdbcRepositoryImpl implements UserJdbcRepository {
+    private static final String USER_PROFILE_COLUMNS =
+            "SELECT id, created_at, updated_at, full_name, email, role, enabled FROM users ";
+    private static final String SEARCH_BY_PATTERN = USER_PROFILE_COLUMNS +
+            "WHERE (full_name ILIKE :pattern OR email ILIKE :pattern) AND id > :afterId " +
+            "ORDER BY id LIMIT :limit";
+    private static final String SEARCH_BY_SIMILARITY = USER_PROFILE_COLUMNS +
+            "WHERE (full_name % :term OR email % :term) AND id > :afterId " +
+            "ORDER BY id LIMIT :limit";
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO users(created_at, updated_at, full_name, email, password, role, enabled) " +
+            "VALUES (:createdAt, :updatedAt, :fullName, :email, :password, :role, :enabled) " +
+            "ON CONFLICT ((lower(email))) DO NOTHING RETURNING id";
+    private static final String LOCK_BY_IDS =
+            "SELECT id, full_name, email, role, enabled FROM users WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+    // lower(email) matches the users_email_lower_idx expression index
+    private static final String FIND_TAKEN_EMAILS = "SELECT lower(email) FROM users WHERE lower(email) IN (:emails)";
+    private static final String UPDATE_USER =
+            "UPDATE users SET full_name = COALESCE(:fullName, full_name), email = COALESCE(:email, email), " +
+            "password = COALESCE(:password, password), updated_at = :updatedAt WHERE id = :id";
+    private static final String DISABLE_USERS =
+            "UPDATE users SET enabled = false, updated_at = :updatedAt WHERE id IN (:ids) AND enabled = true";
+
+    private static final RowMapper<UserProfileDto> USER_PROFILE_MAPPER = (resultSet, rowNum) -> new UserProfileDto(
+            resultSet.getLong("id"),
+            toInstant(resultSet.getTimestamp("created_at")),
+            toInstant(resultSet.getTimestamp("updated_at")),
+            resultSet.getString("full_name"),
+            resultSet.getString("email"),
+            Role.valueOf(resultSet.getString("role")),
+            resultSet.getBoolean("enabled")
+    );
+
+    private static final RowMapper<UserEventPayload> USER_STATE_MAPPER = (resultSet, rowNum) -> new UserEventPayload(
+            resultSet.getLong("id"),
+            resultSet.getString("full_name"),
+            resultSet.getString("email"),
+            Role.valueOf(resultSet.getString("role")),
+            resultSet.getBoolean("enabled")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserJdbcRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<UserProfileDto> searchUserProfilesByPattern(String pattern, long afterId, int limit) {
+        return jdbcTemplate.query(SEARCH_BY_PATTERN, new MapSqlParameterSource()
+                .addValue("pattern", pattern)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit), USER_PROFILE_MAPPER);
+    }
+
+    @Override
+    public List<UserProfileDto> searchUserProfilesBySimilarity(String term, long afterId, int limit) {
+        return jdbcTemplate.query(SEARCH_BY_SIMILARITY, new MapSqlParameterSource()
+                .addValue("term", term)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit), USER_PROFILE_MAPPER);
+    }
+
+    @Override
+    public Optional<Long> insertUserIfAbsent(User user) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Long> ids = jdbcTemplate.queryForList(INSERT_IF_ABSENT, new MapSqlParameterSource()
+                .addValue("createdAt", now)
+                .addValue("updatedAt", now)
+                .addValue("fullName", user.getFullName())
+                .addValue("email", user.getEmail())
+                .addValue("password", user.getPassword())
+                .addValue("role", user.getRole().name())
+                .addValue("enabled", user.getEnabled()), Long.class);
+        return ids.stream().findFirst();
+    }
+
+    @Override
+    public List<UserEventPayload> lockUsersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(LOCK_BY_IDS, new MapSqlParameterSource("ids", ids), USER_STATE_MAPPER);
+    }
+
+    @Override
+    public List<String> findTakenEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(FIND_TAKEN_EMAILS, new MapSqlParameterSource("emails", emails), String.class);
+    }
+
+    @Override
+    public void updateUsers(List<UserChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        SqlParameterSource[] batch = new SqlParameterSource[changes.size()];
+        for (int i = 0; i < batch.length; i++) {
+            UserChange change = changes.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("id", change.id())
+                    .addValue("fullName", change.fullName(), Types.VARCHAR)
+                    .addValue("email", change.email(), Types.VARCHAR)
+                    .addValue("password", change.password(), Types.VARCHAR)
+                    .addValue("updatedAt", now);
+        }
+        jdbcTemplate.batchUpdate(UPDATE_USER, batch);
+    }
+
+    @Override
+    public void disableUsers(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(DISABLE_USERS, new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("updatedAt", Timestamp.from(Instant.now())));
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
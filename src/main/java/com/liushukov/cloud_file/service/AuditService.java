@@ -0,0 +1,13 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.entity.AuditAction;
+
+public interface AuditService {
+    void record(AuditAction action, String actor, Long targetUserId, String details);
+
+    int flush();
+
+    long getDroppedEvents();
+
+    void createPartitions();
+}
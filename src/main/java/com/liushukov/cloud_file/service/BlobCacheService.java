@@ -0,0 +1,29 @@
+package com.liushukov.cloud_file.service;
+
+import org.springframework.core.io.Resource;
+
+import java.util.Optional;
+
+public interface BlobCacheService {
+    /**
+     * Resolves a stored file for download, served from memory when it is cached. A miss reads the
+     * file from disk and may admit it, so the next download of a popular file skips the disk.
+     */
+    Optional<Resource> findFile(long userId, String fileId);
+
+    void evict(long userId, String fileId);
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRatio();
+
+    long getBytesServed();
+
+    long getEvictions();
+
+    long getRejectedAdmissions();
+
+    long getUsedBytes();
+}
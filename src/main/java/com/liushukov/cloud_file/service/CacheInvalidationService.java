@@ -0,0 +1,15 @@
+package com.liushukov.cloud_file.service;
+
+import java.util.Collection;
+
+public interface CacheInvalidationService {
+    void publishUserChanged(String email);
+
+    void publishUsersChanged(Collection<String> emails);
+
+    boolean isListening();
+
+    long getReceivedNotifications();
+
+    long getEvictionBatches();
+}
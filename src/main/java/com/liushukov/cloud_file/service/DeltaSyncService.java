@@ -0,0 +1,38 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.FileSignatureDto;
+import com.liushukov.cloud_file.dto.StoredFileDto;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * rsync-style updates of stored files. A client fetches the block signatures of the version it last
+ * synced, finds its unchanged blocks with the rolling checksum and uploads a delta: a sequence of
+ * instructions, each
+ * <ul>
+ *     <li>{@code 0x01, int firstBlock, int blockCount}: copy blocks of the stored version, the last
+ *     block of the file may be short;</li>
+ *     <li>{@code 0x02, int length, byte[length]}: literal bytes,</li>
+ * </ul>
+ * with big-endian integers, up to the end of the body. Neither the delta nor the version it builds may
+ * exceed {@link #getMaxFileSize()}, the same limit uploads have, so a few copies of the whole file
+ * cannot fill the disk.
+ */
+public interface DeltaSyncService {
+    int MIN_BLOCK_SIZE = 512;
+    int MAX_BLOCK_SIZE = 1 << 20;
+    byte COPY = 0x01;
+    byte DATA = 0x02;
+
+    Optional<FileSignatureDto> signatures(long userId, String fileId, int blockSize);
+
+    /**
+     * Builds the new version from the stored one and the delta, streaming both into the store. File
+     * ids never change content, so the new version gets a new id and replaces the old file. Returns
+     * empty when the file is unknown or was replaced or deleted while the delta was applied.
+     */
+    Optional<StoredFileDto> applyDelta(long userId, String fileId, int blockSize, InputStream delta);
+
+    long getMaxFileSize();
+}
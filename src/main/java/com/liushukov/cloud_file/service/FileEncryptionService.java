@@ -0,0 +1,23 @@
+package com.liushukov.cloud_file.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+public interface FileEncryptionService {
+    /**
+     * Encrypts the content chunk by chunk as it is read, so no more than one chunk is held in memory.
+     *
+     * @return the number of plaintext bytes
+     */
+    long encrypt(long userId, String fileId, InputStream content, OutputStream target) throws IOException;
+
+    long plaintextLength(Path file) throws IOException;
+
+    /**
+     * Opens a decrypting stream over an encrypted file. Skipping is a seek: only the chunks that are
+     * actually read get decrypted, which makes range reads cheap.
+     */
+    InputStream decrypt(long userId, String fileId, Path file) throws IOException;
+}
@@ -0,0 +1,28 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.StoredFileDto;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface FileStorageService {
+    StoredFileDto store(long userId, String originalFileName, InputStream content);
+
+    /**
+     * Resolves a stored file without touching the database. Ids that were not issued by
+     * {@link #store} are rejected before the file system is consulted.
+     */
+    Optional<Path> findFile(long userId, String fileId);
+
+    /**
+     * Like {@link #findFile}, but returns the decrypted content. Its stream skips without decrypting,
+     * so range requests only pay for the chunks they return.
+     */
+    Optional<Resource> openFile(long userId, String fileId);
+
+    boolean delete(long userId, String fileId);
+
+    boolean isValidFileId(String fileId);
+}
@@ -1,14 +1,17 @@
 package com.liushukov.cloud_file.service;
 
+import com.liushukov.cloud_file.config.JwtKeyRing;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,11 +19,24 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class JwtService {
-    @Value("${app.jwt.secret-key}")
-    private String secretKey;
+    private final JwtKeyRing keyRing;
+    private final JwtParser jwtParser;
+    private final long jwtExpiration;
 
-    @Value("${app.jwt.expiration-time}")
-    private long jwtExpiration;
+    public JwtService(JwtKeyRing keyRing, @Value("${app.jwt.expiration-time}") long jwtExpiration) {
+        this.keyRing = keyRing;
+        this.jwtExpiration = jwtExpiration;
+        // the parser is immutable and thread-safe, and resolving a key is a map lookup in the key ring
+        this.jwtParser = Jwts
+                .parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keyRing.getVerificationKey(header.getKeyId(), header.getAlgorithm());
+                    }
+                })
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -48,13 +64,19 @@ public class JwtService {
             UserDetails userDetails,
             long expiration
     ) {
-        return Jwts
+        JwtKeyRing.SigningKey signingKey = keyRing.getSigningKey();
+        JwtBuilder builder = Jwts
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + getExpirationTime()))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + expiration));
+        if (signingKey.keyId() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.keyId());
+        }
+        return builder
+                .signWith(signingKey.key(), signingKey.algorithm())
                 .compact();
     }
 
@@ -63,6 +85,10 @@ public class JwtService {
         return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
     }
 
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && claims.getExpiration().after(new Date());
+    }
+
     private boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -71,18 +97,9 @@ public class JwtService {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+    public Claims extractAllClaims(String token) {
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
-
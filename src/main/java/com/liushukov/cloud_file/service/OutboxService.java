@@ -0,0 +1,15 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.UserEventPayload;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.entity.UserEventType;
+
+import java.util.List;
+
+public interface OutboxService {
+    void recordUserEvent(UserEventType type, long userId, User user);
+
+    void recordUserEvents(UserEventType type, List<UserEventPayload> users);
+
+    int relay();
+}
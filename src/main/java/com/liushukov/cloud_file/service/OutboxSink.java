@@ -0,0 +1,20 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * A downstream system that receives user lifecycle events. Delivery is at least once: a batch that
+ * fails on any sink is retried on every sink, so sinks should deduplicate by event id.
+ * <p>
+ * Delivery is also unordered, even for a single user. A failed event is retried after a backoff
+ * while later events go out, and parallel relays may overtake each other, so sinks should ignore an
+ * event whose id is lower than the last one they applied for the same user.
+ */
+public interface OutboxSink {
+    /**
+     * Delivers the batch, throwing when the receiver did not accept it.
+     */
+    void deliver(List<OutboxEvent> events);
+}
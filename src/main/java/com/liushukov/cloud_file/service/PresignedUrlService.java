@@ -0,0 +1,13 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.PresignedUrlDto;
+
+public interface PresignedUrlService {
+    String PUBLIC_DOWNLOAD_PATH = "/files/public/";
+
+    PresignedUrlDto presignDownload(long userId, String fileId, long ttl);
+
+    boolean isValidDownload(long userId, String fileId, long expires, long issued, String signature);
+
+    long getMaxTtl();
+}
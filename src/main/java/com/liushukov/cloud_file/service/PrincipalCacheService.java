@@ -0,0 +1,14 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface PrincipalCacheService {
+    Optional<AuthenticatedUser> getPrincipal(String email);
+
+    void evict(Collection<String> emails);
+
+    void evictAll();
+}
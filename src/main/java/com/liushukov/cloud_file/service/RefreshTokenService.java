@@ -0,0 +1,16 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.entity.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface RefreshTokenService {
+    String createRefreshToken(User user);
+
+    User consumeRefreshToken(String refreshToken);
+
+    Map<Long, Integer> countActiveRefreshTokens(Collection<Long> userIds);
+
+    void purgeExpiredRefreshTokens();
+}
@@ -0,0 +1,18 @@
+package com.liushukov.cloud_file.service;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface TokenRevocationService {
+    boolean isTokenRevoked(String tokenId);
+
+    boolean isUserTokenRevoked(long userId, Instant issuedAt);
+
+    void revokeToken(String tokenId, Instant expiresAt);
+
+    void revokeAllForUser(long userId);
+
+    void revokeAllForUsers(Collection<Long> userIds);
+
+    void reload();
+}
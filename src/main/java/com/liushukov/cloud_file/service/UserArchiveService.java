@@ -0,0 +1,13 @@
+package com.liushukov.cloud_file.service;
+
+public interface UserArchiveService {
+    int archiveDisabledUsers();
+
+    long getArchivedUsers();
+
+    long getArchiveBatches();
+
+    long getTotalLockMillis();
+
+    long getMaxLockMillis();
+}
@@ -1,25 +1,50 @@
 package com.liushukov.cloud_file.service;
 
+import com.liushukov.cloud_file.dto.UserBatchResultDto;
+import com.liushukov.cloud_file.dto.UserBatchUpdateDto;
 import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserSearchResultDto;
 import com.liushukov.cloud_file.dto.UserUpdateDto;
 import com.liushukov.cloud_file.entity.User;
 import org.springframework.security.core.Authentication;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserService {
     User getUserFromAuthentication(Authentication authentication);
 
+    UserProfileDto getUserProfileFromAuthentication(Authentication authentication);
+
     Optional<User> getUserById(long id);
 
+    Optional<UserProfileDto> getUserProfileById(long id);
+
     Optional<User> getUserByEmail(String email);
 
-    List<User> getAllUsers(String sortBy, String orderBy, int pageNumber, int pageSize);
+    List<UserProfileDto> getUserProfilesByIds(Collection<Long> ids);
+
+    List<UserProfileDto> getAllUsers(String sortBy, String orderBy, int pageNumber, int pageSize);
 
-    UserDto createUser(UserDto userDto);
+    UserSearchResultDto searchUsers(String query, String mode, long afterId, int limit);
+
+    Optional<UserDto> createUser(UserDto userDto);
 
     UserDto updateUser(User user, UserUpdateDto userUpdateDto);
 
     void deleteUser(User user);
+
+    /**
+     * Applies the updates in one transaction and reports per user: 200, 404 for an unknown id,
+     * 400 for an id repeated in the batch and 409 for an email that is already taken.
+     */
+    List<UserBatchResultDto> updateUsers(List<UserBatchUpdateDto.Item> updates);
+
+    /**
+     * Disables the users in one transaction and reports per user: 204, 404 for an unknown id and
+     * 400 for a user that is already disabled.
+     */
+    List<UserBatchResultDto> deleteUsers(List<Long> userIds);
 }
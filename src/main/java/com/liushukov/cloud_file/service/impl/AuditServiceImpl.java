@@ -0,0 +1,122 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.dto.AuditEvent;
+import com.liushukov.cloud_file.entity.AuditAction;
+import com.liushukov.cloud_file.repository.AuditEventRepository;
+import com.liushukov.cloud_file.service.AuditService;
+import com.liushukov.cloud_file.util.MpscRingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Request threads only publish events onto a lock-free ring buffer; a single background writer
+ * drains it and appends each batch with one multi-row insert. When a burst outruns the writer the
+ * buffer fills up and further events are counted and dropped rather than blocking the request.
+ */
+@Service
+public class AuditServiceImpl implements AuditService {
+    private static final Logger log = LoggerFactory.getLogger(AuditServiceImpl.class);
+
+    private final AuditEventRepository auditEventRepository;
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final long idleNanos;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditServiceImpl(
+            AuditEventRepository auditEventRepository,
+            @Value("${app.audit.buffer-capacity:65536}") int bufferCapacity,
+            @Value("${app.audit.batch-size:500}") int batchSize,
+            @Value("${app.audit.flush-interval:200}") long flushInterval
+    ) {
+        this.auditEventRepository = auditEventRepository;
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+    }
+
+    @Override
+    public void record(AuditAction action, String actor, Long targetUserId, String details) {
+        if (!buffer.offer(new AuditEvent(Instant.now(), action, actor, targetUserId, details))) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    @Override
+    public synchronized int flush() {
+        List<AuditEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+        buffer.drain(batch::add, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            auditEventRepository.insertAuditEvents(batch);
+        } catch (RuntimeException exception) {
+            droppedEvents.addAndGet(batch.size());
+            log.error("Failed to write {} audit events", batch.size(), exception);
+        }
+        return batch.size();
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    @Override
+    @Scheduled(cron = "${app.audit.partition-cron:0 0 0 * * *}")
+    public void createPartitions() {
+        // the next month is created well before its first event arrives
+        YearMonth month = YearMonth.now();
+        for (YearMonth partition : List.of(month, month.plusMonths(1))) {
+            try {
+                auditEventRepository.createMonthlyPartition(partition);
+            } catch (RuntimeException exception) {
+                // rows for this month already sit in the default partition; they stay queryable there
+                log.warn("Failed to create audit partition for {}", partition, exception);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        createPartitions();
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        while (flush() > 0) {
+            // write whatever was published while the writer was shutting down
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (flush() < batchSize) {
+                LockSupport.parkNanos(this, idleNanos);
+            }
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.liushukov.cloud_file.service.impl;
 
 import com.liushukov.cloud_file.dto.UserLoginDto;
+import com.liushukov.cloud_file.entity.AuditAction;
 import com.liushukov.cloud_file.entity.User;
 import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.AuditService;
 import com.liushukov.cloud_file.service.AuthenticationService;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -15,19 +18,32 @@ import java.util.Optional;
 public class AuthenticationServiceImpl implements AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
+    private final AuditService auditService;
 
-    public AuthenticationServiceImpl(AuthenticationManager authenticationManager, UserRepository userRepository) {
+    public AuthenticationServiceImpl(
+            AuthenticationManager authenticationManager,
+            UserRepository userRepository,
+            AuditService auditService
+    ) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
+        this.auditService = auditService;
     }
 
     @Override
     public User authenticate(UserLoginDto loginDto) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginDto.email(), loginDto.password())
-        );
-        return userRepository
-                .findUserByEmail(loginDto.email())
-                .orElseThrow(() -> new BadCredentialsException("Invalid username or password"));
+        try {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginDto.email(), loginDto.password())
+            );
+            User user = userRepository
+                    .findUserByEmail(loginDto.email())
+                    .orElseThrow(() -> new BadCredentialsException("Invalid username or password"));
+            auditService.record(AuditAction.LOGIN_SUCCEEDED, user.getEmail(), user.getId(), null);
+            return user;
+        } catch (AuthenticationException exception) {
+            auditService.record(AuditAction.LOGIN_FAILED, loginDto.email(), null, exception.getClass().getSimpleName());
+            throw exception;
+        }
     }
 }
@@ -0,0 +1,166 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.service.BlobCacheService;
+import com.liushukov.cloud_file.service.FileStorageService;
+import com.liushukov.cloud_file.util.OffHeapBlobCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the bytes of small, frequently downloaded files in an {@link OffHeapBlobCache}, so hot
+ * avatars and shared documents are served without disk reads and without adding heap the collector
+ * has to scan. The cache holds decrypted content, so a hit also skips decryption; only the disk copy
+ * is encrypted. Stored files are never rewritten under the same id; a file replaced by a newer version
+ * is evicted explicitly. Files above the blob size limit always stream from disk.
+ */
+@Service
+public class BlobCacheServiceImpl implements BlobCacheService {
+    private static final Logger log = LoggerFactory.getLogger(BlobCacheServiceImpl.class);
+
+    private final FileStorageService fileStorageService;
+    private final OffHeapBlobCache cache;
+    private final int maxBlobSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public BlobCacheServiceImpl(
+            FileStorageService fileStorageService,
+            @Value("${app.files.blob-cache.capacity:67108864}") long capacity,
+            @Value("${app.files.blob-cache.page-size:4096}") int pageSize,
+            @Value("${app.files.blob-cache.max-blob-size:1048576}") int maxBlobSize
+    ) {
+        this.fileStorageService = fileStorageService;
+        this.cache = new OffHeapBlobCache(capacity, pageSize, maxBlobSize);
+        this.maxBlobSize = maxBlobSize;
+    }
+
+    @Override
+    public Optional<Resource> findFile(long userId, String fileId) {
+        if (!fileStorageService.isValidFileId(fileId)) {
+            return Optional.empty();
+        }
+        String key = userId + "/" + fileId;
+        int size = cache.lookup(key);
+        if (size >= 0) {
+            hits.incrementAndGet();
+            return Optional.of(new CachedBlobResource(key, size, userId, fileId));
+        }
+        misses.incrementAndGet();
+        return fileStorageService.openFile(userId, fileId).map(file -> load(key, file, userId, fileId));
+    }
+
+    @Override
+    public void evict(long userId, String fileId) {
+        cache.invalidate(userId + "/" + fileId);
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = this.hits.get();
+        long requests = hits + misses.get();
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public long getBytesServed() {
+        return cache.getBytesServed();
+    }
+
+    @Override
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    @Override
+    public long getRejectedAdmissions() {
+        return cache.getRejections();
+    }
+
+    @Override
+    public long getUsedBytes() {
+        return cache.getUsedBytes();
+    }
+
+    private Resource load(String key, Resource file, long userId, String fileId) {
+        try {
+            long size = file.contentLength();
+            if (size <= maxBlobSize && cache.put(key, (int) size, () -> Channels.newChannel(file.getInputStream()))) {
+                return new CachedBlobResource(key, (int) size, userId, fileId);
+            }
+        } catch (IOException exception) {
+            // the download itself can still be served from disk
+            log.warn("Failed to cache blob {}", key, exception);
+        }
+        return file;
+    }
+
+    /**
+     * Pins the blob only once the body is written, so a response that never reads it holds nothing.
+     * Should the blob be evicted between lookup and write, the file is read from disk instead.
+     */
+    private final class CachedBlobResource extends AbstractResource {
+        private final String key;
+        private final int size;
+        private final long userId;
+        private final String fileId;
+
+        private CachedBlobResource(String key, int size, long userId, String fileId) {
+            this.key = key;
+            this.size = size;
+            this.userId = userId;
+            this.fileId = fileId;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            InputStream cached = cache.open(key);
+            if (cached != null) {
+                return cached;
+            }
+            return fileStorageService.openFile(userId, fileId)
+                    .orElseThrow(() -> new FileNotFoundException("Blob " + key + " no longer exists"))
+                    .getInputStream();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return size;
+        }
+
+        @Override
+        public String getFilename() {
+            return fileId;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Cached blob [" + key + "]";
+        }
+    }
+}
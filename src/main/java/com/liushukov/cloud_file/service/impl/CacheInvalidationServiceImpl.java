@@ -0,0 +1,179 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.service.CacheInvalidationService;
+import com.liushukov.cloud_file.service.PrincipalCacheService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * User changes are broadcast with Postgres {@code NOTIFY} on the application database, so every
+ * instance hears about them without extra infrastructure. Postgres delivers a notification only when
+ * the publishing transaction commits and folds duplicates sent inside one transaction. The listener
+ * drains everything that arrives within a short window and evicts it as one batch.
+ */
+@Service
+public class CacheInvalidationServiceImpl implements CacheInvalidationService {
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationServiceImpl.class);
+    // the channel is spliced into LISTEN, which takes no bind parameters
+    private static final String CHANNEL_PATTERN = "[a-z_][a-z0-9_]*";
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PrincipalCacheService principalCacheService;
+    private final String channel;
+    private final int coalesceWindow;
+    private final int maxBatchSize;
+    private final long reconnectDelay;
+    private final AtomicLong receivedNotifications = new AtomicLong();
+    private final AtomicLong evictionBatches = new AtomicLong();
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+
+    public CacheInvalidationServiceImpl(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            PrincipalCacheService principalCacheService,
+            @Value("${app.cache.invalidation-channel:user_changes}") String channel,
+            @Value("${app.cache.invalidation-coalesce-window:5}") int coalesceWindow,
+            @Value("${app.cache.invalidation-max-batch-size:1000}") int maxBatchSize,
+            @Value("${app.cache.invalidation-reconnect-delay:1000}") long reconnectDelay
+    ) {
+        if (!channel.matches(CHANNEL_PATTERN)) {
+            throw new IllegalArgumentException("Invalid invalidation channel: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.principalCacheService = principalCacheService;
+        this.channel = channel;
+        this.coalesceWindow = coalesceWindow;
+        this.maxBatchSize = maxBatchSize;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public void publishUserChanged(String email) {
+        // joins the caller's transaction when there is one, so other nodes only hear about committed changes
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, email);
+    }
+
+    @Override
+    public void publishUsersChanged(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        // one round trip for the whole batch; Postgres still delivers one notification per email
+        jdbcTemplate.queryForList("SELECT pg_notify(?, email) FROM unnest(?) AS email",
+                channel, emails.toArray(String[]::new));
+    }
+
+    @Override
+    public boolean isListening() {
+        return listening;
+    }
+
+    @Override
+    public long getReceivedNotifications() {
+        return receivedNotifications.get();
+    }
+
+    @Override
+    public long getEvictionBatches() {
+        return evictionBatches.get();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listener = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        listener.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // whatever changed while nobody was listening is unknown, so start from an empty cache
+                principalCacheService.evictAll();
+                listening = true;
+                while (running) {
+                    receive(pgConnection);
+                }
+            } catch (SQLException | RuntimeException exception) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection, retrying in {} ms",
+                            reconnectDelay, exception);
+                    sleep(reconnectDelay);
+                }
+            } finally {
+                listening = false;
+            }
+        }
+    }
+
+    private void receive(PGConnection pgConnection) throws SQLException {
+        PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+        if (notifications == null || notifications.length == 0) {
+            return;
+        }
+
+        Set<String> emails = new HashSet<>();
+        long received = 0;
+        boolean overflow = false;
+        while (notifications != null && notifications.length > 0) {
+            received += notifications.length;
+            for (PGNotification notification : notifications) {
+                emails.add(notification.getParameter());
+            }
+            if (emails.size() > maxBatchSize) {
+                overflow = true;
+                break;
+            }
+            notifications = pgConnection.getNotifications(coalesceWindow);
+        }
+
+        receivedNotifications.addAndGet(received);
+        evictionBatches.incrementAndGet();
+        if (overflow) {
+            principalCacheService.evictAll();
+        } else {
+            principalCacheService.evict(emails);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.dto.BlockSignatureDto;
+import com.liushukov.cloud_file.dto.FileSignatureDto;
+import com.liushukov.cloud_file.dto.StoredFileDto;
+import com.liushukov.cloud_file.exception.InvalidDeltaException;
+import com.liushukov.cloud_file.service.BlobCacheService;
+import com.liushukov.cloud_file.service.DeltaSyncService;
+import com.liushukov.cloud_file.service.FileStorageService;
+import com.liushukov.cloud_file.util.RollingChecksum;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Signatures and reconstruction both stream: the stored version is decrypted block by block and the
+ * new version is encrypted as it is assembled, so neither is ever held in memory. Copies that point
+ * backwards reopen the stored version; clients emit them in file order, so that stays rare.
+ */
+@Service
+public class DeltaSyncServiceImpl implements DeltaSyncService {
+    // rsync keeps a truncated strong hash as well; 128 bits leave accidental matches out of reach
+    private static final int STRONG_HASH_LENGTH = 16;
+    private static final Base64.Encoder HASH_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final FileStorageService fileStorageService;
+    private final BlobCacheService blobCacheService;
+    private final long maxFileSize;
+
+    public DeltaSyncServiceImpl(
+            FileStorageService fileStorageService,
+            BlobCacheService blobCacheService,
+            @Value("${app.files.delta.max-file-size:${spring.servlet.multipart.max-file-size:1MB}}")
+            DataSize maxFileSize
+    ) {
+        this.fileStorageService = fileStorageService;
+        this.blobCacheService = blobCacheService;
+        this.maxFileSize = maxFileSize.toBytes();
+    }
+
+    @Override
+    public Optional<FileSignatureDto> signatures(long userId, String fileId, int blockSize) {
+        checkBlockSize(blockSize);
+        return fileStorageService.openFile(userId, fileId).map(file -> {
+            MessageDigest digest = sha256();
+            List<BlockSignatureDto> blocks = new ArrayList<>();
+            byte[] block = new byte[blockSize];
+            long length = 0;
+            try (InputStream content = file.getInputStream()) {
+                int read;
+                while ((read = content.readNBytes(block, 0, blockSize)) > 0) {
+                    digest.update(block, 0, read);
+                    byte[] strong = Arrays.copyOf(digest.digest(), STRONG_HASH_LENGTH);
+                    blocks.add(new BlockSignatureDto(
+                            RollingChecksum.of(block, 0, read), HASH_ENCODER.encodeToString(strong)
+                    ));
+                    length += read;
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Failed to read the file", exception);
+            }
+            return new FileSignatureDto(fileId, blockSize, length, blocks);
+        });
+    }
+
+    @Override
+    public Optional<StoredFileDto> applyDelta(long userId, String fileId, int blockSize, InputStream delta) {
+        checkBlockSize(blockSize);
+        Optional<Resource> base = fileStorageService.openFile(userId, fileId);
+        if (base.isEmpty()) {
+            return Optional.empty();
+        }
+        StoredFileDto stored;
+        try (DeltaInputStream content = new DeltaInputStream(base.get(), blockSize, delta, maxFileSize)) {
+            // passing the old id as the file name keeps its extension, and with it the content type
+            stored = fileStorageService.store(userId, fileId, content);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read the stored file", exception);
+        }
+        // only one of two deltas against the same version gets to delete it, the other one forked it
+        if (!fileStorageService.delete(userId, fileId)) {
+            fileStorageService.delete(userId, stored.fileId());
+            return Optional.empty();
+        }
+        blobCacheService.evict(userId, fileId);
+        return Optional.of(stored);
+    }
+
+    @Override
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    private static void checkBlockSize(int blockSize) {
+        if (blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException(
+                    "blockSize should be from " + MIN_BLOCK_SIZE + " to " + MAX_BLOCK_SIZE);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    /**
+     * The new version as a stream, produced instruction by instruction from the delta and the stored
+     * version. Instructions are checked as they are read, so a bad delta fails the upload midway and
+     * the partial file is discarded by the store. The output is counted per instruction, before any of
+     * it is produced, and the delta per byte consumed.
+     */
+    private static final class DeltaInputStream extends InputStream {
+        private final Resource base;
+        private final long baseLength;
+        private final int blockSize;
+        private final DataInputStream delta;
+        private final long maxLength;
+        private InputStream baseContent;
+        private long length;
+        private long deltaLength;
+        private long basePosition;
+        private long copyRemaining;
+        private int dataRemaining;
+
+        private DeltaInputStream(Resource base, int blockSize, InputStream delta, long maxLength) throws IOException {
+            this.base = base;
+            this.baseLength = base.contentLength();
+            this.blockSize = blockSize;
+            this.delta = new DataInputStream(delta);
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (copyRemaining == 0 && dataRemaining == 0) {
+                if (!nextInstruction()) {
+                    return -1;
+                }
+            }
+            if (copyRemaining > 0) {
+                int read = baseContent.read(buffer, offset, (int) Math.min(length, copyRemaining));
+                if (read < 0) {
+                    throw new IOException("The stored file ended before its length");
+                }
+                copyRemaining -= read;
+                basePosition += read;
+                return read;
+            }
+            int read = delta.read(buffer, offset, Math.min(length, dataRemaining));
+            if (read < 0) {
+                throw new InvalidDeltaException("Delta ended inside literal data");
+            }
+            dataRemaining -= read;
+            consumed(read);
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (baseContent != null) {
+                baseContent.close();
+            }
+        }
+
+        private boolean nextInstruction() throws IOException {
+            int instruction = delta.read();
+            if (instruction < 0) {
+                return false;
+            }
+            try {
+                if (instruction == COPY) {
+                    long firstBlock = delta.readInt();
+                    long blockCount = delta.readInt();
+                    long start = firstBlock * blockSize;
+                    if (firstBlock < 0 || blockCount < 0 || (blockCount > 0 && start >= baseLength)) {
+                        throw new InvalidDeltaException("Copy instruction outside of the stored file");
+                    }
+                    long end = Math.min(baseLength, (firstBlock + blockCount) * blockSize);
+                    consumed(1 + 2 * Integer.BYTES);
+                    if (blockCount > 0) {
+                        produced(end - start);
+                        seek(start);
+                        copyRemaining = end - start;
+                    }
+                } else if (instruction == DATA) {
+                    dataRemaining = delta.readInt();
+                    if (dataRemaining < 0) {
+                        throw new InvalidDeltaException("Negative literal length");
+                    }
+                    consumed(1 + Integer.BYTES);
+                    produced(dataRemaining);
+                } else {
+                    throw new InvalidDeltaException("Unknown delta instruction " + instruction);
+                }
+            } catch (EOFException exception) {
+                throw new InvalidDeltaException("Delta ended inside an instruction");
+            }
+            return true;
+        }
+
+        private void produced(long bytes) {
+            length += bytes;
+            if (length > maxLength) {
+                throw new InvalidDeltaException("The new version exceeds " + maxLength + " bytes");
+            }
+        }
+
+        private void consumed(long bytes) {
+            deltaLength += bytes;
+            if (deltaLength > maxLength) {
+                throw new InvalidDeltaException("The delta exceeds " + maxLength + " bytes");
+            }
+        }
+
+        private void seek(long position) throws IOException {
+            if (baseContent == null || position < basePosition) {
+                close();
+                baseContent = base.getInputStream();
+                basePosition = 0;
+            }
+            while (basePosition < position) {
+                long skipped = baseContent.skip(position - basePosition);
+                if (skipped <= 0) {
+                    throw new IOException("The stored file ended before its length");
+                }
+                basePosition += skipped;
+            }
+        }
+    }
+}
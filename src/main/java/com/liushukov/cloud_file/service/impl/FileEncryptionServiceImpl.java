@@ -0,0 +1,305 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.service.FileEncryptionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Envelope encryption of stored files. Every file gets a random AES-256 data key, wrapped with
+ * AES-GCM under a key derived from the master key and the owner's user id and bound to the file id,
+ * so a wrapped key cannot be moved to another user or file. The content is cut into fixed-size chunks,
+ * each sealed with AES-GCM under its own nonce. The nonce is the chunk index plus a flag on the last
+ * chunk, so reordered, dropped or truncated chunks fail authentication.
+ * <p>
+ * Layout: magic, chunk size, wrap nonce, wrapped data key, then chunks of {@code chunkSize + 16} bytes,
+ * the last one shorter. The plaintext length follows from the file size, so it is never stored.
+ * <p>
+ * The default JCE provider runs AES and GHASH on the CPU's AES-NI and carry-less multiply
+ * instructions through HotSpot intrinsics, so no extra provider is needed.
+ */
+@Service
+public class FileEncryptionServiceImpl implements FileEncryptionService {
+    private static final int MIN_MASTER_KEY_LENGTH = 32;
+    private static final byte[] MAGIC = {'C', 'F', 'E', '1'};
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int TAG_LENGTH = 16;
+    private static final int NONCE_LENGTH = 12;
+    private static final int DATA_KEY_LENGTH = 32;
+    private static final int HEADER_LENGTH = MAGIC.length + Integer.BYTES + NONCE_LENGTH + DATA_KEY_LENGTH + TAG_LENGTH;
+    private static final int MAX_CHUNK_SIZE = 1 << 24;
+
+    private final SecureRandom random = new SecureRandom();
+    // initialized once; every call works on a clone, since Mac instances are not thread-safe
+    private final Mac prototype;
+    private final int chunkSize;
+
+    public FileEncryptionServiceImpl(
+            @Value("${app.files.encryption.master-key:}") String masterKey,
+            @Value("${app.files.encryption.chunk-size:65536}") int chunkSize
+    ) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Invalid encryption chunk size: " + chunkSize);
+        }
+        // deliberately not derived from the JWT keys: those rotate, and stored files have to outlive them
+        if (masterKey.isBlank()) {
+            throw new IllegalStateException("app.files.encryption.master-key is not configured");
+        }
+        byte[] key = Base64.getDecoder().decode(masterKey);
+        if (key.length < MIN_MASTER_KEY_LENGTH) {
+            throw new IllegalStateException(
+                    "app.files.encryption.master-key should be at least " + MIN_MASTER_KEY_LENGTH + " bytes");
+        }
+        try {
+            this.prototype = Mac.getInstance("HmacSHA256");
+            this.prototype.init(new SecretKeySpec(key, "HmacSHA256"));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("HmacSHA256 is not available", exception);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public long encrypt(long userId, String fileId, InputStream content, OutputStream target) throws IOException {
+        byte[] dataKey = new byte[DATA_KEY_LENGTH];
+        byte[] wrapNonce = new byte[NONCE_LENGTH];
+        random.nextBytes(dataKey);
+        random.nextBytes(wrapNonce);
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, userKey(userId), new GCMParameterSpec(TAG_LENGTH * 8, wrapNonce));
+            cipher.updateAAD(keyAad(userId, fileId));
+            target.write(MAGIC);
+            target.write(ByteBuffer.allocate(Integer.BYTES).putInt(chunkSize).array());
+            target.write(wrapNonce);
+            target.write(cipher.doFinal(dataKey));
+
+            SecretKey key = new SecretKeySpec(dataKey, "AES");
+            byte[] chunk = new byte[chunkSize];
+            byte[] next = new byte[chunkSize];
+            byte[] sealed = new byte[chunkSize + TAG_LENGTH];
+            int length = content.readNBytes(chunk, 0, chunkSize);
+            long total = 0;
+            for (long index = 0; ; index++) {
+                // a full chunk is only known to be the last once the next read comes back empty
+                int nextLength = length < chunkSize ? 0 : content.readNBytes(next, 0, chunkSize);
+                boolean last = nextLength == 0;
+                cipher.init(Cipher.ENCRYPT_MODE, key, chunkParameters(index, last));
+                target.write(sealed, 0, cipher.doFinal(chunk, 0, length, sealed, 0));
+                total += length;
+                if (last) {
+                    return total;
+                }
+                byte[] swap = chunk;
+                chunk = next;
+                next = swap;
+                length = nextLength;
+            }
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("Failed to encrypt the file", exception);
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+    }
+
+    @Override
+    public long plaintextLength(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return new Layout(channel, readHeader(channel)).length;
+        }
+    }
+
+    @Override
+    public InputStream decrypt(long userId, String fileId, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file);
+        boolean opened = false;
+        try {
+            ByteBuffer header = readHeader(channel);
+            Layout layout = new Layout(channel, header);
+            byte[] wrapNonce = new byte[NONCE_LENGTH];
+            byte[] wrappedKey = new byte[DATA_KEY_LENGTH + TAG_LENGTH];
+            header.get(wrapNonce).get(wrappedKey);
+
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, userKey(userId), new GCMParameterSpec(TAG_LENGTH * 8, wrapNonce));
+            cipher.updateAAD(keyAad(userId, fileId));
+            byte[] dataKey = cipher.doFinal(wrappedKey);
+            SecretKey key = new SecretKeySpec(dataKey, "AES");
+            Arrays.fill(dataKey, (byte) 0);
+            InputStream plaintext = new DecryptingInputStream(channel, cipher, key, layout);
+            opened = true;
+            return plaintext;
+        } catch (AEADBadTagException exception) {
+            throw new IOException("The file key of " + fileId + " failed authentication", exception);
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("Failed to decrypt the file", exception);
+        } finally {
+            if (!opened) {
+                channel.close();
+            }
+        }
+    }
+
+    private SecretKey userKey(long userId) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException exception) {
+            throw new IllegalStateException("HmacSHA256 does not support cloning", exception);
+        }
+        byte[] key = mac.doFinal(("user:" + userId).getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(key, "AES");
+    }
+
+    private static byte[] keyAad(long userId, String fileId) {
+        return (userId + "/" + fileId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static GCMParameterSpec chunkParameters(long index, boolean last) {
+        byte[] nonce = ByteBuffer.allocate(NONCE_LENGTH).putLong(index).putInt(last ? 1 : 0).array();
+        return new GCMParameterSpec(TAG_LENGTH * 8, nonce);
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Not an encrypted file: header is truncated");
+            }
+        }
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Not an encrypted file: unknown format");
+        }
+        return header;
+    }
+
+    private static final class Layout {
+        private final int chunkSize;
+        private final long chunks;
+        private final int lastChunkLength;
+        private final long length;
+
+        private Layout(FileChannel channel, ByteBuffer header) throws IOException {
+            this.chunkSize = header.getInt();
+            if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+                throw new IOException("Not an encrypted file: invalid chunk size");
+            }
+            long body = channel.size() - HEADER_LENGTH;
+            long sealedChunkSize = chunkSize + TAG_LENGTH;
+            this.chunks = Math.max(1, Math.ceilDiv(body, sealedChunkSize));
+            long lastSealedLength = body - (chunks - 1) * sealedChunkSize;
+            if (lastSealedLength < TAG_LENGTH) {
+                throw new IOException("Encrypted file is truncated");
+            }
+            this.lastChunkLength = (int) (lastSealedLength - TAG_LENGTH);
+            this.length = body - chunks * TAG_LENGTH;
+        }
+
+        private long offset(long chunk) {
+            return HEADER_LENGTH + chunk * (chunkSize + TAG_LENGTH);
+        }
+    }
+
+    private static final class DecryptingInputStream extends InputStream {
+        private final FileChannel channel;
+        private final Cipher cipher;
+        private final SecretKey key;
+        private final Layout layout;
+        private final ByteBuffer sealed;
+        private final byte[] chunk;
+        private long loadedChunk = -1;
+        private long position;
+
+        private DecryptingInputStream(FileChannel channel, Cipher cipher, SecretKey key, Layout layout) {
+            this.channel = channel;
+            this.cipher = cipher;
+            this.key = key;
+            this.layout = layout;
+            this.sealed = ByteBuffer.allocate(layout.chunkSize + TAG_LENGTH);
+            this.chunk = new byte[layout.chunkSize];
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= layout.length) {
+                return -1;
+            }
+            long index = position / layout.chunkSize;
+            if (index != loadedChunk) {
+                load(index);
+            }
+            int chunkOffset = (int) (position % layout.chunkSize);
+            int available = (index == layout.chunks - 1 ? layout.lastChunkLength : layout.chunkSize) - chunkOffset;
+            int copied = Math.min(length, available);
+            System.arraycopy(chunk, chunkOffset, buffer, offset, copied);
+            position += copied;
+            return copied;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, layout.length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, layout.length - position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void load(long index) throws IOException {
+            boolean last = index == layout.chunks - 1;
+            sealed.clear().limit((last ? layout.lastChunkLength : layout.chunkSize) + TAG_LENGTH);
+            long offset = layout.offset(index);
+            while (sealed.hasRemaining()) {
+                if (channel.read(sealed, offset + sealed.position()) < 0) {
+                    throw new IOException("Encrypted file is truncated");
+                }
+            }
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, key, chunkParameters(index, last));
+                cipher.doFinal(sealed.array(), 0, sealed.limit(), chunk, 0);
+            } catch (AEADBadTagException exception) {
+                throw new IOException("Encrypted chunk " + index + " failed authentication", exception);
+            } catch (GeneralSecurityException exception) {
+                throw new IllegalStateException("Failed to decrypt the file", exception);
+            }
+            loadedChunk = index;
+        }
+    }
+}
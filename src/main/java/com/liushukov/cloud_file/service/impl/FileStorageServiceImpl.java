@@ -0,0 +1,153 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.dto.StoredFileDto;
+import com.liushukov.cloud_file.service.FileEncryptionService;
+import com.liushukov.cloud_file.service.FileStorageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps files on the local disk under {@code <root>/<userId>/<fileId>}. The id is a random UUID plus
+ * the lower-cased extension of the uploaded name, so the content type can be derived from the id alone
+ * and downloads need no metadata lookup. Files are encrypted per user by {@link FileEncryptionService}
+ * while the upload streams to disk.
+ */
+@Service
+public class FileStorageServiceImpl implements FileStorageService {
+    private static final Pattern FILE_ID_PATTERN =
+            Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("[a-z0-9]{1,10}");
+
+    private final Path rootDir;
+    private final FileEncryptionService fileEncryptionService;
+
+    public FileStorageServiceImpl(
+            @Value("${app.files.root-dir:files}") String rootDir,
+            FileEncryptionService fileEncryptionService
+    ) {
+        this.rootDir = Path.of(rootDir).toAbsolutePath().normalize();
+        this.fileEncryptionService = fileEncryptionService;
+    }
+
+    @Override
+    public StoredFileDto store(long userId, String originalFileName, InputStream content) {
+        String fileId = UUID.randomUUID() + extension(originalFileName);
+        try {
+            Path userDir = Files.createDirectories(rootDir.resolve(Long.toString(userId)));
+            // written next to the target and moved, so a reader never sees a partial file
+            Path temporary = Files.createTempFile(userDir, "upload-", ".tmp");
+            try {
+                long size;
+                try (OutputStream target = Files.newOutputStream(temporary)) {
+                    size = fileEncryptionService.encrypt(userId, fileId, content, target);
+                }
+                Files.move(temporary, userDir.resolve(fileId), StandardCopyOption.ATOMIC_MOVE);
+                return new StoredFileDto(fileId, size);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to store the file", exception);
+        }
+    }
+
+    @Override
+    public Optional<Path> findFile(long userId, String fileId) {
+        if (!isValidFileId(fileId)) {
+            return Optional.empty();
+        }
+        Path file = rootDir.resolve(Long.toString(userId)).resolve(fileId);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public Optional<Resource> openFile(long userId, String fileId) {
+        return findFile(userId, fileId).map(file -> new EncryptedFileResource(userId, fileId, file));
+    }
+
+    @Override
+    public boolean delete(long userId, String fileId) {
+        if (!isValidFileId(fileId)) {
+            return false;
+        }
+        try {
+            // a download that already opened the file keeps reading it until it is done
+            return Files.deleteIfExists(rootDir.resolve(Long.toString(userId)).resolve(fileId));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to delete the file", exception);
+        }
+    }
+
+    @Override
+    public boolean isValidFileId(String fileId) {
+        return fileId != null && FILE_ID_PATTERN.matcher(fileId).matches();
+    }
+
+    private static String extension(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION_PATTERN.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private final class EncryptedFileResource extends AbstractResource {
+        private final long userId;
+        private final String fileId;
+        private final Path file;
+
+        private EncryptedFileResource(long userId, String fileId, Path file) {
+            this.userId = userId;
+            this.fileId = fileId;
+            this.file = file;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return fileEncryptionService.decrypt(userId, fileId, file);
+        }
+
+        @Override
+        public boolean exists() {
+            return Files.exists(file);
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return fileEncryptionService.plaintextLength(file);
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return Files.getLastModifiedTime(file).toMillis();
+        }
+
+        @Override
+        public String getFilename() {
+            return fileId;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Encrypted file [" + file + "]";
+        }
+    }
+}
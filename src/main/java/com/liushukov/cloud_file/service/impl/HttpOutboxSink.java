@@ -0,0 +1,67 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liushukov.cloud_file.dto.OutboxEvent;
+import com.liushukov.cloud_file.service.OutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as a JSON array. Both the connect and the request are bounded by the timeout,
+ * which has to stay well below {@code app.outbox.lease-duration} with every sink counted.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.outbox.http", name = "url")
+public class HttpOutboxSink implements OutboxSink {
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final Duration timeout;
+
+    public HttpOutboxSink(
+            ObjectMapper objectMapper,
+            @Value("${app.outbox.http.url}") String url,
+            @Value("${app.outbox.http.timeout:5000}") long timeout
+    ) {
+        this.objectMapper = objectMapper;
+        this.uri = URI.create(url);
+        this.timeout = Duration.ofMillis(timeout);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(this.timeout).build();
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        HttpResponse<Void> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                    .build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Failed to serialize outbox events", exception);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while delivering outbox events", exception);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Outbox sink " + uri + " responded with " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liushukov.cloud_file.config.SchedulingConfiguration;
+import com.liushukov.cloud_file.dto.OutboxEvent;
+import com.liushukov.cloud_file.dto.UserEventPayload;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.entity.UserEventType;
+import com.liushukov.cloud_file.repository.OutboxEventRepository;
+import com.liushukov.cloud_file.service.OutboxService;
+import com.liushukov.cloud_file.service.OutboxSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Events are inserted into {@code user_outbox} in the transaction that changes the user, so they
+ * commit or roll back with it and the request only pays for one extra insert. The relay claims due
+ * events by leasing them, which lets every instance relay in parallel without delivering the same row
+ * twice, and deletes them once all sinks accepted the batch. No transaction or row lock is held while
+ * the sinks are called, and the relay has its own scheduler thread, so a slow sink only delays events.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+    private static final Logger log = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long leaseDuration;
+    private final long retryBaseDelay;
+    private final long retryMaxDelay;
+
+    public OutboxServiceImpl(
+            OutboxEventRepository outboxEventRepository,
+            List<OutboxSink> sinks,
+            ObjectMapper objectMapper,
+            @Value("${app.outbox.batch-size:100}") int batchSize,
+            @Value("${app.outbox.lease-duration:60000}") long leaseDuration,
+            @Value("${app.outbox.retry-base-delay:1000}") long retryBaseDelay,
+            @Value("${app.outbox.retry-max-delay:300000}") long retryMaxDelay
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+        this.retryBaseDelay = retryBaseDelay;
+        this.retryMaxDelay = retryMaxDelay;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUserEvent(UserEventType type, long userId, User user) {
+        UserEventPayload payload = new UserEventPayload(
+                userId, user.getFullName(), user.getEmail(), user.getRole(), user.getEnabled()
+        );
+        try {
+            outboxEventRepository.insertOutboxEvent(
+                    type, userId, objectMapper.writeValueAsString(payload), Instant.now()
+            );
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Failed to serialize the user event", exception);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUserEvents(UserEventType type, List<UserEventPayload> users) {
+        Map<Long, String> payloads = new LinkedHashMap<>();
+        try {
+            for (UserEventPayload user : users) {
+                payloads.put(user.id(), objectMapper.writeValueAsString(user));
+            }
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Failed to serialize the user event", exception);
+        }
+        outboxEventRepository.insertOutboxEvents(type, payloads, Instant.now());
+    }
+
+    @Override
+    @Scheduled(
+            fixedDelayString = "${app.outbox.poll-interval:500}",
+            scheduler = SchedulingConfiguration.OUTBOX_SCHEDULER
+    )
+    public int relay() {
+        if (sinks.isEmpty()) {
+            // events wait in the table until a sink is configured
+            return 0;
+        }
+        int relayed = 0;
+        int delivered;
+        do {
+            delivered = relayBatch();
+            relayed += delivered;
+        } while (delivered == batchSize);
+        return relayed;
+    }
+
+    private int relayBatch() {
+        Instant now = Instant.now();
+        // the lease has to outlast the delivery, or another relay sends the batch a second time
+        List<OutboxEvent> events = outboxEventRepository.claimDueOutboxEvents(
+                now, now.plusMillis(leaseDuration), batchSize
+        );
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = events.stream().map(OutboxEvent::id).toList();
+        try {
+            for (OutboxSink sink : sinks) {
+                sink.deliver(events);
+            }
+        } catch (RuntimeException exception) {
+            int attempts = events.stream().mapToInt(OutboxEvent::attempts).max().orElse(0);
+            long delay = Math.min(retryMaxDelay, retryBaseDelay << Math.min(attempts, 20));
+            outboxEventRepository.rescheduleOutboxEvents(ids, Instant.now().plusMillis(delay));
+            log.warn("Failed to deliver {} outbox events, retrying in {} ms", events.size(), delay, exception);
+            return 0;
+        }
+        outboxEventRepository.deleteOutboxEvents(ids);
+        return events.size();
+    }
+}
@@ -0,0 +1,104 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.config.JwtKeyRing;
+import com.liushukov.cloud_file.dto.PresignedUrlDto;
+import com.liushukov.cloud_file.service.PresignedUrlService;
+import com.liushukov.cloud_file.service.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Download URLs carry their own authorization: an HMAC-SHA256 over the path, the expiry, the issue
+ * time and the owner, keyed with a key derived from the JWT key material. Checking one costs a MAC, a
+ * constant-time compare and a lookup in the in-memory revocations, with no token parsing and no
+ * database access. Like tokens, URLs issued before the owner's tokens were revoked stop working.
+ */
+@Service
+public class PresignedUrlServiceImpl implements PresignedUrlService {
+    private static final String KEY_PURPOSE = "cloud-file/presigned-download/v1";
+    private static final Base64.Encoder SIGNATURE_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder SIGNATURE_DECODER = Base64.getUrlDecoder();
+
+    // initialized once; every call works on a clone, since Mac instances are not thread-safe
+    private final Mac prototype;
+    private final TokenRevocationService tokenRevocationService;
+    private final long maxTtl;
+
+    public PresignedUrlServiceImpl(
+            JwtKeyRing keyRing,
+            TokenRevocationService tokenRevocationService,
+            @Value("${app.files.presigned-url-max-ttl:604800000}") long maxTtl
+    ) {
+        try {
+            this.prototype = Mac.getInstance("HmacSHA256");
+            this.prototype.init(keyRing.deriveKey(KEY_PURPOSE));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("HmacSHA256 is not available", exception);
+        }
+        this.tokenRevocationService = tokenRevocationService;
+        this.maxTtl = maxTtl;
+    }
+
+    /**
+     * Without {@code app.jwt.secret-key} the signing key is derived from the active JWT private key,
+     * so rotating that key invalidates every outstanding URL.
+     */
+    @Override
+    public PresignedUrlDto presignDownload(long userId, String fileId, long ttl) {
+        if (ttl <= 0 || ttl > maxTtl) {
+            throw new IllegalArgumentException("ttl should be from 1 to " + maxTtl + " ms");
+        }
+        // second precision keeps the URL short; rounding up never shortens the requested lifetime
+        long now = System.currentTimeMillis();
+        long expires = Math.ceilDiv(now + ttl, 1000L);
+        long issued = now / 1000L;
+        String path = downloadPath(userId, fileId);
+        String signature = SIGNATURE_ENCODER.encodeToString(sign(path, expires, issued, userId));
+        return new PresignedUrlDto(
+                path + "?expires=" + expires + "&issued=" + issued + "&signature=" + signature,
+                Instant.ofEpochSecond(expires)
+        );
+    }
+
+    @Override
+    public boolean isValidDownload(long userId, String fileId, long expires, long issued, String signature) {
+        if (signature == null || expires < System.currentTimeMillis() / 1000L) {
+            return false;
+        }
+        byte[] provided;
+        try {
+            provided = SIGNATURE_DECODER.decode(signature);
+        } catch (IllegalArgumentException exception) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(downloadPath(userId, fileId), expires, issued, userId), provided)
+                && !tokenRevocationService.isUserTokenRevoked(userId, Instant.ofEpochSecond(issued));
+    }
+
+    @Override
+    public long getMaxTtl() {
+        return maxTtl;
+    }
+
+    private byte[] sign(String path, long expires, long issued, long userId) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException exception) {
+            throw new IllegalStateException("HmacSHA256 cannot be cloned", exception);
+        }
+        String canonical = path + '\n' + expires + '\n' + issued + '\n' + userId;
+        return mac.doFinal(canonical.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String downloadPath(long userId, String fileId) {
+        return PUBLIC_DOWNLOAD_PATH + userId + "/" + fileId;
+    }
+}
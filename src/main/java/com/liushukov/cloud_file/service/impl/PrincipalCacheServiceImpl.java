@@ -0,0 +1,104 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.PrincipalCacheService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Principals by canonical email, so authenticated requests skip the users query. Entries are evicted
+ * by {@link CacheInvalidationServiceImpl} when any node changes the user; the time to live only
+ * bounds staleness if a notification is lost while the listener reconnects.
+ */
+@Service
+public class PrincipalCacheServiceImpl implements PrincipalCacheService {
+    private final UserRepository userRepository;
+    private final long timeToLiveNanos;
+    private final int maximumSize;
+    private final Map<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+    // bumped by every eviction so a load that raced with one does not put the stale row back
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    public PrincipalCacheServiceImpl(
+            UserRepository userRepository,
+            @Value("${app.cache.principal-ttl:300000}") long timeToLive,
+            @Value("${app.cache.principal-max-size:10000}") int maximumSize
+    ) {
+        this.userRepository = userRepository;
+        this.timeToLiveNanos = timeToLive * 1_000_000L;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public Optional<AuthenticatedUser> getPrincipal(String email) {
+        String key = canonicalEmail(email);
+        long now = System.nanoTime();
+        CachedPrincipal cached = principals.get(key);
+        if (cached != null && now - cached.loadedAt() < timeToLiveNanos) {
+            return Optional.of(cached.principal());
+        }
+
+        long evictionsBeforeLoad = evictions.get();
+        Optional<AuthenticatedUser> principal = userRepository.findPrincipalByEmail(key);
+        if (principal.isPresent()) {
+            if (cached == null) {
+                makeRoom(now);
+            }
+            principals.put(key, new CachedPrincipal(principal.get(), now));
+            if (evictions.get() != evictionsBeforeLoad) {
+                principals.remove(key);
+            }
+        } else if (cached != null) {
+            principals.remove(key, cached);
+        }
+        return principal;
+    }
+
+    @Override
+    public void evict(Collection<String> emails) {
+        evictions.incrementAndGet();
+        for (String email : emails) {
+            principals.remove(canonicalEmail(email));
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        evictions.incrementAndGet();
+        principals.clear();
+    }
+
+    private void makeRoom(long now) {
+        if (principals.size() < maximumSize) {
+            return;
+        }
+        // expired entries are only replaced on lookup, so a full cache first drops every expired one
+        long sweptAt = lastSweep.get();
+        if (now - sweptAt >= timeToLiveNanos / 10 && lastSweep.compareAndSet(sweptAt, now)) {
+            principals.values().removeIf(cached -> now - cached.loadedAt() >= timeToLiveNanos);
+        }
+        // still full of live entries: make room by dropping arbitrary ones, as good as random eviction
+        Iterator<String> keys = principals.keySet().iterator();
+        while (principals.size() >= maximumSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String canonicalEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record CachedPrincipal(AuthenticatedUser principal, long loadedAt) {
+    }
+}
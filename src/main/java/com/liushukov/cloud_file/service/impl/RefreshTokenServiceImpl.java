@@ -0,0 +1,109 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.entity.RefreshToken;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.exception.InvalidRefreshTokenException;
+import com.liushukov.cloud_file.repository.RefreshTokenRepository;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.RefreshTokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Opaque refresh tokens that are rotated on every use. Only a SHA-256 hash of the token is stored,
+ * so refreshing costs one indexed lookup instead of the BCrypt check done at login.
+ */
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.jwt.refresh-expiration-time:1209600000}")
+    private long refreshExpiration;
+
+    @Value("${app.jwt.refresh-purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public String createRefreshToken(User user) {
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        RefreshToken entity = new RefreshToken()
+                .setTokenHash(hash(refreshToken))
+                .setUserId(user.getId())
+                .setExpiresAt(Instant.now().plusMillis(refreshExpiration));
+        refreshTokenRepository.save(entity);
+        return refreshToken;
+    }
+
+    @Override
+    @Transactional
+    public User consumeRefreshToken(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        RefreshToken token = refreshTokenRepository.findRefreshTokenByHash(tokenHash)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token not found"));
+
+        // a concurrent refresh with the same token already rotated it
+        if (refreshTokenRepository.deleteRefreshTokenByHash(tokenHash) == 0) {
+            throw new InvalidRefreshTokenException("Refresh token already used");
+        }
+        if (token.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+
+        return userRepository.findUserById(token.getUserId())
+                .filter(User::isEnabled)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token owner is not active"));
+    }
+
+    @Override
+    public Map<Long, Integer> countActiveRefreshTokens(Collection<Long> userIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : refreshTokenRepository.countActiveRefreshTokensByUserIds(userIds, Instant.now())) {
+            counts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        return counts;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-purge-interval:3600000}")
+    public void purgeExpiredRefreshTokens() {
+        Instant now = Instant.now();
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredRefreshTokens(now, purgeBatchSize);
+        } while (deleted == purgeBatchSize);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+}
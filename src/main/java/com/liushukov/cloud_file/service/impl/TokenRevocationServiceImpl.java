@@ -0,0 +1,150 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.entity.RevokedToken;
+import com.liushukov.cloud_file.entity.UserTokenRevocation;
+import com.liushukov.cloud_file.repository.RevokedTokenRepository;
+import com.liushukov.cloud_file.repository.UserTokenRevocationRepository;
+import com.liushukov.cloud_file.service.TokenRevocationService;
+import com.liushukov.cloud_file.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps revoked token ids and per-user revocation timestamps in memory, each behind a Bloom filter,
+ * so the check done for every authenticated request is a few bit probes for tokens that were never
+ * revoked. The tables stay the source of truth and are reloaded periodically, which also picks up
+ * revocations made by other instances.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.0001;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserTokenRevocationRepository userTokenRevocationRepository;
+
+    @Value("${app.jwt.expiration-time}")
+    private long jwtExpiration;
+
+    @Value("${app.files.presigned-url-max-ttl:604800000}")
+    private long presignedUrlMaxTtl;
+
+    @Value("${app.jwt.revocation-expected-size:100000}")
+    private int expectedSize;
+
+    private volatile TokenRevocations tokenRevocations = new TokenRevocations(List.of(), 1);
+    private volatile UserRevocations userRevocations = new UserRevocations(List.of(), 1);
+
+    public TokenRevocationServiceImpl(
+            RevokedTokenRepository revokedTokenRepository,
+            UserTokenRevocationRepository userTokenRevocationRepository
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userTokenRevocationRepository = userTokenRevocationRepository;
+    }
+
+    @Override
+    public boolean isTokenRevoked(String tokenId) {
+        return tokenId != null && tokenRevocations.contains(tokenId);
+    }
+
+    @Override
+    public boolean isUserTokenRevoked(long userId, Instant issuedAt) {
+        Instant revokedBefore = userRevocations.get(userId);
+        // iat has second precision, so a token issued in the same second as the revocation is revoked too
+        return revokedBefore != null && (issuedAt == null || !issuedAt.isAfter(revokedBefore));
+    }
+
+    @Override
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.insertRevokedToken(tokenId, expiresAt);
+        synchronized (this) {
+            tokenRevocations.add(tokenId);
+        }
+    }
+
+    @Override
+    public void revokeAllForUser(long userId) {
+        Instant revokedBefore = Instant.now();
+        userTokenRevocationRepository.upsertUserTokenRevocation(userId, revokedBefore);
+        synchronized (this) {
+            userRevocations.add(userId, revokedBefore);
+        }
+    }
+
+    @Override
+    public void revokeAllForUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Instant revokedBefore = Instant.now();
+        userTokenRevocationRepository.upsertUserTokenRevocations(userIds.toArray(Long[]::new), revokedBefore);
+        synchronized (this) {
+            for (long userId : userIds) {
+                userRevocations.add(userId, revokedBefore);
+            }
+        }
+    }
+
+    @Override
+    @PostConstruct
+    @Scheduled(
+            fixedDelayString = "${app.jwt.revocation-reload-interval:60000}",
+            initialDelayString = "${app.jwt.revocation-reload-interval:60000}"
+    )
+    public synchronized void reload() {
+        Instant now = Instant.now();
+        revokedTokenRepository.deleteExpiredRevokedTokens(now);
+        // every token and presigned URL issued before this point has expired on its own
+        userTokenRevocationRepository.deleteOutdatedUserTokenRevocations(
+                now.minusMillis(Math.max(jwtExpiration, presignedUrlMaxTtl)));
+
+        tokenRevocations = new TokenRevocations(revokedTokenRepository.findAll(), expectedSize);
+        userRevocations = new UserRevocations(userTokenRevocationRepository.findAll(), expectedSize);
+    }
+
+    private static final class TokenRevocations {
+        private final BloomFilter filter;
+        private final Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+
+        TokenRevocations(List<RevokedToken> revokedTokens, int expectedSize) {
+            this.filter = new BloomFilter(Math.max(expectedSize, revokedTokens.size() * 2), FALSE_POSITIVE_PROBABILITY);
+            revokedTokens.forEach(revokedToken -> add(revokedToken.getJti()));
+        }
+
+        boolean contains(String tokenId) {
+            return filter.mightContain(tokenId) && tokenIds.contains(tokenId);
+        }
+
+        void add(String tokenId) {
+            tokenIds.add(tokenId);
+            filter.put(tokenId);
+        }
+    }
+
+    private static final class UserRevocations {
+        private final BloomFilter filter;
+        private final ConcurrentHashMap<Long, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+        UserRevocations(List<UserTokenRevocation> revocations, int expectedSize) {
+            this.filter = new BloomFilter(Math.max(expectedSize, revocations.size() * 2), FALSE_POSITIVE_PROBABILITY);
+            revocations.forEach(revocation -> add(revocation.getUserId(), revocation.getRevokedBefore()));
+        }
+
+        Instant get(long userId) {
+            return filter.mightContain(userId) ? revokedBefore.get(userId) : null;
+        }
+
+        void add(long userId, Instant before) {
+            revokedBefore.put(userId, before);
+            filter.put(userId);
+        }
+    }
+}
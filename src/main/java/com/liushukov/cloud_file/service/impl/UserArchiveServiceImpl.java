@@ -0,0 +1,107 @@
+package com.liushukov.cloud_file.service.impl;
+
+import com.liushukov.cloud_file.repository.UserArchiveRepository;
+import com.liushukov.cloud_file.service.CacheInvalidationService;
+import com.liushukov.cloud_file.service.UserArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code deleteUser} only disables the account, so the job moves users that stayed disabled past the
+ * retention period out of {@code users}. Each batch is its own short transaction; the rows it moved stay
+ * locked until it commits, and that time is recorded as lock time. Instances run the job concurrently
+ * without blocking each other or user requests because candidates are picked with {@code SKIP LOCKED}.
+ */
+@Service
+public class UserArchiveServiceImpl implements UserArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(UserArchiveServiceImpl.class);
+
+    private final UserArchiveRepository userArchiveRepository;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final AtomicLong archivedUsers = new AtomicLong();
+    private final AtomicLong archiveBatches = new AtomicLong();
+    private final AtomicLong totalLockMillis = new AtomicLong();
+    private final AtomicLong maxLockMillis = new AtomicLong();
+
+    public UserArchiveServiceImpl(
+            UserArchiveRepository userArchiveRepository,
+            CacheInvalidationService cacheInvalidationService,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.users.archive-after-days:30}") long retentionDays,
+            @Value("${app.users.archive-batch-size:500}") int batchSize,
+            @Value("${app.files.presigned-url-max-ttl:604800000}") long presignedUrlMaxTtl
+    ) {
+        this.userArchiveRepository = userArchiveRepository;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.transactionTemplate = transactionTemplate;
+        // archiving drops the user's revocation, so it waits until their presigned URLs have expired
+        this.retention = Duration.ofMillis(Math.max(Duration.ofDays(retentionDays).toMillis(), presignedUrlMaxTtl));
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Scheduled(cron = "${app.users.archive-cron:0 30 3 * * *}")
+    public int archiveDisabledUsers() {
+        Instant disabledBefore = Instant.now().minus(retention);
+        int archived = 0;
+        int moved;
+        do {
+            moved = archiveBatch(disabledBefore);
+            archived += moved;
+        } while (moved == batchSize);
+        if (archived > 0) {
+            log.info("Archived {} users disabled before {}", archived, disabledBefore);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(Instant disabledBefore) {
+        long startedAt = System.nanoTime();
+        int moved = transactionTemplate.execute(status -> {
+            List<String> emails = userArchiveRepository.archiveDisabledUsers(disabledBefore, Instant.now(), batchSize);
+            // the emails can be registered again, so no node may keep serving the archived principal
+            emails.forEach(cacheInvalidationService::publishUserChanged);
+            return emails.size();
+        });
+        long lockMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        archiveBatches.incrementAndGet();
+        archivedUsers.addAndGet(moved);
+        totalLockMillis.addAndGet(lockMillis);
+        maxLockMillis.accumulateAndGet(lockMillis, Math::max);
+        return moved;
+    }
+
+    @Override
+    public long getArchivedUsers() {
+        return archivedUsers.get();
+    }
+
+    @Override
+    public long getArchiveBatches() {
+        return archiveBatches.get();
+    }
+
+    @Override
+    public long getTotalLockMillis() {
+        return totalLockMillis.get();
+    }
+
+    @Override
+    public long getMaxLockMillis() {
+        return maxLockMillis.get();
+    }
+}
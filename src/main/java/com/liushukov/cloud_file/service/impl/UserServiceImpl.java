@@ -1,11 +1,21 @@
 package com.liushukov.cloud_file.service.impl;
 
+import com.liushukov.cloud_file.dto.UserBatchResultDto;
+import com.liushukov.cloud_file.dto.UserBatchUpdateDto;
+import com.liushukov.cloud_file.dto.UserChange;
 import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserEventPayload;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserSearchResultDto;
 import com.liushukov.cloud_file.dto.UserUpdateDto;
 import com.liushukov.cloud_file.entity.Role;
 import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.entity.UserEventType;
 import com.liushukov.cloud_file.mapper.UserMapper;
 import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.CacheInvalidationService;
+import com.liushukov.cloud_file.service.OutboxService;
+import com.liushukov.cloud_file.service.TokenRevocationService;
 import com.liushukov.cloud_file.service.UserService;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,21 +26,49 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
-    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(
+            UserRepository userRepository,
+            UserMapper userMapper,
+            PasswordEncoder passwordEncoder,
+            TokenRevocationService tokenRevocationService,
+            CacheInvalidationService cacheInvalidationService,
+            OutboxService outboxService,
+            TransactionTemplate transactionTemplate
+    ) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public User getUserDetails(String username) {
@@ -48,43 +86,204 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public UserProfileDto getUserProfileFromAuthentication(Authentication authentication) {
+        try {
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            return userRepository.findActiveUserProfileByEmail(userDetails.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        } catch (Exception exception) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User retrieval exception", exception);
+        }
+    }
+
     @Override
     public Optional<User> getUserById(long id) {
         return userRepository.findUserById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserProfileDto> getUserProfileById(long id) {
+        return userRepository.findUserProfileById(id);
+    }
+
     @Override
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findUserByEmail(email);
     }
 
     @Override
-    public List<User> getAllUsers(String sortBy, String orderBy, int pageNumber, int pageSize) {
+    @Transactional(readOnly = true)
+    public List<UserProfileDto> getUserProfilesByIds(Collection<Long> ids) {
+        return userRepository.findUserProfilesByIds(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserProfileDto> getAllUsers(String sortBy, String orderBy, int pageNumber, int pageSize) {
         Pageable pageable;
         switch (orderBy) {
             case "desc" -> pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy).descending());
             default -> pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy).ascending());
         }
-        return userRepository.findAll(pageable).getContent();
+        return userRepository.findUserProfiles(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserSearchResultDto searchUsers(String query, String mode, long afterId, int limit) {
+        // one extra row tells whether another page exists without a separate count query
+        List<UserProfileDto> users;
+        switch (mode) {
+            case "prefix" -> users = userRepository.searchUserProfilesByPattern(
+                    escapeLikePattern(query) + "%", afterId, limit + 1);
+            case "fuzzy" -> users = userRepository.searchUserProfilesBySimilarity(query, afterId, limit + 1);
+            default -> users = userRepository.searchUserProfilesByPattern(
+                    "%" + escapeLikePattern(query) + "%", afterId, limit + 1);
+        }
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            return new UserSearchResultDto(users, users.get(limit - 1).id());
+        }
+        return new UserSearchResultDto(users, null);
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     @Override
-    public UserDto createUser(UserDto userDto) {
+    @Transactional
+    public Optional<UserDto> createUser(UserDto userDto) {
         User user = userMapper.toEntity(userDto, Role.USER, true, passwordEncoder);
-        userRepository.save(user);
-        return userMapper.fromEntity(user);
+        return userRepository.insertUserIfAbsent(user)
+                .map(id -> {
+                    outboxService.recordUserEvent(UserEventType.USER_CREATED, id, user);
+                    return userMapper.fromEntity(user);
+                });
     }
 
     @Override
+    @Transactional
     public UserDto updateUser(User user, UserUpdateDto userUpdateDto) {
+        String previousEmail = user.getEmail();
         user = userMapper.updateUserFromDto(userUpdateDto, user, passwordEncoder);
         userRepository.save(user);
+        outboxService.recordUserEvent(UserEventType.USER_UPDATED, user.getId(), user);
+        cacheInvalidationService.publishUserChanged(previousEmail);
+        if (!previousEmail.equals(user.getEmail())) {
+            cacheInvalidationService.publishUserChanged(user.getEmail());
+        }
         return userMapper.fromEntity(user);
     }
 
     @Override
+    @Transactional
     public void deleteUser(User user) {
         user.setEnabled(false);
         userRepository.save(user);
+        outboxService.recordUserEvent(UserEventType.USER_DISABLED, user.getId(), user);
+        tokenRevocationService.revokeAllForUser(user.getId());
+        cacheInvalidationService.publishUserChanged(user.getEmail());
+    }
+
+    @Override
+    public List<UserBatchResultDto> updateUsers(List<UserBatchUpdateDto.Item> updates) {
+        // hashing takes ~100 ms per password, so it must not run while the rows are locked
+        List<String> passwordHashes = new ArrayList<>(updates.size());
+        for (UserBatchUpdateDto.Item item : updates) {
+            String password = item.changes().password();
+            passwordHashes.add(password == null ? null : passwordEncoder.encode(password));
+        }
+        return transactionTemplate.execute(status -> applyUserUpdates(updates, passwordHashes));
+    }
+
+    private List<UserBatchResultDto> applyUserUpdates(List<UserBatchUpdateDto.Item> updates, List<String> passwordHashes) {
+        Map<Long, UserEventPayload> users = lockUsers(updates.stream().map(UserBatchUpdateDto.Item::userId).toList());
+        Set<String> takenEmails = new HashSet<>(userRepository.findTakenEmails(updates.stream()
+                .map(item -> userMapper.canonicalEmail(item.changes().email()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())));
+
+        List<UserBatchResultDto> results = new ArrayList<>(updates.size());
+        List<UserChange> changes = new ArrayList<>();
+        List<UserEventPayload> updatedUsers = new ArrayList<>();
+        Set<String> changedEmails = new LinkedHashSet<>();
+        Set<Long> seenIds = new HashSet<>();
+        for (int i = 0; i < updates.size(); i++) {
+            UserBatchUpdateDto.Item item = updates.get(i);
+            long userId = item.userId();
+            UserEventPayload user = users.get(userId);
+            String email = userMapper.canonicalEmail(item.changes().email());
+            if (user == null) {
+                results.add(new UserBatchResultDto(userId, HttpStatus.NOT_FOUND.value()));
+            } else if (!seenIds.add(userId)) {
+                results.add(new UserBatchResultDto(userId, HttpStatus.BAD_REQUEST.value()));
+            } else if (email != null && !email.equals(user.email().toLowerCase(Locale.ROOT)) && !takenEmails.add(email)) {
+                // adding the email reserves it, so two users of one batch cannot both move to it
+                results.add(new UserBatchResultDto(userId, HttpStatus.CONFLICT.value()));
+            } else {
+                String fullName = item.changes().fullName();
+                changes.add(new UserChange(userId, fullName, email, passwordHashes.get(i)));
+                UserEventPayload updatedUser = new UserEventPayload(
+                        userId,
+                        fullName == null ? user.fullName() : fullName,
+                        email == null ? user.email() : email,
+                        user.role(),
+                        user.enabled()
+                );
+                updatedUsers.add(updatedUser);
+                changedEmails.add(user.email());
+                changedEmails.add(updatedUser.email());
+                results.add(new UserBatchResultDto(userId, HttpStatus.OK.value()));
+            }
+        }
+
+        userRepository.updateUsers(changes);
+        outboxService.recordUserEvents(UserEventType.USER_UPDATED, updatedUsers);
+        cacheInvalidationService.publishUsersChanged(changedEmails);
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<UserBatchResultDto> deleteUsers(List<Long> userIds) {
+        Map<Long, UserEventPayload> users = lockUsers(userIds);
+
+        List<UserBatchResultDto> results = new ArrayList<>(userIds.size());
+        List<UserEventPayload> disabledUsers = new ArrayList<>();
+        for (long userId : userIds) {
+            UserEventPayload user = users.get(userId);
+            if (user == null) {
+                results.add(new UserBatchResultDto(userId, HttpStatus.NOT_FOUND.value()));
+            } else if (!user.enabled()) {
+                results.add(new UserBatchResultDto(userId, HttpStatus.BAD_REQUEST.value()));
+            } else {
+                UserEventPayload disabledUser = new UserEventPayload(
+                        userId, user.fullName(), user.email(), user.role(), false
+                );
+                // a repeated id then answers like a second single delete would
+                users.put(userId, disabledUser);
+                disabledUsers.add(disabledUser);
+                results.add(new UserBatchResultDto(userId, HttpStatus.NO_CONTENT.value()));
+            }
+        }
+
+        List<Long> disabledIds = disabledUsers.stream().map(UserEventPayload::id).toList();
+        userRepository.disableUsers(disabledIds);
+        outboxService.recordUserEvents(UserEventType.USER_DISABLED, disabledUsers);
+        tokenRevocationService.revokeAllForUsers(disabledIds);
+        cacheInvalidationService.publishUsersChanged(disabledUsers.stream().map(UserEventPayload::email).toList());
+        return results;
+    }
+
+    private Map<Long, UserEventPayload> lockUsers(Collection<Long> ids) {
+        Map<Long, UserEventPayload> users = new HashMap<>();
+        for (UserEventPayload user : userRepository.lockUsersByIds(new HashSet<>(ids))) {
+            users.put(user.id(), user);
+        }
+        return users;
     }
 }
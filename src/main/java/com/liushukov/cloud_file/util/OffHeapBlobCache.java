@@ -0,0 +1,324 @@
+package com.liushukov.cloud_file.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded cache of small immutable blobs held outside the Java heap. The memory is allocated
+ * once as direct buffers cut into fixed-size pages. A blob takes as many pages as it needs, and they
+ * do not have to be adjacent, so the cache never fragments and never allocates after startup.
+ * <p>
+ * Entries are kept in least-recently-used order. Admission follows TinyLFU: a new blob may evict
+ * entries only when the {@link FrequencySketch} has seen it more often than each of them, so a burst
+ * of one-off downloads cannot flush the hot set. An evicted entry keeps its pages until the last open
+ * stream over it is closed.
+ */
+public class OffHeapBlobCache {
+    private static final int MAX_SLAB_SIZE = 1 << 30;
+
+    private final ByteBuffer[] slabs;
+    private final int pageSize;
+    private final int pagesPerSlab;
+    private final int pageCount;
+    private final int maxBlobSize;
+    private final int[] freePages;
+    private int freeCount;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final AtomicLong bytesServed = new AtomicLong();
+    private long evictions;
+    private long rejections;
+    // bumped by every invalidation so a fill that raced with one does not put the stale blob back
+    private long invalidations;
+
+    @FunctionalInterface
+    public interface ChannelOpener {
+        ReadableByteChannel open() throws IOException;
+    }
+
+    public OffHeapBlobCache(long capacity, int pageSize, int maxBlobSize) {
+        if (pageSize < 1 || maxBlobSize < 1 || capacity < pageSize || capacity / pageSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid blob cache size: " + capacity + "/" + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.pageCount = (int) (capacity / pageSize);
+        this.pagesPerSlab = Math.max(1, MAX_SLAB_SIZE / pageSize);
+        this.maxBlobSize = maxBlobSize;
+        this.slabs = new ByteBuffer[(pageCount + pagesPerSlab - 1) / pagesPerSlab];
+        for (int slab = 0; slab < slabs.length; slab++) {
+            int pages = Math.min(pagesPerSlab, pageCount - slab * pagesPerSlab);
+            slabs[slab] = ByteBuffer.allocateDirect(pages * pageSize);
+        }
+        this.freePages = new int[pageCount];
+        for (int page = 0; page < pageCount; page++) {
+            freePages[page] = pageCount - 1 - page;
+        }
+        this.freeCount = pageCount;
+        this.sketch = new FrequencySketch(pageCount);
+    }
+
+    /**
+     * Records a request for the key and returns the size of its cached blob, or -1 when it is not
+     * cached. Every lookup counts towards admission, hits and misses alike.
+     */
+    public synchronized int lookup(String key) {
+        sketch.increment(key);
+        Entry entry = entries.get(key);
+        return entry == null ? -1 : entry.size;
+    }
+
+    /**
+     * Opens a stream over the cached blob, or returns null when it is gone. The blob cannot be freed
+     * until the stream is closed.
+     */
+    public synchronized InputStream open(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.readers++;
+        return new BlobInputStream(entry);
+    }
+
+    /**
+     * Copies {@code size} bytes from the channel into the cache if the blob is admitted. The channel
+     * is only opened after admission, and it is read outside the lock.
+     *
+     * @return whether the blob is cached afterwards
+     */
+    public boolean put(String key, int size, ChannelOpener opener) throws IOException {
+        Entry entry;
+        long invalidationsBeforeFill;
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                return true;
+            }
+            if (size > maxBlobSize || !reserve(key, pagesFor(size))) {
+                rejections++;
+                return false;
+            }
+            entry = new Entry(key, size, popPages(pagesFor(size)));
+            invalidationsBeforeFill = invalidations;
+        }
+        try (ReadableByteChannel channel = opener.open()) {
+            fill(entry, channel);
+        } catch (IOException | RuntimeException exception) {
+            synchronized (this) {
+                pushPages(entry.pages);
+            }
+            throw exception;
+        }
+        synchronized (this) {
+            if (invalidations != invalidationsBeforeFill) {
+                // the blob may have been replaced or deleted while it was read
+                pushPages(entry.pages);
+                return false;
+            }
+            if (entries.containsKey(key)) {
+                // another thread loaded the same blob meanwhile
+                pushPages(entry.pages);
+            } else {
+                entries.put(key, entry);
+            }
+            return true;
+        }
+    }
+
+    public synchronized void invalidate(String key) {
+        invalidations++;
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            retire(entry);
+        }
+    }
+
+    public synchronized long getUsedBytes() {
+        return (long) (pageCount - freeCount) * pageSize;
+    }
+
+    public long getCapacity() {
+        return (long) pageCount * pageSize;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    public long getBytesServed() {
+        return bytesServed.get();
+    }
+
+    private int pagesFor(int size) {
+        return Math.max(1, (size + pageSize - 1) / pageSize);
+    }
+
+    // frees enough pages for the candidate, or leaves the cache untouched when the victims are hotter
+    private boolean reserve(String key, int needed) {
+        if (needed > pageCount) {
+            return false;
+        }
+        if (freeCount >= needed) {
+            return true;
+        }
+        int candidateFrequency = sketch.frequency(key);
+        List<Entry> victims = new ArrayList<>();
+        int reclaimable = freeCount;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (reclaimable < needed && iterator.hasNext()) {
+            Entry victim = iterator.next();
+            if (victim.readers > 0) {
+                // still being streamed, its pages would not come back in time
+                continue;
+            }
+            if (sketch.frequency(victim.key) >= candidateFrequency) {
+                return false;
+            }
+            victims.add(victim);
+            reclaimable += victim.pages.length;
+        }
+        if (reclaimable < needed) {
+            return false;
+        }
+        for (Entry victim : victims) {
+            entries.remove(victim.key);
+            retire(victim);
+            evictions++;
+        }
+        return true;
+    }
+
+    private void retire(Entry entry) {
+        entry.retired = true;
+        if (entry.readers == 0) {
+            pushPages(entry.pages);
+        }
+    }
+
+    private synchronized void release(Entry entry) {
+        if (--entry.readers == 0 && entry.retired) {
+            pushPages(entry.pages);
+        }
+    }
+
+    private int[] popPages(int count) {
+        int[] pages = new int[count];
+        for (int i = 0; i < count; i++) {
+            pages[i] = freePages[--freeCount];
+        }
+        return pages;
+    }
+
+    private void pushPages(int[] pages) {
+        for (int page : pages) {
+            freePages[freeCount++] = page;
+        }
+    }
+
+    private void fill(Entry entry, ReadableByteChannel channel) throws IOException {
+        int remaining = entry.size;
+        for (int page : entry.pages) {
+            // a slice has its own position, so concurrent fills and reads never share buffer state
+            ByteBuffer target = slabs[page / pagesPerSlab].slice((page % pagesPerSlab) * pageSize,
+                    Math.min(pageSize, remaining));
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new IOException("Blob ended before " + entry.size + " bytes");
+                }
+            }
+            remaining -= target.capacity();
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final int size;
+        private final int[] pages;
+        private int readers;
+        private boolean retired;
+
+        private Entry(String key, int size, int[] pages) {
+            this.key = key;
+            this.size = size;
+            this.pages = pages;
+        }
+    }
+
+    private final class BlobInputStream extends InputStream {
+        private final Entry entry;
+        private int position;
+        private boolean closed;
+
+        private BlobInputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() {
+            if (closed) {
+                throw new IllegalStateException("Blob stream is closed");
+            }
+            if (position >= entry.size) {
+                return -1;
+            }
+            int page = entry.pages[position / pageSize];
+            byte value = slabs[page / pagesPerSlab].get((page % pagesPerSlab) * pageSize + position % pageSize);
+            position++;
+            return value & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (closed) {
+                throw new IllegalStateException("Blob stream is closed");
+            }
+            if (position >= entry.size) {
+                return -1;
+            }
+            int total = Math.min(length, entry.size - position);
+            int copied = 0;
+            while (copied < total) {
+                int page = entry.pages[(position + copied) / pageSize];
+                int pageOffset = (position + copied) % pageSize;
+                int chunk = Math.min(total - copied, pageSize - pageOffset);
+                // absolute bulk get, the slab's position is never touched
+                slabs[page / pagesPerSlab].get((page % pagesPerSlab) * pageSize + pageOffset,
+                        buffer, offset + copied, chunk);
+                copied += chunk;
+            }
+            position += copied;
+            return copied;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, entry.size - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return closed ? 0 : entry.size - position;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                bytesServed.addAndGet(position);
+                release(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.liushukov.cloud_file.util;
+
+/**
+ * The rsync weak checksum: two 16-bit sums over a window of bytes, one plain and one weighted by the
+ * distance from the window end. Sliding the window by one byte is O(1), which lets a client test every
+ * offset of its file against the block signatures of the stored version. Not thread-safe.
+ */
+public class RollingChecksum {
+    private int a;
+    private int b;
+    private int length;
+
+    public static int of(byte[] data, int offset, int length) {
+        RollingChecksum checksum = new RollingChecksum();
+        checksum.reset(data, offset, length);
+        return checksum.value();
+    }
+
+    public void reset(byte[] data, int offset, int length) {
+        a = 0;
+        b = 0;
+        this.length = length;
+        for (int i = 0; i < length; i++) {
+            int value = data[offset + i] & 0xFF;
+            a += value;
+            b += (length - i) * value;
+        }
+    }
+
+    /**
+     * Moves the window one byte forward: {@code removed} leaves at the start, {@code added} enters at
+     * the end.
+     */
+    public void roll(byte removed, byte added) {
+        int out = removed & 0xFF;
+        a += (added & 0xFF) - out;
+        b += a - length * out;
+    }
+
+    public int value() {
+        return (a & 0xFFFF) | (b << 16);
+    }
+}
@@ -0,0 +1,12 @@
+CREATE TABLE refresh_tokens(
+    token_hash VARCHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY(token_hash),
+    FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX refresh_tokens_user_id_expires_at_idx ON refresh_tokens(user_id, expires_at);
+
+CREATE INDEX refresh_tokens_expires_at_idx ON refresh_tokens(expires_at);
@@ -0,0 +1,16 @@
+CREATE TABLE revoked_tokens(
+    jti VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY(jti)
+);
+
+CREATE INDEX revoked_tokens_expires_at_idx ON revoked_tokens(expires_at);
+
+CREATE TABLE user_token_revocations(
+    user_id BIGINT NOT NULL,
+    revoked_before TIMESTAMP NOT NULL,
+    PRIMARY KEY(user_id),
+    FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX user_token_revocations_revoked_before_idx ON user_token_revocations(revoked_before);
@@ -0,0 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX users_full_name_trgm_idx ON users USING GIN (full_name gin_trgm_ops);
+
+CREATE INDEX users_email_trgm_idx ON users USING GIN (email gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- Emails are canonicalized to lower case on write. Rows that only differ by case have to be merged
+-- by hand before this migration can run; the update below fails on them instead of picking a winner.
+UPDATE users SET email = lower(email) WHERE email <> lower(email);
+
+CREATE UNIQUE INDEX users_email_lower_idx ON users(lower(email));
+
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_email_key;
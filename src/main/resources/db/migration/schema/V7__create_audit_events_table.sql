@@ -0,0 +1,28 @@
+CREATE TABLE audit_events(
+    id BIGINT NOT NULL GENERATED ALWAYS AS IDENTITY,
+    occurred_at TIMESTAMP NOT NULL,
+    action VARCHAR(32) NOT NULL,
+    actor VARCHAR(255),
+    target_user_id BIGINT,
+    details VARCHAR(512),
+    PRIMARY KEY(id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
+-- Monthly partitions are created ahead of time by the application; the default partition only
+-- catches rows written before that happened.
+CREATE TABLE audit_events_default PARTITION OF audit_events DEFAULT;
+
+CREATE INDEX audit_events_occurred_at_idx ON audit_events(occurred_at);
+
+CREATE INDEX audit_events_target_user_id_idx ON audit_events(target_user_id, occurred_at);
+
+-- Audit rows are append-only. Retention drops whole partitions, which does not fire row triggers.
+CREATE FUNCTION audit_events_append_only() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'audit_events is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER audit_events_append_only_trigger
+    BEFORE UPDATE OR DELETE ON audit_events
+    FOR EACH ROW EXECUTE FUNCTION audit_events_append_only();
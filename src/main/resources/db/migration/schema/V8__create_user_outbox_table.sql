@@ -0,0 +1,12 @@
+CREATE TABLE user_outbox(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    created_at TIMESTAMP NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    user_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL
+);
+
+-- Delivered events are deleted, so the table only holds the backlog the relay polls.
+CREATE INDEX user_outbox_next_attempt_at_idx ON user_outbox(next_attempt_at, id);
@@ -0,0 +1,18 @@
+-- Disabled users are moved here by UserArchiveService once they have been disabled long enough.
+-- Password hashes are not carried over, and the email is not unique so it can be registered again.
+CREATE TABLE users_archive(
+    id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    full_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    role VARCHAR(5) NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+    PRIMARY KEY(id)
+);
+
+-- Lookups that only care about active accounts use the smaller index.
+CREATE INDEX users_active_email_lower_idx ON users(lower(email)) WHERE enabled = true;
+
+-- Lets the archival job find its candidates without scanning the active users.
+CREATE INDEX users_disabled_updated_at_idx ON users(updated_at, id) WHERE enabled = false;
@@ -0,0 +1,148 @@
+package com.liushukov.cloud_file;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+import static com.liushukov.cloud_file.CloudFileApplicationNativeTest.TestResources.*;
+
+/**
+ * Smoke test of the native executable, run by {@code ./gradlew -Pnative nativeIntegrationTest}. It covers
+ * the paths that depend on native hints: Flyway migrations, JJWT signing and parsing, MapStruct,
+ * Hibernate entities and projections, method security and GraphQL.
+ */
+@Tag("native")
+@Testcontainers
+public class CloudFileApplicationNativeTest {
+    private static final HttpClient httpClient = HttpClient.newHttpClient();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static Process application;
+    private static String baseUrl;
+
+    @Container
+    static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        String executable = System.getProperty("native.executable");
+        Assumptions.assumeTrue(executable != null && new File(executable).canExecute(), "native executable is not built");
+        postgreSQLContainer.start();
+
+        int port = freePort();
+        baseUrl = "http://localhost:" + port;
+        ProcessBuilder processBuilder = new ProcessBuilder(executable, "--server.port=" + port)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        Map<String, String> environment = processBuilder.environment();
+        environment.put("SPRING_DATASOURCE_URL", postgreSQLContainer.getJdbcUrl());
+        environment.put("SPRING_DATASOURCE_USERNAME", postgreSQLContainer.getUsername());
+        environment.put("SPRING_DATASOURCE_PASSWORD", postgreSQLContainer.getPassword());
+        environment.putIfAbsent("APP_JWT_SECRET_KEY", JWT_SECRET_KEY);
+        environment.putIfAbsent("APP_JWT_EXPIRATION_TIME", JWT_EXPIRATION_TIME);
+        environment.putIfAbsent("APP_FILES_ENCRYPTION_MASTER_KEY", FILE_MASTER_KEY);
+
+        application = processBuilder.start();
+        awaitFirstRequest();
+    }
+
+    @AfterAll
+    static void afterAll() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            application.waitFor();
+        }
+        postgreSQLContainer.stop();
+    }
+
+    @Test
+    void givenNativeExecutable_registerLoginAndMe_shouldServeUser() throws Exception {
+        HttpResponse<String> registration = post("/auth/register", REGISTRATION_BODY, null);
+        Assertions.assertEquals(201, registration.statusCode(), registration.body());
+
+        HttpResponse<String> login = post("/auth/login", LOGIN_BODY, null);
+        Assertions.assertEquals(200, login.statusCode(), login.body());
+        String accessToken = objectMapper.readTree(login.body()).get("accessToken").asText();
+
+        HttpResponse<String> me = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/users/me"))
+                .header("Authorization", "Bearer " + accessToken)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, me.statusCode(), me.body());
+        Assertions.assertEquals(USER_EMAIL, objectMapper.readTree(me.body()).get("email").asText());
+
+        HttpResponse<String> graphQl = post("/graphql", ME_QUERY, accessToken);
+        JsonNode graphQlBody = objectMapper.readTree(graphQl.body());
+        Assertions.assertEquals(200, graphQl.statusCode(), graphQl.body());
+        Assertions.assertEquals(USER_EMAIL, graphQlBody.at("/data/me/email").asText(), graphQl.body());
+    }
+
+    @Test
+    void givenNoToken_me_shouldBeRejected() throws Exception {
+        HttpResponse<String> me = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/users/me"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertEquals(403, me.statusCode());
+    }
+
+    private static HttpResponse<String> post(String path, String body, String accessToken) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (accessToken != null) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void awaitFirstRequest() throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (System.nanoTime() < deadline) {
+            Assertions.assertTrue(application.isAlive(), "native executable exited during startup");
+            try {
+                HttpResponse<Void> response = httpClient.send(
+                        HttpRequest.newBuilder(URI.create(baseUrl + "/.well-known/jwks.json")).GET().build(),
+                        HttpResponse.BodyHandlers.discarding()
+                );
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException exception) {
+                // not listening yet
+            }
+            Thread.sleep(20);
+        }
+        Assertions.fail("native executable did not serve a request within 30 s");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static class TestResources {
+        static final String USER_EMAIL = "native@gmail.com";
+        static final String JWT_SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+        static final String JWT_EXPIRATION_TIME = "3600000";
+        static final String FILE_MASTER_KEY = "9b1f0c2d4e6a8b0c1d3e5f7a9b2c4d6e8f0a1b3c5d7e9f1a2b4c6d8e0f1a3b5c";
+        static final String REGISTRATION_BODY =
+                "{\"fullName\":\"native user\",\"email\":\"" + USER_EMAIL + "\",\"password\":\"native_password\"}";
+        static final String LOGIN_BODY =
+                "{\"email\":\"" + USER_EMAIL + "\",\"password\":\"native_password\"}";
+        static final String ME_QUERY = "{\"query\":\"{ me { email } }\"}";
+    }
+}
@@ -0,0 +1,58 @@
+package com.liushukov.cloud_file.config;
+
+import com.liushukov.cloud_file.entity.Permission;
+import com.liushukov.cloud_file.entity.Role;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static com.liushukov.cloud_file.config.PermissionCheckerTest.TestResources.*;
+
+public class PermissionCheckerTest {
+    private final PermissionChecker permissionChecker = new PermissionChecker();
+
+    @Test
+    void givenAdminRole_has_shouldGrantEveryPermission() {
+        Authentication authentication = buildAuthentication(Role.ADMIN);
+
+        for (Permission permission : Permission.values()) {
+            Assertions.assertTrue(permissionChecker.has(authentication, permission));
+        }
+    }
+
+    @Test
+    void givenUserRole_has_shouldDenyAdminPermissions() {
+        Authentication authentication = buildAuthentication(Role.USER);
+
+        for (Permission permission : Permission.values()) {
+            Assertions.assertFalse(permissionChecker.has(authentication, permission));
+        }
+    }
+
+    @Test
+    void givenStringAuthorityOrNoAuthentication_has_shouldDeny() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                USER_EMAIL, null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")
+        );
+
+        Assertions.assertFalse(permissionChecker.has(authentication, Permission.USER_READ));
+        Assertions.assertFalse(permissionChecker.has(null, Permission.USER_READ));
+    }
+
+    @Test
+    void givenRole_getAuthorities_shouldReturnSharedRoleAuthority() {
+        Assertions.assertSame(Role.ADMIN.getAuthorities(), Role.ADMIN.getAuthorities());
+        Assertions.assertEquals("ROLE_ADMIN", Role.ADMIN.getAuthorities().iterator().next().getAuthority());
+        Assertions.assertEquals("ROLE_USER", Role.USER.getAuthority());
+    }
+
+    static class TestResources {
+        static final String USER_EMAIL = "test@gmail.com";
+
+        static Authentication buildAuthentication(Role role) {
+            return new UsernamePasswordAuthenticationToken(USER_EMAIL, null, role.getAuthorities());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.liushukov.cloud_file.config;
+
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static com.liushukov.cloud_file.config.ReplicaRoutingDataSourceTest.TestResources.*;
+
+/**
+ * The replica container is not actually replicating; it gets the schema and its own copy of one row,
+ * so the copy a query returns shows which database served it.
+ */
+@SpringBootTest
+@Testcontainers
+public class ReplicaRoutingDataSourceTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Container
+    static PostgreSQLContainer primaryContainer = new PostgreSQLContainer<>("postgres:15");
+    @Container
+    static PostgreSQLContainer replicaContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", primaryContainer::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", primaryContainer::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", primaryContainer::getPassword);
+        dynamicPropertyRegistry.add("app.datasource.replicas[0].url", replicaContainer::getJdbcUrl);
+        dynamicPropertyRegistry.add("app.datasource.replicas[0].username", replicaContainer::getUsername);
+        dynamicPropertyRegistry.add("app.datasource.replicas[0].password", replicaContainer::getPassword);
+        dynamicPropertyRegistry.add("app.datasource.replicas[1].url", () -> UNREACHABLE_REPLICA_URL);
+        dynamicPropertyRegistry.add("app.datasource.replicas[1].connection-timeout", () -> "250");
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        primaryContainer.start();
+        replicaContainer.start();
+
+        DriverManagerDataSource replica = new DriverManagerDataSource(
+                replicaContainer.getJdbcUrl(), replicaContainer.getUsername(), replicaContainer.getPassword()
+        );
+        Flyway.configure().dataSource(replica).locations("classpath:db/migration").load().migrate();
+        new JdbcTemplate(replica).update(INSERT_ROUTED_USER, ROUTED_USER_ID, REPLICA_FULL_NAME, ROUTED_USER_EMAIL);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        replicaContainer.stop();
+        primaryContainer.stop();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate.update(INSERT_ROUTED_USER, ROUTED_USER_ID, PRIMARY_FULL_NAME, ROUTED_USER_EMAIL);
+    }
+
+    @AfterEach
+    void afterEach() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void givenReadOnlyServiceCall_getUserProfileById_shouldReadFromReplica() {
+        UserProfileDto user = userService.getUserProfileById(ROUTED_USER_ID).orElseThrow();
+
+        Assertions.assertEquals(REPLICA_FULL_NAME, user.fullName());
+    }
+
+    @Test
+    void givenEntityLoadForWrite_getUserById_shouldReadFromPrimary() {
+        User user = userService.getUserById(ROUTED_USER_ID).orElseThrow();
+
+        Assertions.assertEquals(PRIMARY_FULL_NAME, user.getFullName());
+    }
+
+    @Test
+    void givenOwnRecentWrite_getUserProfileById_shouldFallBackToPrimary() {
+        authenticate(ROUTED_USER_EMAIL);
+        Assertions.assertEquals(REPLICA_FULL_NAME, userService.getUserProfileById(ROUTED_USER_ID).orElseThrow().fullName());
+
+        userRepository.save(userRepository.findUserById(ROUTED_USER_ID).orElseThrow());
+
+        Assertions.assertEquals(PRIMARY_FULL_NAME, userService.getUserProfileById(ROUTED_USER_ID).orElseThrow().fullName());
+
+        authenticate(OTHER_USER_EMAIL);
+        Assertions.assertEquals(REPLICA_FULL_NAME, userService.getUserProfileById(ROUTED_USER_ID).orElseThrow().fullName());
+    }
+
+    @Test
+    void givenUnreachableReplica_checkReplicaHealth_shouldKeepOnlyReachableReplica() {
+        replicaRoutingDataSource.checkReplicaHealth();
+
+        Assertions.assertEquals(List.of(REACHABLE_REPLICA), replicaRoutingDataSource.getHealthyReplicas());
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, AuthorityUtils.createAuthorityList("ROLE_USER"))
+        );
+    }
+
+    static class TestResources {
+        static final long ROUTED_USER_ID = 1000L;
+        static final String ROUTED_USER_EMAIL = "routing@gmail.com";
+        static final String OTHER_USER_EMAIL = "other_routing@gmail.com";
+        static final String PRIMARY_FULL_NAME = "primary copy";
+        static final String REPLICA_FULL_NAME = "replica copy";
+        static final String REACHABLE_REPLICA = "replica-0";
+        static final String UNREACHABLE_REPLICA_URL = "jdbc:postgresql://localhost:1/missing";
+        static final String INSERT_ROUTED_USER =
+                "INSERT INTO users(id, created_at, updated_at, full_name, email, password, role, enabled) " +
+                "VALUES (?, NOW(), NOW(), ?, ?, 'password', 'USER', TRUE) ON CONFLICT (id) DO NOTHING";
+    }
+}
@@ -1,6 +1,8 @@
 package com.liushukov.cloud_file.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liushukov.cloud_file.dto.UserBatchDeleteDto;
+import com.liushukov.cloud_file.dto.UserBatchUpdateDto;
 import com.liushukov.cloud_file.dto.UserDto;
 import com.liushukov.cloud_file.dto.UserUpdateDto;
 import com.liushukov.cloud_file.entity.Role;
@@ -22,6 +24,7 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
 import java.util.Optional;
 
 import static com.liushukov.cloud_file.controller.AdminControllerTest.TestResources.*;
@@ -121,6 +124,19 @@ public class AdminControllerTest {
         Assertions.assertTrue(userInDb.isEmpty());
     }
 
+    @Test
+    void givenRegularUser_allUsers_shouldReturnForbidden() throws Exception {
+        createUser(USER_EMAIL, buildUserDto(), Role.USER, true);
+        String userJwt = userRepository.findUserByEmail(USER_EMAIL)
+                .map(jwtService::generateToken)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        mockMvc.perform(get(URL_GET_ALL_ASCENDING_USERS)
+                .header("Authorization", "Bearer " + userJwt))
+                .andExpect(status().isForbidden())
+                .andDo(print());
+    }
+
     @Test
     void givenAuthentication_allUsers_shouldReturnUsersAscendingList() throws Exception {
         mockMvc.perform(get(URL_GET_ALL_ASCENDING_USERS)
@@ -139,6 +155,93 @@ public class AdminControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    void givenAuthenticationAndCompactView_allUsers_shouldOmitTimestamps() throws Exception {
+        mockMvc.perform(get(URL_GET_ALL_COMPACT_USERS)
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(ADMIN_ID))
+                .andExpect(jsonPath("$[0].email").exists())
+                .andExpect(jsonPath("$[0].createdAt").doesNotExist())
+                .andExpect(jsonPath("$[0].updatedAt").doesNotExist())
+                .andDo(print());
+    }
+
+    @Test
+    void givenAuthenticationAndSubstring_searchUsers_shouldReturnMatchingUsers() throws Exception {
+        createUser(SEARCH_USER_EMAIL, buildSearchUserDto(), Role.USER, true);
+        createUser(SEARCH_USER_EMAIL_2, buildSearchUserDto2(), Role.USER, true);
+
+        mockMvc.perform(get(URL_SEARCH_USERS + "?query=rosalind&pageSize=10")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(2))
+                .andExpect(jsonPath("$.users[0].fullName").value(SEARCH_USER_FULL_NAME))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(jsonPath("$.nextAfterId").doesNotExist())
+                .andDo(print());
+    }
+
+    @Test
+    void givenAuthenticationAndPrefix_searchUsers_shouldMatchOnlyPrefix() throws Exception {
+        createUser(SEARCH_USER_EMAIL, buildSearchUserDto(), Role.USER, true);
+        createUser(SEARCH_USER_EMAIL_2, buildSearchUserDto2(), Role.USER, true);
+
+        mockMvc.perform(get(URL_SEARCH_USERS + "?query=rosalind.f&mode=prefix")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].email").value(SEARCH_USER_EMAIL))
+                .andDo(print());
+    }
+
+    @Test
+    void givenAuthenticationAndMisspelledQuery_searchUsers_shouldMatchFuzzy() throws Exception {
+        createUser(SEARCH_USER_EMAIL, buildSearchUserDto(), Role.USER, true);
+
+        mockMvc.perform(get(URL_SEARCH_USERS + "?query=Rosalnd Franklyn&mode=fuzzy")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].email").value(SEARCH_USER_EMAIL))
+                .andDo(print());
+    }
+
+    @Test
+    void givenAuthenticationAndPageSize_searchUsers_shouldPageByKeyset() throws Exception {
+        createUser(SEARCH_USER_EMAIL, buildSearchUserDto(), Role.USER, true);
+        createUser(SEARCH_USER_EMAIL_2, buildSearchUserDto2(), Role.USER, true);
+        long firstId = userRepository.findUserByEmail(SEARCH_USER_EMAIL)
+                .map(User::getId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        long secondId = userRepository.findUserByEmail(SEARCH_USER_EMAIL_2)
+                .map(User::getId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        long lowerId = Math.min(firstId, secondId);
+
+        mockMvc.perform(get(URL_SEARCH_USERS + "?query=rosalind&pageSize=1")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].id").value(lowerId))
+                .andExpect(jsonPath("$.nextAfterId").value(lowerId))
+                .andDo(print());
+
+        mockMvc.perform(get(URL_SEARCH_USERS + "?query=rosalind&pageSize=1&afterId=" + lowerId)
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].id").value(Math.max(firstId, secondId)))
+                .andDo(print());
+    }
+
+    @Test
+    void givenAuthenticationAndShortQuery_searchUsers_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(URL_SEARCH_USERS + "?query=ro")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
     @Test
     void givenAuthenticationAndUserDto_createUserForAdmin_shouldCreateUserAndReturnUserDto() throws Exception {
         deleteUser(USER_CREATED_BY_ADMIN_EMAIL);
@@ -251,6 +354,55 @@ public class AdminControllerTest {
         Assertions.assertTrue(userRepository.findUserById(USER_INVALID_ID).isEmpty());
     }
 
+    @Test
+    void givenAuthenticationAndUpdates_updateUsersForAdmin_shouldUpdateUsersAndReportConflicts() throws Exception {
+        deleteUser(USER_CREATED_BY_ADMIN_EMAIL);
+        deleteUser(USER_EMAIL);
+        createUser(USER_CREATED_BY_ADMIN_EMAIL, buildUserDtoCreatedByAdmin(), Role.USER, true);
+        createUser(USER_EMAIL, buildUserDto(), Role.USER, true);
+        long userId = userRepository.findUserByEmail(USER_CREATED_BY_ADMIN_EMAIL).orElseThrow().getId();
+        long conflictingUserId = userRepository.findUserByEmail(USER_EMAIL).orElseThrow().getId();
+
+        mockMvc.perform(patch(URL_BATCH_UPDATE_USERS_BY_ADMIN)
+                .header("Authorization", "Bearer " + jwt)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new UserBatchUpdateDto(List.of(
+                        new UserBatchUpdateDto.Item(userId, new UserUpdateDto(USER_BATCH_FULL_NAME, null, null)),
+                        new UserBatchUpdateDto.Item(conflictingUserId,
+                                new UserUpdateDto(null, USER_CREATED_BY_ADMIN_EMAIL, null)),
+                        new UserBatchUpdateDto.Item(USER_INVALID_ID, new UserUpdateDto(USER_BATCH_FULL_NAME, null, null))
+                )))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[1].status").value(409))
+                .andExpect(jsonPath("$[2].status").value(404))
+                .andDo(print());
+
+        Assertions.assertEquals(USER_BATCH_FULL_NAME, userRepository.findUserById(userId).orElseThrow().getFullName());
+        Assertions.assertEquals(USER_EMAIL, userRepository.findUserById(conflictingUserId).orElseThrow().getEmail());
+    }
+
+    @Test
+    void givenAuthenticationAndUserIds_deleteUsersForAdmin_shouldDisableUsersAndReportStatusPerUser() throws Exception {
+        deleteUser(USER_CREATED_BY_ADMIN_EMAIL);
+        createUser(USER_CREATED_BY_ADMIN_EMAIL, buildUserDtoCreatedByAdmin(), Role.USER, true);
+        long userId = userRepository.findUserByEmail(USER_CREATED_BY_ADMIN_EMAIL).orElseThrow().getId();
+
+        mockMvc.perform(post(URL_BATCH_DELETE_USERS_BY_ADMIN)
+                .header("Authorization", "Bearer " + jwt)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new UserBatchDeleteDto(List.of(userId, userId, USER_INVALID_ID))
+                )))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(204))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[2].status").value(404))
+                .andDo(print());
+
+        Assertions.assertFalse(userRepository.findUserById(userId).orElseThrow().getEnabled());
+    }
+
     static class TestResources {
         static final Long ADMIN_ID = 1L;
         static final Long USER_INVALID_ID = 999L;
@@ -266,9 +418,19 @@ public class AdminControllerTest {
                 "/admin/users/all?sortBy=id&orderBy=asc&pageNumber=0&pageSize=1";
         static final String URL_GET_ALL_DESCENDING_USERS =
                 "/admin/users/all?sortBy=id&orderBy=desc&pageNumber=0&pageSize=1";
+        static final String URL_GET_ALL_COMPACT_USERS =
+                "/admin/users/all?sortBy=id&orderBy=asc&pageNumber=0&pageSize=1&view=compact";
         static final String URL_CREATE_USER_BY_ADMIN = "/admin/users/create";
+        static final String URL_SEARCH_USERS = "/admin/users/search";
+        static final String SEARCH_USER_FULL_NAME = "Rosalind Franklin";
+        static final String SEARCH_USER_EMAIL = "rosalind.franklin@gmail.com";
+        static final String SEARCH_USER_FULL_NAME_2 = "Rosalind Elsie";
+        static final String SEARCH_USER_EMAIL_2 = "elsie.rosalind@gmail.com";
         static final String URL_UPDATE_USER_BY_ADMIN = "/admin/users/update/";
         static final String URL_DELETE_USER_BY_ADMIN = "/admin/users/delete/";
+        static final String URL_BATCH_UPDATE_USERS_BY_ADMIN = "/admin/users/batch/update";
+        static final String URL_BATCH_DELETE_USERS_BY_ADMIN = "/admin/users/batch/delete";
+        static final String USER_BATCH_FULL_NAME = "test_full_name_updated_in_batch";
 
         static UserDto buildUserDto() {
             return new UserDto(
@@ -286,6 +448,22 @@ public class AdminControllerTest {
             );
         }
 
+        static UserDto buildSearchUserDto() {
+            return new UserDto(
+                    SEARCH_USER_FULL_NAME,
+                    SEARCH_USER_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+
+        static UserDto buildSearchUserDto2() {
+            return new UserDto(
+                    SEARCH_USER_FULL_NAME_2,
+                    SEARCH_USER_EMAIL_2,
+                    USER_PASSWORD
+            );
+        }
+
         static UserUpdateDto buildUserUpdateDto() {
             return new UserUpdateDto(
                     null,
@@ -1,6 +1,8 @@
 package com.liushukov.cloud_file.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liushukov.cloud_file.dto.RefreshTokenDto;
+import com.liushukov.cloud_file.dto.TokenDto;
 import com.liushukov.cloud_file.dto.UserDto;
 import com.liushukov.cloud_file.dto.UserLoginDto;
 import com.liushukov.cloud_file.entity.Role;
@@ -16,9 +18,17 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -90,6 +100,38 @@ public class AuthenticationControllerTest {
         Assertions.assertEquals(1, userRepository.findAll().size()); // due to inserted user at the beginning of the method
     }
 
+    @Test
+    void givenConcurrentDuplicateRegistrations_registration_shouldCreateExactlyOneUser() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REGISTRATIONS);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REGISTRATIONS; i++) {
+                // alternate the case so the conflict has to come from the lower(email) index
+                UserDto userDto = i % 2 == 0 ? buildUserDto() : buildUpperCaseUserDto();
+                statuses.add(executor.submit(() -> mockMvc.perform(post(URL_REGISTER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                        .andReturn().getResponse().getStatus()));
+            }
+
+            int created = 0;
+            int conflicts = 0;
+            for (Future<Integer> status : statuses) {
+                int code = status.get();
+                if (code == 201) {
+                    created++;
+                } else if (code == 409) {
+                    conflicts++;
+                }
+            }
+            Assertions.assertEquals(1, created);
+            Assertions.assertEquals(CONCURRENT_REGISTRATIONS - 1, conflicts);
+            Assertions.assertEquals(1, userRepository.findAll().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void givenUserLoginDto_login_shouldAuthenticateUserAndReturnJwt() throws Exception {
         User user = userMapper.toEntity(buildUserDto(), Role.USER, true, new BCryptPasswordEncoder());
@@ -98,9 +140,58 @@ public class AuthenticationControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(buildUserLoginDto())))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty())
                 .andDo(print());
     }
 
+    @Test
+    void givenRefreshToken_refresh_shouldRotateTokens() throws Exception {
+        User user = userMapper.toEntity(buildUserDto(), Role.USER, true, new BCryptPasswordEncoder());
+        userRepository.save(user);
+        TokenDto loginTokens = login();
+
+        MvcResult result = mockMvc.perform(post(URL_REFRESH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenDto(loginTokens.refreshToken()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty())
+                .andDo(print())
+                .andReturn();
+
+        TokenDto refreshedTokens = objectMapper.readValue(result.getResponse().getContentAsString(), TokenDto.class);
+        Assertions.assertNotEquals(loginTokens.refreshToken(), refreshedTokens.refreshToken());
+    }
+
+    @Test
+    void givenUsedRefreshToken_refresh_shouldReturnUnauthorized() throws Exception {
+        User user = userMapper.toEntity(buildUserDto(), Role.USER, true, new BCryptPasswordEncoder());
+        userRepository.save(user);
+        TokenDto loginTokens = login();
+        String body = objectMapper.writeValueAsString(new RefreshTokenDto(loginTokens.refreshToken()));
+
+        mockMvc.perform(post(URL_REFRESH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post(URL_REFRESH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isUnauthorized())
+                .andDo(print());
+    }
+
+    private TokenDto login() throws Exception {
+        MvcResult result = mockMvc.perform(post(URL_LOGIN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(buildUserLoginDto())))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), TokenDto.class);
+    }
+
     @Test
     void givenDisabledUser_login_shouldReturnForbidden() throws Exception {
         User user = userMapper.toEntity(buildUserDto(), Role.USER, false, new BCryptPasswordEncoder());
@@ -118,6 +209,8 @@ public class AuthenticationControllerTest {
         static final String USER_PASSWORD = "test_password";
         static final String URL_REGISTER = "/auth/register";
         static final String URL_LOGIN = "/auth/login";
+        static final String URL_REFRESH = "/auth/refresh";
+        static final int CONCURRENT_REGISTRATIONS = 8;
 
         static UserDto buildUserDto() {
             return new UserDto(
@@ -127,6 +220,14 @@ public class AuthenticationControllerTest {
             );
         }
 
+        static UserDto buildUpperCaseUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_EMAIL.toUpperCase(),
+                    USER_PASSWORD
+            );
+        }
+
         static UserLoginDto buildUserLoginDto() {
             return new UserLoginDto(
                     USER_EMAIL,
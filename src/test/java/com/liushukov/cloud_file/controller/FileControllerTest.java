@@ -0,0 +1,278 @@
+package com.liushukov.cloud_file.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.mapper.UserMapper;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.DeltaSyncService;
+import com.liushukov.cloud_file.service.JwtService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static com.liushukov.cloud_file.controller.FileControllerTest.TestResources.*;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+public class FileControllerTest {
+    private static final Path ROOT_DIR = createRootDir();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private String jwt;
+    private long userId;
+
+    @Container
+    static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        dynamicPropertyRegistry.add("app.files.root-dir", ROOT_DIR::toString);
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgreSQLContainer.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgreSQLContainer.stop();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        if (userRepository.findUserByEmail(USER_EMAIL).isEmpty()) {
+            userRepository.save(userMapper.toEntity(buildUserDto(), Role.USER, true, new BCryptPasswordEncoder()));
+        }
+        User user = userRepository.findUserByEmail(USER_EMAIL).orElseThrow();
+        jwt = jwtService.generateToken(user);
+        userId = user.getId();
+    }
+
+    private static Path createRootDir() {
+        try {
+            return Files.createTempDirectory("cloud-file-test");
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private String upload() throws Exception {
+        return upload(FILE_NAME);
+    }
+
+    private String upload(String fileName) throws Exception {
+        String body = mockMvc.perform(multipart(URL_UPLOAD)
+                        .file(new MockMultipartFile("file", fileName, "application/octet-stream", FILE_CONTENT))
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size").value(FILE_CONTENT.length))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("fileId").asText();
+    }
+
+    private String presign(String fileId) throws Exception {
+        String body = mockMvc.perform(post(URL_FILES + fileId + "/presign")
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode presignedUrl = objectMapper.readTree(body);
+        Assertions.assertTrue(presignedUrl.hasNonNull("expiresAt"));
+        return presignedUrl.get("url").asText();
+    }
+
+    @Test
+    void givenUploadedFile_download_shouldReturnContentToOwner() throws Exception {
+        String fileId = upload();
+
+        mockMvc.perform(get(URL_FILES + fileId)
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andExpect(header().string("Content-Disposition", "inline"))
+                .andExpect(content().bytes(FILE_CONTENT))
+                .andDo(print());
+    }
+
+    @Test
+    void givenUploadedHtml_download_shouldServeAttachment() throws Exception {
+        String fileId = upload(HTML_FILE_NAME);
+
+        mockMvc.perform(get(URL_FILES + fileId)
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/octet-stream"))
+                .andExpect(header().string("Content-Disposition", startsWith("attachment")))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string("Content-Security-Policy", "sandbox"))
+                .andDo(print());
+    }
+
+    @Test
+    void givenUploadedFile_upload_shouldStoreContentEncrypted() throws Exception {
+        String fileId = upload();
+
+        byte[] stored = Files.readAllBytes(ROOT_DIR.resolve(Long.toString(userId)).resolve(fileId));
+        Assertions.assertFalse(new String(stored, StandardCharsets.ISO_8859_1)
+                .contains(new String(FILE_CONTENT, StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void givenRangeHeader_download_shouldReturnPartialContent() throws Exception {
+        String fileId = upload();
+
+        mockMvc.perform(get(URL_FILES + fileId)
+                        .header("Authorization", "Bearer " + jwt)
+                        .header("Range", "bytes=" + RANGE_START + "-" + RANGE_END))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(Arrays.copyOfRange(FILE_CONTENT, RANGE_START, RANGE_END + 1)))
+                .andDo(print());
+    }
+
+    @Test
+    void givenDelta_applyDelta_shouldStoreNewVersion() throws Exception {
+        String fileId = upload();
+        mockMvc.perform(get(URL_FILES + fileId + "/signatures")
+                        .param("blockSize", Integer.toString(BLOCK_SIZE))
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length").value(FILE_CONTENT.length))
+                .andExpect(jsonPath("$.blocks.length()").value(1));
+
+        String body = mockMvc.perform(post(URL_FILES + fileId + "/delta")
+                        .param("blockSize", Integer.toString(BLOCK_SIZE))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(buildDelta(0))
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String newFileId = objectMapper.readTree(body).get("fileId").asText();
+
+        byte[] expected = Arrays.copyOf(FILE_CONTENT, FILE_CONTENT.length + DELTA_SUFFIX.length);
+        System.arraycopy(DELTA_SUFFIX, 0, expected, FILE_CONTENT.length, DELTA_SUFFIX.length);
+        mockMvc.perform(get(URL_FILES + newFileId)
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(expected));
+        mockMvc.perform(get(URL_FILES + fileId)
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void givenDeltaOutsideOfFile_applyDelta_shouldReturnBadRequest() throws Exception {
+        String fileId = upload();
+
+        mockMvc.perform(post(URL_FILES + fileId + "/delta")
+                        .param("blockSize", Integer.toString(BLOCK_SIZE))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(buildDelta(1))
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    @Test
+    void givenPresignedUrl_presignedDownload_shouldReturnContentWithoutToken() throws Exception {
+        String url = presign(upload());
+
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(FILE_CONTENT))
+                .andExpect(header().string("Cache-Control", startsWith("max-age=")))
+                .andDo(print());
+    }
+
+    @Test
+    void givenTamperedPresignedUrl_presignedDownload_shouldReturnForbidden() throws Exception {
+        String url = presign(upload());
+
+        mockMvc.perform(get(url.replace("signature=", "signature=A")))
+                .andExpect(status().isForbidden())
+                .andDo(print());
+    }
+
+    @Test
+    void givenUnknownFileId_presign_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(post(URL_FILES + UNKNOWN_FILE_ID + "/presign")
+                        .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    static class TestResources {
+        static final String URL_FILES = "/files/";
+        static final String URL_UPLOAD = "/files/upload";
+        static final String USER_FULL_NAME = "test_files_full_name";
+        static final String USER_EMAIL = "test_files@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+        static final String FILE_NAME = "avatar.PNG";
+        static final String HTML_FILE_NAME = "page.html";
+        static final byte[] FILE_CONTENT = "not really a png".getBytes(StandardCharsets.UTF_8);
+        static final int RANGE_START = 4;
+        static final int RANGE_END = 9;
+        static final int BLOCK_SIZE = 512;
+        static final byte[] DELTA_SUFFIX = " with an edit".getBytes(StandardCharsets.UTF_8);
+        static final String UNKNOWN_FILE_ID = "0f8fad5b-d9cb-469f-a165-70867728950e.png";
+
+        static byte[] buildDelta(int firstBlock) throws IOException {
+            ByteArrayOutputStream delta = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(delta)) {
+                output.writeByte(DeltaSyncService.COPY);
+                output.writeInt(firstBlock);
+                output.writeInt(1);
+                output.writeByte(DeltaSyncService.DATA);
+                output.writeInt(DELTA_SUFFIX.length);
+                output.write(DELTA_SUFFIX);
+            }
+            return delta.toByteArray();
+        }
+
+        static UserDto buildUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+    }
+}
@@ -104,7 +104,11 @@ public class UserControllerTest {
                         .header("Authorization",
                                 "Bearer " + JWT_INVALID_SIGNATURE))
                 .andExpect(status().isForbidden())
-                .andDo(print());
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.timestamp").isNotEmpty())
+                .andExpect(jsonPath("$.message").value("The JWT signature is invalid"))
+                .andExpect(jsonPath("$.description").value("uri=" + URL_ME));
     }
 
     @Test
@@ -130,6 +134,37 @@ public class UserControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    void givenDeletedUser_me_shouldRejectPreviouslyIssuedJwt() throws Exception {
+        jwt = jwtService.generateToken(user);
+        mockMvc.perform(delete(URL_DELETE)
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get(URL_ME)
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isForbidden())
+                .andDo(print());
+    }
+
+    @Test
+    void givenAuthentication_logout_shouldRevokeJwt() throws Exception {
+        jwt = jwtService.generateToken(user);
+        String otherJwt = jwtService.generateToken(user);
+        mockMvc.perform(post(URL_LOGOUT)
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isNoContent())
+                .andDo(print());
+
+        mockMvc.perform(get(URL_ME)
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("The JWT has been revoked"));
+        mockMvc.perform(get(URL_ME)
+                .header("Authorization", "Bearer " + otherJwt))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void givenAuthenticationAndDisabledStatus_deleteUser_shouldValidateAndReturnBadRequest() throws Exception {
         user.setEnabled(false);
@@ -153,6 +188,7 @@ public class UserControllerTest {
         static final String URL_ME = "/users/me";
         static final String URL_UPDATE = "/users/update";
         static final String URL_DELETE = "/users/delete";
+        static final String URL_LOGOUT = "/users/logout";
 
         static UserDto buildUserDto() {
             return new UserDto(
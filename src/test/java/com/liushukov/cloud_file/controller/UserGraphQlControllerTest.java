@@ -0,0 +1,182 @@
+package com.liushukov.cloud_file.controller;
+
+import com.liushukov.cloud_file.config.PermissionChecker;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.entity.Permission;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.mapper.UserMapper;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.JwtService;
+import com.liushukov.cloud_file.service.RefreshTokenService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Optional;
+
+import static com.liushukov.cloud_file.controller.UserGraphQlControllerTest.TestResources.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest(properties = "app.graphql.max-query-complexity=20")
+@AutoConfigureMockMvc
+@AutoConfigureHttpGraphQlTester
+@Testcontainers
+public class UserGraphQlControllerTest {
+    @Autowired
+    private HttpGraphQlTester graphQlTester;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    // real checks unless a test grants a permission to a role that does not have it
+    @MockitoSpyBean
+    private PermissionChecker permissionChecker;
+    HttpGraphQlTester adminTester;
+    HttpGraphQlTester userTester;
+
+    @Container
+    static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgreSQLContainer.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgreSQLContainer.stop();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        if (userRepository.findUserByEmail(USER_EMAIL).isEmpty()) {
+            userRepository.save(userMapper.toEntity(buildUserDto(), Role.USER, true, new BCryptPasswordEncoder()));
+        }
+        Optional<User> adminUser = userRepository.findUserById(ADMIN_ID);
+        adminUser.ifPresent(value -> adminTester = authorized(jwtService.generateToken(value)));
+        userTester = authorized(jwtService.generateToken(findUser()));
+    }
+
+    private HttpGraphQlTester authorized(String jwt) {
+        return graphQlTester.mutate().header("Authorization", "Bearer " + jwt).build();
+    }
+
+    private User findUser() {
+        return userRepository.findUserByEmail(USER_EMAIL)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+
+    @Test
+    void givenAuthentication_me_shouldReturnCurrentUser() {
+        userTester.document("{ me { email fullName role } }")
+                .execute()
+                .path("me.email").entity(String.class).isEqualTo(USER_EMAIL)
+                .path("me.role").entity(String.class).isEqualTo("USER");
+    }
+
+    @Test
+    void givenAdminAndAliasedLookups_user_shouldResolveEveryUser() {
+        long userId = findUser().getId();
+        refreshTokenService.createRefreshToken(findUser());
+
+        adminTester.document("{ admin: user(id: " + ADMIN_ID + ") { email } " +
+                        "other: user(id: " + userId + ") { email activeSessions } " +
+                        "missing: user(id: " + USER_INVALID_ID + ") { email } }")
+                .execute()
+                .path("admin.email").entity(String.class).isEqualTo(ADMIN_EMAIL)
+                .path("other.email").entity(String.class).isEqualTo(USER_EMAIL)
+                .path("other.activeSessions").entity(Integer.class).satisfies(
+                        sessions -> Assertions.assertTrue(sessions >= 1))
+                .path("missing").valueIsNull();
+    }
+
+    @Test
+    void givenAdmin_users_shouldReturnPageWithBatchedSessions() {
+        adminTester.document("{ users(pageSize: 2) { id email activeSessions } }")
+                .execute()
+                .path("users[0].id").entity(String.class).isEqualTo(String.valueOf(ADMIN_ID))
+                .path("users[0].activeSessions").entity(Integer.class).isEqualTo(0);
+    }
+
+    @Test
+    void givenRegularUser_users_shouldReturnForbidden() {
+        userTester.document("{ users { id } }")
+                .execute()
+                .errors()
+                .expect(error -> error.getErrorType() == ErrorType.FORBIDDEN);
+    }
+
+    @Test
+    void givenRegularUserGrantedUserRead_users_shouldReturnPage() {
+        doReturn(true).when(permissionChecker).has(any(), eq(Permission.USER_READ));
+
+        userTester.document("{ users(pageSize: 2) { id } }")
+                .execute()
+                .path("users[0].id").entity(String.class).isEqualTo(String.valueOf(ADMIN_ID));
+    }
+
+    @Test
+    void givenAdminAndInvalidId_deleteUser_shouldReturnNotFound() {
+        adminTester.document("mutation { deleteUser(id: " + USER_INVALID_ID + ") }")
+                .execute()
+                .errors()
+                .expect(error -> error.getErrorType() == ErrorType.NOT_FOUND);
+    }
+
+    @Test
+    void givenTooComplexDocument_me_shouldBeRejected() {
+        StringBuilder document = new StringBuilder("{");
+        for (int i = 0; i < 25; i++) {
+            document.append(" m").append(i).append(": me { email }");
+        }
+        document.append(" }");
+
+        userTester.document(document.toString())
+                .execute()
+                .errors()
+                .satisfy(errors -> Assertions.assertFalse(errors.isEmpty()));
+    }
+
+    static class TestResources {
+        static final Long ADMIN_ID = 1L;
+        static final String ADMIN_EMAIL = "admin@example.com";
+        static final Long USER_INVALID_ID = 999L;
+        static final String USER_FULL_NAME = "test_graphql_full_name";
+        static final String USER_EMAIL = "test_graphql@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+
+        static UserDto buildUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.liushukov.cloud_file.entity;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.liushukov.cloud_file.entity.UserTest.TestResources.*;
+
+public class UserTest {
+    @Test
+    void givenTransientUsersWithSameFields_equals_shouldOnlyMatchItself() {
+        User user = buildUserEntity();
+
+        Assertions.assertEquals(user, user);
+        Assertions.assertNotEquals(user, buildUserEntity());
+    }
+
+    @Test
+    void givenPersistedUsersWithSameId_equals_shouldIgnoreOtherFields() {
+        User user = withId(buildUserEntity(), USER_ID);
+        User updatedUser = withId(buildUserEntity().setFullName(USER_UPDATED_FULL_NAME), USER_ID);
+
+        Assertions.assertEquals(user, updatedUser);
+        Assertions.assertEquals(user.hashCode(), updatedUser.hashCode());
+        Assertions.assertNotEquals(user, withId(buildUserEntity(), USER_ID + 1));
+    }
+
+    @Test
+    void givenTransientUserInSet_persist_shouldKeepUserReachable() {
+        User user = buildUserEntity();
+        Set<User> users = new HashSet<>();
+        users.add(user);
+
+        withId(user, USER_ID);
+
+        Assertions.assertTrue(users.contains(user));
+    }
+
+    static class TestResources {
+        static final Long USER_ID = 1L;
+        static final String USER_FULL_NAME = "test_full_name";
+        static final String USER_UPDATED_FULL_NAME = "test_updated_full_name";
+        static final String USER_EMAIL = "test@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+
+        static User buildUserEntity() {
+            return new User()
+                    .setFullName(USER_FULL_NAME)
+                    .setEmail(USER_EMAIL)
+                    .setRole(Role.USER)
+                    .setEnabled(true)
+                    .setPassword(USER_PASSWORD);
+        }
+
+        static User withId(User user, Long id) {
+            ReflectionTestUtils.setField(user, "id", id);
+            return user;
+        }
+    }
+}
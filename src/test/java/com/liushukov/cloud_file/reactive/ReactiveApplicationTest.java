@@ -0,0 +1,246 @@
+package com.liushukov.cloud_file.reactive;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.RefreshTokenDto;
+import com.liushukov.cloud_file.dto.TokenDto;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserLoginDto;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.reactive.config.ReactiveConfiguration;
+import com.liushukov.cloud_file.service.JwtService;
+import org.flywaydb.core.Flyway;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static com.liushukov.cloud_file.reactive.ReactiveApplicationTest.TestResources.*;
+
+/**
+ * The reactive variant runs against a database migrated the way the servlet application would
+ * migrate it, and has to answer like the controllers do.
+ */
+@SpringBootTest(
+        classes = ReactiveConfiguration.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive"
+)
+@ActiveProfiles("reactive")
+@Testcontainers
+public class ReactiveApplicationTest {
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Container
+    static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgreSQLContainer.getHost()
+                + ":" + postgreSQLContainer.getFirstMappedPort() + "/" + postgreSQLContainer.getDatabaseName());
+        dynamicPropertyRegistry.add("spring.r2dbc.username", postgreSQLContainer::getUsername);
+        dynamicPropertyRegistry.add("spring.r2dbc.password", postgreSQLContainer::getPassword);
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgreSQLContainer.start();
+        Flyway.configure()
+                .dataSource(postgreSQLContainer.getJdbcUrl(), postgreSQLContainer.getUsername(),
+                        postgreSQLContainer.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgreSQLContainer.stop();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        databaseClient.sql("DELETE FROM users WHERE id <> :adminId")
+                .bind("adminId", ADMIN_ID)
+                .then()
+                .block();
+    }
+
+    private TokenDto registerAndLogin() {
+        webTestClient.post().uri(URL_REGISTER)
+                .bodyValue(buildUserDto())
+                .exchange()
+                .expectStatus().isCreated();
+        return webTestClient.post().uri(URL_LOGIN)
+                .bodyValue(buildUserLoginDto())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TokenDto.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Test
+    void givenRegisteredEmail_registration_shouldReturnConflict() {
+        webTestClient.post().uri(URL_REGISTER)
+                .bodyValue(buildUserDto())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo(USER_EMAIL)
+                .jsonPath("$.password").doesNotExist();
+
+        webTestClient.post().uri(URL_REGISTER)
+                .bodyValue(buildUpperCaseUserDto())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void givenAccessToken_me_shouldReturnProfile() {
+        TokenDto tokens = registerAndLogin();
+
+        webTestClient.get().uri(URL_ME)
+                .headers(headers -> headers.setBearerAuth(tokens.accessToken()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo(USER_EMAIL)
+                .jsonPath("$.fullName").isEqualTo(USER_FULL_NAME);
+    }
+
+    @Test
+    void givenWrongPassword_login_shouldReturnUnauthorized() {
+        registerAndLogin();
+
+        webTestClient.post().uri(URL_LOGIN)
+                .bodyValue(new UserLoginDto(USER_EMAIL, USER_WRONG_PASSWORD))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.description").isEqualTo("uri=" + URL_LOGIN);
+    }
+
+    @Test
+    void givenUsedRefreshToken_refresh_shouldRejectReuse() {
+        TokenDto tokens = registerAndLogin();
+
+        webTestClient.post().uri(URL_REFRESH)
+                .bodyValue(new RefreshTokenDto(tokens.refreshToken()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.refreshToken").value(Matchers.notEqualTo(tokens.refreshToken()));
+
+        webTestClient.post().uri(URL_REFRESH)
+                .bodyValue(new RefreshTokenDto(tokens.refreshToken()))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void givenLoggedOutToken_me_shouldReturnForbidden() {
+        TokenDto tokens = registerAndLogin();
+
+        webTestClient.post().uri(URL_LOGOUT)
+                .headers(headers -> headers.setBearerAuth(tokens.accessToken()))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.get().uri(URL_ME)
+                .headers(headers -> headers.setBearerAuth(tokens.accessToken()))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void givenDeletedUser_me_shouldReturnForbidden() {
+        TokenDto tokens = registerAndLogin();
+
+        webTestClient.delete().uri(URL_DELETE)
+                .headers(headers -> headers.setBearerAuth(tokens.accessToken()))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.get().uri(URL_ME)
+                .headers(headers -> headers.setBearerAuth(tokens.accessToken()))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void givenUserToken_allUsers_shouldReturnForbidden() {
+        TokenDto tokens = registerAndLogin();
+
+        webTestClient.get().uri(URL_GET_ALL_USERS)
+                .headers(headers -> headers.setBearerAuth(tokens.accessToken()))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void givenAdminTokenAndCompactView_allUsers_shouldOmitTimestamps() {
+        registerAndLogin();
+        String adminToken = jwtService.generateToken(new AuthenticatedUser(ADMIN_ID, ADMIN_EMAIL, "", Role.ADMIN, true));
+
+        webTestClient.get().uri(URL_GET_ALL_COMPACT_USERS)
+                .headers(headers -> headers.setBearerAuth(adminToken))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].email").isEqualTo(USER_EMAIL)
+                .jsonPath("$[1].createdAt").doesNotExist();
+    }
+
+    static class TestResources {
+        static final String URL_REGISTER = "/auth/register";
+        static final String URL_LOGIN = "/auth/login";
+        static final String URL_REFRESH = "/auth/refresh";
+        static final String URL_ME = "/users/me";
+        static final String URL_DELETE = "/users/delete";
+        static final String URL_LOGOUT = "/users/logout";
+        static final String URL_GET_ALL_USERS = "/admin/users/all";
+        static final String URL_GET_ALL_COMPACT_USERS = "/admin/users/all?view=compact";
+        static final long ADMIN_ID = 1L;
+        static final String ADMIN_EMAIL = "admin@example.com";
+        static final String USER_FULL_NAME = "test_reactive_full_name";
+        static final String USER_EMAIL = "test_reactive@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+        static final String USER_WRONG_PASSWORD = "wrong_password";
+
+        static UserDto buildUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+
+        static UserDto buildUpperCaseUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_EMAIL.toUpperCase(),
+                    USER_PASSWORD
+            );
+        }
+
+        static UserLoginDto buildUserLoginDto() {
+            return new UserLoginDto(
+                    USER_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.liushukov.cloud_file.repository;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.mapper.UserMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.liushukov.cloud_file.repository.UserRepositoryTest.TestResources.*;
+
+@SpringBootTest
+@Testcontainers
+public class UserRepositoryTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Container
+    static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgreSQLContainer.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgreSQLContainer.stop();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        if (userRepository.findUserByEmail(USER_EMAIL).isEmpty()) {
+            userRepository.save(userMapper.toEntity(buildMixedCaseUserDto(), Role.USER, true, new BCryptPasswordEncoder()));
+        }
+    }
+
+    @Test
+    void givenMixedCaseEmail_save_shouldStoreCanonicalEmail() {
+        String storedEmail = jdbcTemplate.queryForObject(
+                "SELECT email FROM users WHERE lower(email) = ?", String.class, USER_EMAIL);
+
+        Assertions.assertEquals(USER_EMAIL, storedEmail);
+    }
+
+    @Test
+    void givenMixedCaseEmail_findUserByEmail_shouldReturnUser() {
+        Optional<User> user = userRepository.findUserByEmail(USER_MIXED_CASE_EMAIL);
+
+        Assertions.assertTrue(user.isPresent());
+        Assertions.assertEquals(USER_EMAIL, user.get().getEmail());
+        Assertions.assertTrue(userRepository.findActiveUserProfileByEmail(USER_MIXED_CASE_EMAIL).isPresent());
+    }
+
+    @Test
+    void givenMixedCaseEmail_findPrincipalByEmail_shouldReturnPrincipalEqualToEntity() {
+        User user = userRepository.findUserByEmail(USER_EMAIL).orElseThrow();
+        Optional<AuthenticatedUser> principal = userRepository.findPrincipalByEmail(USER_MIXED_CASE_EMAIL);
+
+        Assertions.assertTrue(principal.isPresent());
+        Assertions.assertEquals(user.getId(), principal.get().id());
+        Assertions.assertEquals(USER_EMAIL, principal.get().getUsername());
+        Assertions.assertSame(Role.USER.getAuthorities(), principal.get().getAuthorities());
+        Assertions.assertTrue(principal.get().isEnabled());
+        Assertions.assertEquals(user, userRepository.findUserById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void givenDifferentlyCasedDuplicate_insert_shouldViolateUniqueIndex() {
+        Assertions.assertThrows(Exception.class, () -> jdbcTemplate.update(
+                "INSERT INTO users(created_at, updated_at, full_name, email, password, role, enabled) " +
+                "VALUES (NOW(), NOW(), 'duplicate', ?, 'password', 'USER', TRUE)", USER_MIXED_CASE_EMAIL));
+    }
+
+    @Test
+    @Transactional
+    void givenEmailLookup_explain_shouldUseLowerEmailIndex() {
+        // the table is tiny in tests, so take sequential scans off the table to see which index the planner can use
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM users WHERE lower(email) = lower('" + USER_MIXED_CASE_EMAIL + "')",
+                String.class);
+
+        Assertions.assertTrue(plan.stream().anyMatch(line -> line.contains(EMAIL_INDEX)), String.join("\n", plan));
+        Assertions.assertTrue(plan.stream().noneMatch(line -> line.contains("Seq Scan")), String.join("\n", plan));
+    }
+
+    static class TestResources {
+        static final String USER_FULL_NAME = "test_repository_full_name";
+        static final String USER_EMAIL = "test_repository@gmail.com";
+        static final String USER_MIXED_CASE_EMAIL = "Test_Repository@Gmail.COM";
+        static final String USER_PASSWORD = "test_password";
+        static final String EMAIL_INDEX = "users_email_lower_idx";
+
+        static UserDto buildMixedCaseUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_MIXED_CASE_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+    }
+}
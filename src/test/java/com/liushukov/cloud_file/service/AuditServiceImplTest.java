@@ -0,0 +1,125 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.AuditEvent;
+import com.liushukov.cloud_file.entity.AuditAction;
+import com.liushukov.cloud_file.repository.AuditEventRepository;
+import com.liushukov.cloud_file.service.impl.AuditServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.liushukov.cloud_file.service.AuditServiceImplTest.TestResources.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditServiceImplTest {
+    @Mock
+    private AuditEventRepository auditEventRepository;
+    private AuditServiceImpl auditService;
+
+    @BeforeEach
+    void beforeEach() {
+        auditService = new AuditServiceImpl(auditEventRepository, BUFFER_CAPACITY, BATCH_SIZE, FLUSH_INTERVAL);
+    }
+
+    @Test
+    void givenRecordedEvents_flush_shouldInsertThemInBatches() {
+        for (int i = 0; i < BATCH_SIZE + 1; i++) {
+            auditService.record(AuditAction.USER_UPDATED, ACTOR, (long) i, null);
+        }
+
+        Assertions.assertEquals(BATCH_SIZE, auditService.flush());
+        Assertions.assertEquals(1, auditService.flush());
+        Assertions.assertEquals(0, auditService.flush());
+
+        ArgumentCaptor<List<AuditEvent>> batches = captureBatches(2);
+        Assertions.assertEquals(BATCH_SIZE, batches.getAllValues().get(0).size());
+        Assertions.assertEquals(0L, batches.getAllValues().get(0).get(0).targetUserId());
+        Assertions.assertEquals((long) BATCH_SIZE, batches.getAllValues().get(1).get(0).targetUserId());
+    }
+
+    @Test
+    void givenFullBuffer_record_shouldDropInsteadOfBlocking() {
+        for (int i = 0; i < BUFFER_CAPACITY + 3; i++) {
+            auditService.record(AuditAction.LOGIN_FAILED, ACTOR, null, null);
+        }
+
+        Assertions.assertEquals(3, auditService.getDroppedEvents());
+    }
+
+    @Test
+    void givenFailingInsert_flush_shouldCountBatchAsDropped() {
+        doThrow(new RuntimeException("database is down")).when(auditEventRepository).insertAuditEvents(any());
+        auditService.record(AuditAction.LOGIN_SUCCEEDED, ACTOR, USER_ID, null);
+
+        Assertions.assertEquals(1, auditService.flush());
+        Assertions.assertEquals(1, auditService.getDroppedEvents());
+    }
+
+    @Test
+    void givenConcurrentProducers_flush_shouldWriteEveryEventOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch done = new CountDownLatch(PRODUCERS);
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            long offset = (long) producer * EVENTS_PER_PRODUCER;
+            executor.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    auditService.record(AuditAction.USER_CREATED, ACTOR, offset + i, null);
+                }
+                done.countDown();
+            });
+        }
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        while (auditService.flush() > 0) {
+            // drain everything the producers published
+        }
+
+        ArgumentCaptor<List<AuditEvent>> batches = captureBatches(PRODUCERS * EVENTS_PER_PRODUCER / BATCH_SIZE);
+        List<Long> targetUserIds = new ArrayList<>();
+        batches.getAllValues().forEach(batch -> batch.forEach(event -> targetUserIds.add(event.targetUserId())));
+        Assertions.assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, targetUserIds.stream().distinct().count());
+        Assertions.assertEquals(0, auditService.getDroppedEvents());
+    }
+
+    @Test
+    void givenCurrentMonth_createPartitions_shouldCreateCurrentAndNextMonth() {
+        YearMonth month = YearMonth.now();
+
+        auditService.createPartitions();
+
+        verify(auditEventRepository).createMonthlyPartition(month);
+        verify(auditEventRepository).createMonthlyPartition(month.plusMonths(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<List<AuditEvent>> captureBatches(int expectedBatches) {
+        ArgumentCaptor<List<AuditEvent>> batches = ArgumentCaptor.forClass(List.class);
+        verify(auditEventRepository, times(expectedBatches)).insertAuditEvents(batches.capture());
+        return batches;
+    }
+
+    static class TestResources {
+        static final int BUFFER_CAPACITY = 1024;
+        static final int BATCH_SIZE = 100;
+        static final long FLUSH_INTERVAL = 10L;
+        static final int PRODUCERS = 4;
+        static final int EVENTS_PER_PRODUCER = 250;
+        static final String ACTOR = "admin@example.com";
+        static final Long USER_ID = 1L;
+    }
+}
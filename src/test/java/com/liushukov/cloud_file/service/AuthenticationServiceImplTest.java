@@ -1,6 +1,7 @@
 package com.liushukov.cloud_file.service;
 
 import com.liushukov.cloud_file.dto.UserLoginDto;
+import com.liushukov.cloud_file.entity.AuditAction;
 import com.liushukov.cloud_file.entity.Role;
 import com.liushukov.cloud_file.entity.User;
 import com.liushukov.cloud_file.repository.UserRepository;
@@ -16,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.util.Optional;
 import static org.mockito.Mockito.*;
 
@@ -25,6 +27,8 @@ public class AuthenticationServiceImplTest {
     private AuthenticationManager authenticationManager;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private AuditService auditService;
     @InjectMocks
     private AuthenticationServiceImpl authenticationService;
 
@@ -39,10 +43,22 @@ public class AuthenticationServiceImplTest {
                         new UsernamePasswordAuthenticationToken(USER_LOGIN_DTO.email(), USER_LOGIN_DTO.password()
                 ));
         verify(userRepository).findUserByEmail(USER_LOGIN_DTO.email());
+        verify(auditService).record(AuditAction.LOGIN_SUCCEEDED, USER_EMAIL, USER_ID, null);
         Assertions.assertNotNull(user);
         Assertions.assertEquals(user, buildUserEntity());
     }
 
+    @Test
+    void givenInvalidPassword_authenticate_shouldRecordFailedLogin() {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        Assertions.assertThrows(BadCredentialsException.class, () -> {
+            authenticationService.authenticate(USER_LOGIN_DTO);
+        });
+        verify(auditService).record(AuditAction.LOGIN_FAILED, USER_EMAIL, null, "BadCredentialsException");
+        verify(userRepository, never()).findUserByEmail(any());
+    }
+
     @Test
     void givenNonExistedUser_authenticate_shouldThrowBadCredentialsException() {
         when(userRepository.findUserByEmail(USER_EMAIL)).thenReturn(Optional.empty());
@@ -53,18 +69,21 @@ public class AuthenticationServiceImplTest {
     }
 
     static class TestResources {
+        static final Long USER_ID = 1L;
         static final String USER_FULL_NAME = "test_full_name";
         static final String USER_EMAIL = "test@gmail.com";
         static final String USER_PASSWORD = "test_password";
         static final UserLoginDto USER_LOGIN_DTO = new UserLoginDto(USER_EMAIL, USER_PASSWORD);
 
         static User buildUserEntity() {
-            return new User()
+            User user = new User()
                     .setFullName(USER_FULL_NAME)
                     .setEmail(USER_EMAIL)
                     .setRole(Role.USER)
                     .setEnabled(true)
                     .setPassword(USER_PASSWORD);
+            ReflectionTestUtils.setField(user, "id", USER_ID);
+            return user;
         }
     }
 }
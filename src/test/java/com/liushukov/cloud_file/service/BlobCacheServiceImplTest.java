@@ -0,0 +1,151 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.service.impl.BlobCacheServiceImpl;
+import com.liushukov.cloud_file.service.impl.FileEncryptionServiceImpl;
+import com.liushukov.cloud_file.service.impl.FileStorageServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static com.liushukov.cloud_file.service.BlobCacheServiceImplTest.TestResources.*;
+import static org.mockito.Mockito.*;
+
+public class BlobCacheServiceImplTest {
+    @TempDir
+    private Path rootDir;
+    private FileStorageService fileStorageService;
+    private BlobCacheService blobCacheService;
+
+    @BeforeEach
+    void beforeEach() {
+        FileEncryptionService fileEncryptionService = new FileEncryptionServiceImpl(MASTER_KEY, CHUNK_SIZE);
+        fileStorageService = new FileStorageServiceImpl(rootDir.toString(), fileEncryptionService);
+        blobCacheService = new BlobCacheServiceImpl(fileStorageService, CAPACITY, PAGE_SIZE, MAX_BLOB_SIZE);
+    }
+
+    private String store(byte[] content) {
+        return fileStorageService.store(USER_ID, FILE_NAME, new ByteArrayInputStream(content)).fileId();
+    }
+
+    private byte[] download(String fileId) throws IOException {
+        Resource resource = blobCacheService.findFile(USER_ID, fileId).orElseThrow();
+        try (InputStream content = resource.getInputStream()) {
+            return content.readAllBytes();
+        }
+    }
+
+    @Test
+    void givenRepeatedDownloads_findFile_shouldServeFromCache() throws IOException {
+        String fileId = store(BLOB_A);
+
+        Assertions.assertArrayEquals(BLOB_A, download(fileId));
+        Assertions.assertArrayEquals(BLOB_A, download(fileId));
+
+        Assertions.assertEquals(1, blobCacheService.getHits());
+        Assertions.assertEquals(1, blobCacheService.getMisses());
+        Assertions.assertEquals(0.5, blobCacheService.getHitRatio());
+        Assertions.assertEquals(2L * BLOB_A.length, blobCacheService.getBytesServed());
+        Assertions.assertEquals(PAGE_SIZE, blobCacheService.getUsedBytes());
+    }
+
+    @Test
+    void givenCacheFullOfHotBlobs_findFile_shouldAdmitColdBlobOnlyOnceItIsHotter() throws IOException {
+        String hotA = store(BLOB_A);
+        String hotB = store(BLOB_B);
+        for (String fileId : new String[]{hotA, hotA, hotB, hotB}) {
+            download(fileId);
+        }
+
+        String cold = store(BLOB_C);
+        Assertions.assertArrayEquals(BLOB_C, download(cold));
+        Assertions.assertArrayEquals(BLOB_C, download(cold));
+        Assertions.assertEquals(2, blobCacheService.getRejectedAdmissions());
+        Assertions.assertEquals(0, blobCacheService.getEvictions());
+
+        // the third request outweighs the least recently used entry
+        Assertions.assertArrayEquals(BLOB_C, download(cold));
+        Assertions.assertEquals(1, blobCacheService.getEvictions());
+        long hits = blobCacheService.getHits();
+        download(cold);
+        download(hotB);
+        Assertions.assertEquals(hits + 2, blobCacheService.getHits());
+    }
+
+    @Test
+    void givenOpenStream_evict_shouldKeepBytesUntilStreamIsClosed() throws IOException {
+        String fileId = store(BLOB_A);
+        download(fileId);
+
+        Resource resource = blobCacheService.findFile(USER_ID, fileId).orElseThrow();
+        try (InputStream content = resource.getInputStream()) {
+            blobCacheService.evict(USER_ID, fileId);
+            Assertions.assertEquals(PAGE_SIZE, blobCacheService.getUsedBytes());
+            Assertions.assertArrayEquals(BLOB_A, content.readAllBytes());
+        }
+        Assertions.assertEquals(0, blobCacheService.getUsedBytes());
+    }
+
+    @Test
+    void givenEvictDuringFill_findFile_shouldNotCacheStaleBlob() throws IOException {
+        FileStorageService storage = mock(FileStorageService.class);
+        BlobCacheService cacheService = new BlobCacheServiceImpl(storage, CAPACITY, PAGE_SIZE, MAX_BLOB_SIZE);
+        Resource file = new ByteArrayResource(BLOB_A) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                // the file is replaced while the cache is reading it
+                cacheService.evict(USER_ID, UNKNOWN_FILE_ID);
+                return super.getInputStream();
+            }
+        };
+        when(storage.isValidFileId(UNKNOWN_FILE_ID)).thenReturn(true);
+        when(storage.openFile(USER_ID, UNKNOWN_FILE_ID)).thenReturn(Optional.of(file));
+
+        try (InputStream content = cacheService.findFile(USER_ID, UNKNOWN_FILE_ID).orElseThrow().getInputStream()) {
+            Assertions.assertArrayEquals(BLOB_A, content.readAllBytes());
+        }
+
+        Assertions.assertEquals(0, cacheService.getUsedBytes());
+        cacheService.findFile(USER_ID, UNKNOWN_FILE_ID);
+        Assertions.assertEquals(0, cacheService.getHits());
+    }
+
+    @Test
+    void givenBlobAboveMaxSize_findFile_shouldServeFromDisk() throws IOException {
+        byte[] large = new byte[MAX_BLOB_SIZE + 1];
+        Arrays.fill(large, (byte) 'x');
+        String fileId = store(large);
+
+        Assertions.assertArrayEquals(large, download(fileId));
+        Assertions.assertEquals(0, blobCacheService.getUsedBytes());
+    }
+
+    @Test
+    void givenUnknownFileId_findFile_shouldReturnEmpty() {
+        Assertions.assertTrue(blobCacheService.findFile(USER_ID, UNKNOWN_FILE_ID).isEmpty());
+        Assertions.assertTrue(blobCacheService.findFile(USER_ID, "../" + UNKNOWN_FILE_ID).isEmpty());
+    }
+
+    static class TestResources {
+        static final long USER_ID = 7L;
+        static final String FILE_NAME = "avatar.png";
+        static final String UNKNOWN_FILE_ID = "0f8fad5b-d9cb-469f-a165-70867728950e.png";
+        static final String MASTER_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+        static final int CHUNK_SIZE = 8;
+        static final int PAGE_SIZE = 16;
+        static final long CAPACITY = 2L * PAGE_SIZE;
+        static final int MAX_BLOB_SIZE = PAGE_SIZE;
+        static final byte[] BLOB_A = "first hot blob".getBytes();
+        static final byte[] BLOB_B = "second hot blob".getBytes();
+        static final byte[] BLOB_C = "the cold blob".getBytes();
+    }
+}
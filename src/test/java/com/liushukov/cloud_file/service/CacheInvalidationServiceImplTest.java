@@ -0,0 +1,173 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserUpdateDto;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.mapper.UserMapper;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.impl.CacheInvalidationServiceImpl;
+import com.liushukov.cloud_file.service.impl.PrincipalCacheServiceImpl;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.function.BooleanSupplier;
+
+import static com.liushukov.cloud_file.service.CacheInvalidationServiceImplTest.TestResources.*;
+
+/**
+ * The application context is one instance; a second principal cache with its own listener connection
+ * stands in for another node behind the load balancer.
+ */
+@SpringBootTest
+@Testcontainers
+public class CacheInvalidationServiceImplTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private PrincipalCacheService principalCacheService;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private PrincipalCacheService otherNodeCache;
+    private CacheInvalidationServiceImpl otherNodeInvalidation;
+
+    @Container
+    static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgreSQLContainer.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgreSQLContainer.stop();
+    }
+
+    @BeforeEach
+    void beforeEach() throws InterruptedException {
+        userRepository.findUserByEmail(USER_EMAIL).ifPresent(userRepository::delete);
+        userRepository.save(userMapper.toEntity(buildUserDto(), Role.USER, true, new BCryptPasswordEncoder()));
+        // the user was replaced behind the services' back
+        principalCacheService.evictAll();
+
+        otherNodeCache = new PrincipalCacheServiceImpl(userRepository, PRINCIPAL_TTL, PRINCIPAL_MAX_SIZE);
+        otherNodeInvalidation = new CacheInvalidationServiceImpl(
+                dataSource, jdbcTemplate, otherNodeCache, CHANNEL, COALESCE_WINDOW, MAX_BATCH_SIZE, RECONNECT_DELAY
+        );
+        otherNodeInvalidation.start();
+        awaitTrue(otherNodeInvalidation::isListening);
+        awaitTrue(cacheInvalidationService::isListening);
+    }
+
+    @AfterEach
+    void afterEach() throws InterruptedException {
+        otherNodeInvalidation.stop();
+    }
+
+    private User findUser() {
+        return userRepository.findUserByEmail(USER_EMAIL).orElseThrow();
+    }
+
+    @Test
+    void givenCachedPrincipalOnBothNodes_updateUser_shouldEvictOnEveryNode() throws InterruptedException {
+        String passwordHash = principalCacheService.getPrincipal(USER_EMAIL).orElseThrow().password();
+        otherNodeCache.getPrincipal(USER_EMAIL).orElseThrow();
+
+        userService.updateUser(findUser(), buildUserUpdateDto());
+
+        awaitTrue(() -> !passwordHash.equals(otherNodeCache.getPrincipal(USER_EMAIL).orElseThrow().password()));
+        awaitTrue(() -> !passwordHash.equals(principalCacheService.getPrincipal(USER_EMAIL).orElseThrow().password()));
+    }
+
+    @Test
+    void givenCachedPrincipalOnOtherNode_deleteUser_shouldSeeDisabledAccount() throws InterruptedException {
+        Assertions.assertTrue(otherNodeCache.getPrincipal(USER_EMAIL).orElseThrow().isEnabled());
+
+        userService.deleteUser(findUser());
+
+        awaitTrue(() -> !otherNodeCache.getPrincipal(USER_EMAIL).map(AuthenticatedUser::isEnabled).orElse(true));
+    }
+
+    @Test
+    void givenBurstOfChanges_publishUserChanged_shouldCoalesceEvictions() throws InterruptedException {
+        long notificationsBefore = otherNodeInvalidation.getReceivedNotifications();
+        long batchesBefore = otherNodeInvalidation.getEvictionBatches();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < BURST_SIZE; i++) {
+                cacheInvalidationService.publishUserChanged("burst_" + i + "@gmail.com");
+            }
+        });
+
+        awaitTrue(() -> otherNodeInvalidation.getReceivedNotifications() - notificationsBefore == BURST_SIZE);
+        Assertions.assertTrue(otherNodeInvalidation.getEvictionBatches() - batchesBefore < BURST_SIZE);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    static class TestResources {
+        static final String USER_FULL_NAME = "test_cache_full_name";
+        static final String USER_EMAIL = "test_cache@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+        static final String USER_UPDATED_PASSWORD = "test_updated_password";
+        static final String CHANNEL = "user_changes";
+        static final long PRINCIPAL_TTL = 300_000L;
+        static final int PRINCIPAL_MAX_SIZE = 1_000;
+        static final int COALESCE_WINDOW = 5;
+        static final int MAX_BATCH_SIZE = 1_000;
+        static final long RECONNECT_DELAY = 100L;
+        static final int BURST_SIZE = 200;
+        static final long AWAIT_TIMEOUT = 5_000L;
+
+        static UserDto buildUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+
+        static UserUpdateDto buildUserUpdateDto() {
+            return new UserUpdateDto(
+                    null,
+                    null,
+                    USER_UPDATED_PASSWORD
+            );
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.BlockSignatureDto;
+import com.liushukov.cloud_file.dto.FileSignatureDto;
+import com.liushukov.cloud_file.dto.StoredFileDto;
+import com.liushukov.cloud_file.exception.InvalidDeltaException;
+import com.liushukov.cloud_file.service.impl.BlobCacheServiceImpl;
+import com.liushukov.cloud_file.service.impl.DeltaSyncServiceImpl;
+import com.liushukov.cloud_file.service.impl.FileEncryptionServiceImpl;
+import com.liushukov.cloud_file.service.impl.FileStorageServiceImpl;
+import com.liushukov.cloud_file.util.RollingChecksum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static com.liushukov.cloud_file.service.DeltaSyncServiceImplTest.TestResources.*;
+
+public class DeltaSyncServiceImplTest {
+    @TempDir
+    private Path rootDir;
+    private FileStorageService fileStorageService;
+    private DeltaSyncService deltaSyncService;
+
+    @BeforeEach
+    void beforeEach() {
+        FileEncryptionService fileEncryptionService = new FileEncryptionServiceImpl(MASTER_KEY, CHUNK_SIZE);
+        fileStorageService = new FileStorageServiceImpl(rootDir.toString(), fileEncryptionService);
+        BlobCacheService blobCacheService = new BlobCacheServiceImpl(
+                fileStorageService, CACHE_CAPACITY, PAGE_SIZE, PAGE_SIZE
+        );
+        deltaSyncService = new DeltaSyncServiceImpl(
+                fileStorageService, blobCacheService, DataSize.ofBytes(MAX_FILE_SIZE)
+        );
+    }
+
+    private String store(byte[] content) {
+        return fileStorageService.store(USER_ID, FILE_NAME, new ByteArrayInputStream(content)).fileId();
+    }
+
+    private byte[] read(String fileId) throws IOException {
+        try (InputStream content = fileStorageService.openFile(USER_ID, fileId).orElseThrow().getInputStream()) {
+            return content.readAllBytes();
+        }
+    }
+
+    @Test
+    void givenStoredFile_signatures_shouldMatchChecksumsOfEachBlock() {
+        byte[] content = content();
+        FileSignatureDto signatures = deltaSyncService.signatures(USER_ID, store(content), BLOCK_SIZE).orElseThrow();
+
+        Assertions.assertEquals(content.length, signatures.length());
+        Assertions.assertEquals(BLOCKS + 1, signatures.blocks().size());
+        // a client rolling over its copy finds every block at its offset
+        RollingChecksum checksum = new RollingChecksum();
+        checksum.reset(content, 0, BLOCK_SIZE);
+        for (int offset = 0; offset + BLOCK_SIZE <= content.length; offset++) {
+            if (offset % BLOCK_SIZE == 0) {
+                BlockSignatureDto block = signatures.blocks().get(offset / BLOCK_SIZE);
+                Assertions.assertEquals(block.weak(), checksum.value(), "offset " + offset);
+            }
+            if (offset + BLOCK_SIZE < content.length) {
+                checksum.roll(content[offset], content[offset + BLOCK_SIZE]);
+            }
+        }
+        BlockSignatureDto last = signatures.blocks().get(BLOCKS);
+        Assertions.assertEquals(RollingChecksum.of(content, BLOCKS * BLOCK_SIZE, TAIL), last.weak());
+    }
+
+    @Test
+    void givenEditedFile_applyDelta_shouldReconstructNewVersionAndRemoveOld() throws IOException {
+        byte[] content = content();
+        String fileId = store(content);
+        byte[] edit = "inserted in the middle".getBytes(StandardCharsets.UTF_8);
+
+        byte[] delta = delta(output -> {
+            copy(output, 0, 2);
+            data(output, edit);
+            copy(output, 2, BLOCKS - 1);
+            // pointing back to the start reopens the stored version
+            copy(output, 0, 1);
+        });
+        StoredFileDto stored = deltaSyncService
+                .applyDelta(USER_ID, fileId, BLOCK_SIZE, new ByteArrayInputStream(delta))
+                .orElseThrow();
+
+        byte[] expected = concat(
+                Arrays.copyOfRange(content, 0, 2 * BLOCK_SIZE),
+                edit,
+                Arrays.copyOfRange(content, 2 * BLOCK_SIZE, content.length),
+                Arrays.copyOfRange(content, 0, BLOCK_SIZE)
+        );
+        Assertions.assertNotEquals(fileId, stored.fileId());
+        Assertions.assertTrue(stored.fileId().endsWith(".bin"));
+        Assertions.assertEquals(expected.length, stored.size());
+        Assertions.assertArrayEquals(expected, read(stored.fileId()));
+        Assertions.assertTrue(fileStorageService.findFile(USER_ID, fileId).isEmpty());
+    }
+
+    @Test
+    void givenCopyPastEndOfFile_applyDelta_shouldThrowAndKeepStoredVersion() throws IOException {
+        byte[] content = content();
+        String fileId = store(content);
+        byte[] delta = delta(output -> copy(output, BLOCKS + 1, 1));
+
+        Assertions.assertThrows(InvalidDeltaException.class,
+                () -> deltaSyncService.applyDelta(USER_ID, fileId, BLOCK_SIZE, new ByteArrayInputStream(delta)));
+        Assertions.assertArrayEquals(content, read(fileId));
+        try (Stream<Path> files = Files.list(rootDir.resolve(Long.toString(USER_ID)))) {
+            Assertions.assertEquals(List.of(fileId), files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void givenCopiesBeyondMaxFileSize_applyDelta_shouldThrowAndKeepStoredVersion() throws IOException {
+        byte[] content = content();
+        String fileId = store(content);
+        byte[] delta = delta(output -> {
+            for (int i = 0; i <= MAX_FILE_SIZE / content.length; i++) {
+                copy(output, 0, BLOCKS + 1);
+            }
+        });
+
+        Assertions.assertThrows(InvalidDeltaException.class,
+                () -> deltaSyncService.applyDelta(USER_ID, fileId, BLOCK_SIZE, new ByteArrayInputStream(delta)));
+        Assertions.assertArrayEquals(content, read(fileId));
+    }
+
+    @Test
+    void givenConcurrentDeltas_applyDelta_shouldKeepOnlyTheFirstNewVersion() throws IOException {
+        String fileId = store(content());
+        byte[] delta = delta(output -> data(output, "replaced".getBytes(StandardCharsets.UTF_8)));
+        StoredFileDto[] winner = new StoredFileDto[1];
+        // the other delta completes while this one is still being read
+        InputStream racingDelta = new ByteArrayInputStream(delta) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                if (winner[0] == null) {
+                    winner[0] = deltaSyncService
+                            .applyDelta(USER_ID, fileId, BLOCK_SIZE, new ByteArrayInputStream(delta))
+                            .orElseThrow();
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        Assertions.assertTrue(deltaSyncService.applyDelta(USER_ID, fileId, BLOCK_SIZE, racingDelta).isEmpty());
+        try (Stream<Path> files = Files.list(rootDir.resolve(Long.toString(USER_ID)))) {
+            Assertions.assertEquals(List.of(winner[0].fileId()),
+                    files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void givenTruncatedDelta_applyDelta_shouldThrow() throws IOException {
+        String fileId = store(content());
+        byte[] delta = Arrays.copyOf(delta(output -> data(output, new byte[BLOCK_SIZE])), BLOCK_SIZE / 2);
+
+        Assertions.assertThrows(InvalidDeltaException.class,
+                () -> deltaSyncService.applyDelta(USER_ID, fileId, BLOCK_SIZE, new ByteArrayInputStream(delta)));
+    }
+
+    @Test
+    void givenUnknownFile_applyDelta_shouldReturnEmpty() {
+        Assertions.assertTrue(deltaSyncService.applyDelta(
+                USER_ID, UNKNOWN_FILE_ID, BLOCK_SIZE, new ByteArrayInputStream(new byte[0])).isEmpty());
+    }
+
+    private static byte[] content() {
+        byte[] content = new byte[BLOCKS * BLOCK_SIZE + TAIL];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+
+    static class TestResources {
+        static final String MASTER_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+        static final long USER_ID = 7L;
+        static final String FILE_NAME = "notes.bin";
+        static final String UNKNOWN_FILE_ID = "0f8fad5b-d9cb-469f-a165-70867728950e.bin";
+        static final int CHUNK_SIZE = 1000;
+        static final int PAGE_SIZE = 4096;
+        static final long CACHE_CAPACITY = 16L * PAGE_SIZE;
+        static final int BLOCK_SIZE = 512;
+        static final int BLOCKS = 5;
+        static final int TAIL = 100;
+        static final long MAX_FILE_SIZE = 8 * 1024;
+
+        interface DeltaWriter {
+            void write(DataOutputStream output) throws IOException;
+        }
+
+        static byte[] delta(DeltaWriter writer) throws IOException {
+            ByteArrayOutputStream delta = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(delta)) {
+                writer.write(output);
+            }
+            return delta.toByteArray();
+        }
+
+        static void copy(DataOutputStream output, int firstBlock, int blockCount) throws IOException {
+            output.writeByte(DeltaSyncService.COPY);
+            output.writeInt(firstBlock);
+            output.writeInt(blockCount);
+        }
+
+        static void data(DataOutputStream output, byte[] literal) throws IOException {
+            output.writeByte(DeltaSyncService.DATA);
+            output.writeInt(literal.length);
+            output.write(literal);
+        }
+
+        static byte[] concat(byte[]... parts) {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            for (byte[] part : parts) {
+                result.writeBytes(part);
+            }
+            return result.toByteArray();
+        }
+    }
+}
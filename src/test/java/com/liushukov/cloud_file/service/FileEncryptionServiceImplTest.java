@@ -0,0 +1,124 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.service.impl.FileEncryptionServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.liushukov.cloud_file.service.FileEncryptionServiceImplTest.TestResources.*;
+
+public class FileEncryptionServiceImplTest {
+    private final FileEncryptionService fileEncryptionService = new FileEncryptionServiceImpl(MASTER_KEY, CHUNK_SIZE);
+
+    @TempDir
+    private Path tempDir;
+
+    private Path encrypt(byte[] content) throws IOException {
+        Path file = tempDir.resolve(FILE_ID);
+        try (OutputStream target = Files.newOutputStream(file)) {
+            Assertions.assertEquals(content.length,
+                    fileEncryptionService.encrypt(USER_ID, FILE_ID, new ByteArrayInputStream(content), target));
+        }
+        return file;
+    }
+
+    private byte[] decrypt(long userId, Path file) throws IOException {
+        try (InputStream plaintext = fileEncryptionService.decrypt(userId, FILE_ID, file)) {
+            return plaintext.readAllBytes();
+        }
+    }
+
+    @Test
+    void givenContentOfAnySize_decrypt_shouldReturnOriginal() throws IOException {
+        for (int size : new int[]{0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, 3 * CHUNK_SIZE, 3 * CHUNK_SIZE + 5}) {
+            byte[] content = content(size);
+            Path file = encrypt(content);
+
+            Assertions.assertEquals(size, fileEncryptionService.plaintextLength(file));
+            Assertions.assertArrayEquals(content, decrypt(USER_ID, file), "size " + size);
+        }
+    }
+
+    @Test
+    void givenOffsetInsideLaterChunk_skip_shouldReadRangeOnly() throws IOException {
+        byte[] content = content(5 * CHUNK_SIZE + 7);
+        Path file = encrypt(content);
+        int offset = 3 * CHUNK_SIZE + 2;
+
+        try (InputStream plaintext = fileEncryptionService.decrypt(USER_ID, FILE_ID, file)) {
+            Assertions.assertEquals(offset, plaintext.skip(offset));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, offset, offset + RANGE_LENGTH),
+                    plaintext.readNBytes(RANGE_LENGTH));
+        }
+    }
+
+    @Test
+    void givenEncryptedFile_onDisk_shouldNotContainPlaintext() throws IOException {
+        byte[] content = "a plainly readable sentence".getBytes(StandardCharsets.UTF_8);
+        byte[] stored = Files.readAllBytes(encrypt(content));
+
+        Assertions.assertFalse(new String(stored, StandardCharsets.ISO_8859_1).contains("plainly"));
+    }
+
+    @Test
+    void givenOtherUser_decrypt_shouldFail() throws IOException {
+        Path file = encrypt(content(CHUNK_SIZE));
+
+        Assertions.assertThrows(IOException.class, () -> decrypt(USER_ID + 1, file));
+    }
+
+    @Test
+    void givenTamperedChunk_decrypt_shouldFail() throws IOException {
+        Path file = encrypt(content(2 * CHUNK_SIZE));
+        byte[] stored = Files.readAllBytes(file);
+        stored[stored.length - 1] ^= 1;
+        Files.write(file, stored);
+
+        Assertions.assertThrows(IOException.class, () -> decrypt(USER_ID, file));
+    }
+
+    @Test
+    void givenFileTruncatedAtChunkBoundary_decrypt_shouldFail() throws IOException {
+        Path file = encrypt(content(3 * CHUNK_SIZE));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - CHUNK_SIZE - TAG_LENGTH);
+        }
+
+        Assertions.assertThrows(IOException.class, () -> decrypt(USER_ID, file));
+    }
+
+    @Test
+    void givenNoMasterKey_constructor_shouldRefuseToStart() {
+        Assertions.assertThrows(IllegalStateException.class, () -> new FileEncryptionServiceImpl("", CHUNK_SIZE));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> new FileEncryptionServiceImpl(SHORT_MASTER_KEY, CHUNK_SIZE));
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    static class TestResources {
+        static final String MASTER_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+        static final String SHORT_MASTER_KEY = "c2hvcnQ=";
+        static final long USER_ID = 7L;
+        static final String FILE_ID = "0f8fad5b-d9cb-469f-a165-70867728950e.bin";
+        static final int CHUNK_SIZE = 64;
+        static final int TAG_LENGTH = 16;
+        static final int RANGE_LENGTH = 40;
+    }
+}
@@ -0,0 +1,134 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.config.JwtKeyRing;
+import com.liushukov.cloud_file.config.JwtSigningProperties;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.User;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+
+import static com.liushukov.cloud_file.service.JwtServiceTest.TestResources.*;
+
+public class JwtServiceTest {
+    private static KeyPair rsaKeyPair;
+    private static KeyPair ecKeyPair;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        rsaKeyPair = rsaGenerator.generateKeyPair();
+
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        ecKeyPair = ecGenerator.generateKeyPair();
+    }
+
+    @Test
+    void givenNoSigningKeys_generateToken_shouldSignWithLegacyHmacKey() {
+        JwtService jwtService = new JwtService(
+                new JwtKeyRing(new JwtSigningProperties(null, true, null), SECRET_KEY), EXPIRATION
+        );
+
+        String jwt = jwtService.generateToken(buildUserEntity());
+
+        Assertions.assertEquals("{\"alg\":\"HS256\"}", header(jwt));
+        Assertions.assertEquals(USER_EMAIL, jwtService.extractUsername(jwt));
+    }
+
+    @Test
+    void givenActiveRsaKey_generateToken_shouldSignWithKeyIdAndVerify() {
+        JwtKeyRing keyRing = new JwtKeyRing(
+                new JwtSigningProperties(RSA_KEY_ID, true, List.of(rsaKey(true))), SECRET_KEY
+        );
+        JwtService jwtService = new JwtService(keyRing, EXPIRATION);
+
+        String jwt = jwtService.generateToken(buildUserEntity());
+
+        Assertions.assertTrue(header(jwt).contains("\"kid\":\"" + RSA_KEY_ID + "\""));
+        Assertions.assertEquals(USER_EMAIL, jwtService.extractUsername(jwt));
+        Assertions.assertTrue(keyRing.getJwks().contains("\"kid\":\"" + RSA_KEY_ID + "\""));
+        Assertions.assertTrue(keyRing.getJwks().contains("\"kty\":\"RSA\""));
+    }
+
+    @Test
+    void givenRotatedKeys_extractAllClaims_shouldVerifyTokensOfRetiredKey() {
+        JwtService oldService = new JwtService(
+                new JwtKeyRing(new JwtSigningProperties(RSA_KEY_ID, false, List.of(rsaKey(true))), ""), EXPIRATION
+        );
+        String oldJwt = oldService.generateToken(buildUserEntity());
+
+        JwtKeyRing rotatedKeyRing = new JwtKeyRing(
+                new JwtSigningProperties(EC_KEY_ID, false, List.of(rsaKey(false), ecKey())), ""
+        );
+        JwtService rotatedService = new JwtService(rotatedKeyRing, EXPIRATION);
+
+        Assertions.assertEquals(USER_EMAIL, rotatedService.extractUsername(oldJwt));
+        Assertions.assertEquals(USER_EMAIL, rotatedService.extractUsername(rotatedService.generateToken(buildUserEntity())));
+        Assertions.assertTrue(rotatedKeyRing.getJwks().contains("\"crv\":\"P-256\""));
+    }
+
+    @Test
+    void givenLegacyTokensDisabled_extractAllClaims_shouldRejectHmacToken() {
+        JwtService legacyService = new JwtService(
+                new JwtKeyRing(new JwtSigningProperties(null, true, null), SECRET_KEY), EXPIRATION
+        );
+        String legacyJwt = legacyService.generateToken(buildUserEntity());
+        JwtService jwtService = new JwtService(
+                new JwtKeyRing(new JwtSigningProperties(RSA_KEY_ID, false, List.of(rsaKey(true))), SECRET_KEY),
+                EXPIRATION
+        );
+
+        Assertions.assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(legacyJwt));
+    }
+
+    private static JwtSigningProperties.Key rsaKey(boolean withPrivateKey) {
+        return new JwtSigningProperties.Key(
+                RSA_KEY_ID,
+                "RS256",
+                withPrivateKey ? Base64.getEncoder().encodeToString(rsaKeyPair.getPrivate().getEncoded()) : null,
+                Base64.getEncoder().encodeToString(rsaKeyPair.getPublic().getEncoded())
+        );
+    }
+
+    private static JwtSigningProperties.Key ecKey() {
+        return new JwtSigningProperties.Key(
+                EC_KEY_ID,
+                "ES256",
+                Base64.getEncoder().encodeToString(ecKeyPair.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(ecKeyPair.getPublic().getEncoded())
+        );
+    }
+
+    private static String header(String jwt) {
+        return new String(Base64.getUrlDecoder().decode(jwt.substring(0, jwt.indexOf('.'))), StandardCharsets.UTF_8);
+    }
+
+    static class TestResources {
+        static final String SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+        static final long EXPIRATION = 60_000L;
+        static final String RSA_KEY_ID = "rsa-2025-01";
+        static final String EC_KEY_ID = "ec-2025-06";
+        static final String USER_FULL_NAME = "test_full_name";
+        static final String USER_EMAIL = "test@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+
+        static User buildUserEntity() {
+            return new User()
+                    .setFullName(USER_FULL_NAME)
+                    .setEmail(USER_EMAIL)
+                    .setRole(Role.USER)
+                    .setEnabled(true)
+                    .setPassword(USER_PASSWORD);
+        }
+    }
+}
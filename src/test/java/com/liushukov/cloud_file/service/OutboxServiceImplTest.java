@@ -0,0 +1,247 @@
+package com.liushukov.cloud_file.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liushukov.cloud_file.dto.OutboxEvent;
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserUpdateDto;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.entity.UserEventType;
+import com.liushukov.cloud_file.repository.OutboxEventRepository;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static com.liushukov.cloud_file.service.OutboxServiceImplTest.TestResources.*;
+
+@SpringBootTest(properties = {
+        "app.outbox.poll-interval=50",
+        "app.outbox.retry-base-delay=100"
+})
+@Testcontainers
+public class OutboxServiceImplTest {
+    // stands in for the downstream system; started before the context so its port can be injected
+    private static final HttpServer SINK_STUB = startSinkStub();
+    private static final Queue<String> RECEIVED_BATCHES = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger FAILURES_REMAINING = new AtomicInteger();
+    private static final AtomicInteger REQUESTS = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Container
+    static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        dynamicPropertyRegistry.add("app.outbox.http.url",
+                () -> "http://localhost:" + SINK_STUB.getAddress().getPort() + SINK_PATH);
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgreSQLContainer.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgreSQLContainer.stop();
+        SINK_STUB.stop(0);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        FAILURES_REMAINING.set(0);
+        userRepository.findUserByEmail(USER_EMAIL).ifPresent(userRepository::delete);
+    }
+
+    private static HttpServer startSinkStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext(SINK_PATH, exchange -> {
+                REQUESTS.incrementAndGet();
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                if (FAILURES_REMAINING.getAndUpdate(failures -> Math.max(0, failures - 1)) > 0) {
+                    exchange.sendResponseHeaders(503, -1);
+                } else {
+                    RECEIVED_BATCHES.add(body);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private List<String> receivedEventTypes(long userId) {
+        List<String> types = new ArrayList<>();
+        for (String batch : RECEIVED_BATCHES) {
+            try {
+                for (JsonNode event : objectMapper.readTree(batch)) {
+                    if (event.get("userId").asLong() == userId) {
+                        Assertions.assertEquals(userId, event.get("payload").get("id").asLong());
+                        types.add(event.get("type").asText());
+                    }
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+        return types;
+    }
+
+    @Test
+    void givenUserLifecycle_relay_shouldDeliverEventsInOrder() throws InterruptedException {
+        Assertions.assertTrue(userService.createUser(buildUserDto()).isPresent());
+        User user = userRepository.findUserByEmail(USER_EMAIL).orElseThrow();
+        userService.updateUser(user, buildUserUpdateDto());
+        userService.deleteUser(userRepository.findUserByEmail(USER_EMAIL).orElseThrow());
+
+        awaitTrue(() -> receivedEventTypes(user.getId()).size() == 3);
+        Assertions.assertEquals(
+                List.of(UserEventType.USER_CREATED.name(), UserEventType.USER_UPDATED.name(),
+                        UserEventType.USER_DISABLED.name()),
+                receivedEventTypes(user.getId())
+        );
+    }
+
+    @Test
+    void givenFailingSink_relay_shouldRetryUntilDelivered() throws InterruptedException {
+        FAILURES_REMAINING.set(SINK_FAILURES);
+        int requestsBefore = REQUESTS.get();
+
+        Assertions.assertTrue(userService.createUser(buildUserDto()).isPresent());
+        long userId = userRepository.findUserByEmail(USER_EMAIL).orElseThrow().getId();
+
+        awaitTrue(() -> receivedEventTypes(userId).contains(UserEventType.USER_CREATED.name()));
+        Assertions.assertTrue(REQUESTS.get() - requestsBefore > SINK_FAILURES);
+        Assertions.assertEquals(1, receivedEventTypes(userId).size());
+    }
+
+    @Test
+    void givenEventsClaimedByAnotherRelay_claimDueOutboxEvents_shouldSkipThem() throws Exception {
+        // scheduled a day ahead so the running relay leaves them alone
+        Instant scheduledAt = Instant.now().plus(1, ChronoUnit.DAYS);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < LOCK_TEST_EVENTS; i++) {
+                outboxEventRepository.insertOutboxEvent(UserEventType.USER_UPDATED, LOCK_TEST_USER_ID, "{}", scheduledAt);
+            }
+        });
+        Instant due = scheduledAt.plus(1, ChronoUnit.DAYS);
+        Instant leaseUntil = due.plus(1, ChronoUnit.DAYS);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // holds the row locks of its claim until released, like a relay that has not committed yet
+            Future<List<OutboxEvent>> otherRelay = executor.submit(() -> transactionTemplate.execute(status -> {
+                List<OutboxEvent> events = outboxEventRepository.claimDueOutboxEvents(
+                        due, leaseUntil, LOCK_TEST_EVENTS / 2);
+                claimed.countDown();
+                awaitLatch(release);
+                return events;
+            }));
+            Assertions.assertTrue(claimed.await(AWAIT_TIMEOUT, TimeUnit.MILLISECONDS));
+
+            List<OutboxEvent> events = outboxEventRepository.claimDueOutboxEvents(due, leaseUntil, LOCK_TEST_EVENTS);
+            release.countDown();
+            List<OutboxEvent> otherEvents = otherRelay.get(AWAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+
+            Set<Long> ids = new HashSet<>();
+            events.stream().filter(event -> event.userId() == LOCK_TEST_USER_ID).forEach(event -> ids.add(event.id()));
+            otherEvents.stream().filter(event -> event.userId() == LOCK_TEST_USER_ID).forEach(event -> {
+                Assertions.assertTrue(ids.add(event.id()), "Event claimed by both relays");
+            });
+            Assertions.assertEquals(LOCK_TEST_EVENTS, ids.size());
+            // the leases keep every claimed event away from the next poll
+            Assertions.assertTrue(outboxEventRepository.claimDueOutboxEvents(due, leaseUntil, LOCK_TEST_EVENTS)
+                    .stream().noneMatch(event -> ids.contains(event.id())));
+            outboxEventRepository.deleteOutboxEvents(ids);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(AWAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    static class TestResources {
+        static final String SINK_PATH = "/events";
+        static final String USER_FULL_NAME = "test_outbox_full_name";
+        static final String USER_UPDATED_FULL_NAME = "test_outbox_updated_full_name";
+        static final String USER_EMAIL = "test_outbox@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+        static final int SINK_FAILURES = 2;
+        static final int LOCK_TEST_EVENTS = 4;
+        static final long LOCK_TEST_USER_ID = -1L;
+        static final long AWAIT_TIMEOUT = 10_000L;
+
+        static UserDto buildUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+
+        static UserUpdateDto buildUserUpdateDto() {
+            return new UserUpdateDto(
+                    USER_UPDATED_FULL_NAME,
+                    null,
+                    null
+            );
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.config.JwtKeyRing;
+import com.liushukov.cloud_file.config.JwtSigningProperties;
+import com.liushukov.cloud_file.dto.PresignedUrlDto;
+import com.liushukov.cloud_file.service.impl.PresignedUrlServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+
+import static com.liushukov.cloud_file.service.PresignedUrlServiceImplTest.TestResources.*;
+
+public class PresignedUrlServiceImplTest {
+    private final TokenRevocationService tokenRevocationService = Mockito.mock(TokenRevocationService.class);
+    private final PresignedUrlService presignedUrlService = buildService(SECRET_KEY);
+
+    @Test
+    void givenPresignedUrl_isValidDownload_shouldAcceptIt() {
+        UriComponents url = parse(presignedUrlService.presignDownload(USER_ID, FILE_ID, TTL));
+
+        Assertions.assertEquals(PresignedUrlService.PUBLIC_DOWNLOAD_PATH + USER_ID + "/" + FILE_ID, url.getPath());
+        Assertions.assertTrue(presignedUrlService.isValidDownload(
+                USER_ID, FILE_ID, expires(url), issued(url), signature(url)));
+    }
+
+    @Test
+    void givenTamperedUrl_isValidDownload_shouldRejectIt() {
+        UriComponents url = parse(presignedUrlService.presignDownload(USER_ID, FILE_ID, TTL));
+
+        Assertions.assertFalse(presignedUrlService.isValidDownload(
+                USER_ID + 1, FILE_ID, expires(url), issued(url), signature(url)));
+        Assertions.assertFalse(presignedUrlService.isValidDownload(
+                USER_ID, OTHER_FILE_ID, expires(url), issued(url), signature(url)));
+        Assertions.assertFalse(presignedUrlService.isValidDownload(
+                USER_ID, FILE_ID, expires(url) + 60, issued(url), signature(url)));
+        Assertions.assertFalse(presignedUrlService.isValidDownload(
+                USER_ID, FILE_ID, expires(url), issued(url) + 60, signature(url)));
+        Assertions.assertFalse(presignedUrlService.isValidDownload(
+                USER_ID, FILE_ID, expires(url), issued(url), "not base64!"));
+    }
+
+    @Test
+    void givenExpiredUrl_isValidDownload_shouldRejectIt() {
+        UriComponents url = parse(presignedUrlService.presignDownload(USER_ID, FILE_ID, TTL));
+        long expired = System.currentTimeMillis() / 1000L - 1;
+
+        Assertions.assertFalse(presignedUrlService.isValidDownload(
+                USER_ID, FILE_ID, expired, issued(url), signature(url)));
+    }
+
+    @Test
+    void givenOtherSecret_isValidDownload_shouldRejectUrl() {
+        UriComponents url = parse(buildService(OTHER_SECRET_KEY).presignDownload(USER_ID, FILE_ID, TTL));
+
+        Assertions.assertFalse(presignedUrlService.isValidDownload(
+                USER_ID, FILE_ID, expires(url), issued(url), signature(url)));
+    }
+
+    @Test
+    void givenRevokedUser_isValidDownload_shouldRejectUrlIssuedBefore() {
+        UriComponents url = parse(presignedUrlService.presignDownload(USER_ID, FILE_ID, TTL));
+        Mockito.when(tokenRevocationService.isUserTokenRevoked(USER_ID, Instant.ofEpochSecond(issued(url))))
+                .thenReturn(true);
+
+        Assertions.assertFalse(presignedUrlService.isValidDownload(
+                USER_ID, FILE_ID, expires(url), issued(url), signature(url)));
+    }
+
+    @Test
+    void givenTtlAboveMaximum_presignDownload_shouldThrow() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> presignedUrlService.presignDownload(USER_ID, FILE_ID, MAX_TTL + 1));
+    }
+
+    private PresignedUrlService buildService(String secretKey) {
+        return new PresignedUrlServiceImpl(
+                new JwtKeyRing(new JwtSigningProperties(null, true, null), secretKey), tokenRevocationService, MAX_TTL
+        );
+    }
+
+    private static UriComponents parse(PresignedUrlDto presignedUrl) {
+        return UriComponentsBuilder.fromUriString(presignedUrl.url()).build();
+    }
+
+    private static long expires(UriComponents url) {
+        return Long.parseLong(url.getQueryParams().getFirst("expires"));
+    }
+
+    private static long issued(UriComponents url) {
+        return Long.parseLong(url.getQueryParams().getFirst("issued"));
+    }
+
+    private static String signature(UriComponents url) {
+        return url.getQueryParams().getFirst("signature");
+    }
+
+    static class TestResources {
+        static final String SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+        static final String OTHER_SECRET_KEY = "9b1f0c2d4e6a8b0c1d3e5f7a9b2c4d6e8f0a1b3c5d7e9f1a2b4c6d8e0f1a3b5c";
+        static final long USER_ID = 42L;
+        static final String FILE_ID = "0f8fad5b-d9cb-469f-a165-70867728950e.png";
+        static final String OTHER_FILE_ID = "7c9e6679-7425-40de-944b-e07fc1f90ae7.png";
+        static final long TTL = 60_000L;
+        static final long MAX_TTL = 3_600_000L;
+    }
+}
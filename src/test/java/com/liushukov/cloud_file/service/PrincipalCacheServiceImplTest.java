@@ -0,0 +1,49 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.AuthenticatedUser;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.impl.PrincipalCacheServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static com.liushukov.cloud_file.service.PrincipalCacheServiceImplTest.TestResources.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PrincipalCacheServiceImplTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void givenFullCache_getPrincipal_shouldStillCacheNewPrincipal() {
+        PrincipalCacheService principalCacheService = new PrincipalCacheServiceImpl(userRepository, TTL, MAX_SIZE);
+        for (int i = 0; i <= MAX_SIZE; i++) {
+            String email = email(i);
+            when(userRepository.findPrincipalByEmail(email)).thenReturn(Optional.of(buildPrincipal(i)));
+            Assertions.assertTrue(principalCacheService.getPrincipal(email).isPresent());
+        }
+
+        principalCacheService.getPrincipal(email(MAX_SIZE));
+
+        verify(userRepository, times(1)).findPrincipalByEmail(email(MAX_SIZE));
+    }
+
+    static class TestResources {
+        static final long TTL = 300_000L;
+        static final int MAX_SIZE = 3;
+
+        static String email(int index) {
+            return "test_principal_" + index + "@gmail.com";
+        }
+
+        static AuthenticatedUser buildPrincipal(int index) {
+            return new AuthenticatedUser((long) index, email(index), "test_password", Role.USER, true);
+        }
+    }
+}
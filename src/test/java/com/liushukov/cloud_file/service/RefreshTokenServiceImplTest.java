@@ -0,0 +1,147 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.entity.RefreshToken;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.exception.InvalidRefreshTokenException;
+import com.liushukov.cloud_file.repository.RefreshTokenRepository;
+import com.liushukov.cloud_file.repository.UserRepository;
+import com.liushukov.cloud_file.service.impl.RefreshTokenServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static com.liushukov.cloud_file.service.RefreshTokenServiceImplTest.TestResources.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceImplTest {
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private UserRepository userRepository;
+    @InjectMocks
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    @BeforeEach
+    void beforeEach() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", REFRESH_EXPIRATION);
+        ReflectionTestUtils.setField(refreshTokenService, "purgeBatchSize", PURGE_BATCH_SIZE);
+    }
+
+    @Test
+    void givenUser_createRefreshToken_shouldStoreOnlyHash() {
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+
+        String refreshToken = refreshTokenService.createRefreshToken(buildUserEntity());
+
+        verify(refreshTokenRepository).save(captor.capture());
+        Assertions.assertNotNull(refreshToken);
+        Assertions.assertNotEquals(refreshToken, captor.getValue().getTokenHash());
+        Assertions.assertEquals(64, captor.getValue().getTokenHash().length());
+        Assertions.assertTrue(captor.getValue().getExpiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void givenValidToken_consumeRefreshToken_shouldDeleteTokenAndReturnUser() {
+        when(refreshTokenRepository.findRefreshTokenByHash(anyString()))
+                .thenReturn(Optional.of(buildRefreshToken(Instant.now().plusSeconds(60))));
+        when(refreshTokenRepository.deleteRefreshTokenByHash(anyString())).thenReturn(1);
+        when(userRepository.findUserById(USER_ID)).thenReturn(Optional.of(buildUserEntity()));
+
+        User user = refreshTokenService.consumeRefreshToken(REFRESH_TOKEN);
+
+        verify(refreshTokenRepository).deleteRefreshTokenByHash(anyString());
+        Assertions.assertEquals(USER_EMAIL, user.getEmail());
+    }
+
+    @Test
+    void givenUnknownToken_consumeRefreshToken_shouldThrowInvalidRefreshTokenException() {
+        when(refreshTokenRepository.findRefreshTokenByHash(anyString())).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> {
+            refreshTokenService.consumeRefreshToken(REFRESH_TOKEN);
+        });
+    }
+
+    @Test
+    void givenConcurrentlyUsedToken_consumeRefreshToken_shouldThrowInvalidRefreshTokenException() {
+        when(refreshTokenRepository.findRefreshTokenByHash(anyString()))
+                .thenReturn(Optional.of(buildRefreshToken(Instant.now().plusSeconds(60))));
+        when(refreshTokenRepository.deleteRefreshTokenByHash(anyString())).thenReturn(0);
+
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> {
+            refreshTokenService.consumeRefreshToken(REFRESH_TOKEN);
+        });
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void givenExpiredToken_consumeRefreshToken_shouldThrowInvalidRefreshTokenException() {
+        when(refreshTokenRepository.findRefreshTokenByHash(anyString()))
+                .thenReturn(Optional.of(buildRefreshToken(Instant.now().minusSeconds(60))));
+        when(refreshTokenRepository.deleteRefreshTokenByHash(anyString())).thenReturn(1);
+
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> {
+            refreshTokenService.consumeRefreshToken(REFRESH_TOKEN);
+        });
+    }
+
+    @Test
+    void givenDisabledOwner_consumeRefreshToken_shouldThrowInvalidRefreshTokenException() {
+        when(refreshTokenRepository.findRefreshTokenByHash(anyString()))
+                .thenReturn(Optional.of(buildRefreshToken(Instant.now().plusSeconds(60))));
+        when(refreshTokenRepository.deleteRefreshTokenByHash(anyString())).thenReturn(1);
+        when(userRepository.findUserById(USER_ID)).thenReturn(Optional.of(buildUserEntity().setEnabled(false)));
+
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> {
+            refreshTokenService.consumeRefreshToken(REFRESH_TOKEN);
+        });
+    }
+
+    @Test
+    void givenManyExpiredTokens_purgeExpiredRefreshTokens_shouldDeleteInBatches() {
+        when(refreshTokenRepository.deleteExpiredRefreshTokens(any(Instant.class), eq(PURGE_BATCH_SIZE)))
+                .thenReturn(PURGE_BATCH_SIZE, PURGE_BATCH_SIZE, 3);
+
+        refreshTokenService.purgeExpiredRefreshTokens();
+
+        verify(refreshTokenRepository, times(3)).deleteExpiredRefreshTokens(any(Instant.class), eq(PURGE_BATCH_SIZE));
+    }
+
+    static class TestResources {
+        static final long USER_ID = 7L;
+        static final String USER_FULL_NAME = "test_full_name";
+        static final String USER_EMAIL = "test@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+        static final String REFRESH_TOKEN = "test_refresh_token";
+        static final long REFRESH_EXPIRATION = 60_000L;
+        static final int PURGE_BATCH_SIZE = 100;
+
+        static User buildUserEntity() {
+            return new User()
+                    .setFullName(USER_FULL_NAME)
+                    .setEmail(USER_EMAIL)
+                    .setRole(Role.USER)
+                    .setEnabled(true)
+                    .setPassword(USER_PASSWORD);
+        }
+
+        static RefreshToken buildRefreshToken(Instant expiresAt) {
+            return new RefreshToken()
+                    .setTokenHash("hash")
+                    .setUserId(USER_ID)
+                    .setExpiresAt(expiresAt);
+        }
+    }
+}
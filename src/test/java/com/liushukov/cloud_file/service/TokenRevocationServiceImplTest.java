@@ -0,0 +1,97 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.entity.RevokedToken;
+import com.liushukov.cloud_file.entity.UserTokenRevocation;
+import com.liushukov.cloud_file.repository.RevokedTokenRepository;
+import com.liushukov.cloud_file.repository.UserTokenRevocationRepository;
+import com.liushukov.cloud_file.service.impl.TokenRevocationServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static com.liushukov.cloud_file.service.TokenRevocationServiceImplTest.TestResources.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceImplTest {
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+    @Mock
+    private UserTokenRevocationRepository userTokenRevocationRepository;
+    @InjectMocks
+    private TokenRevocationServiceImpl tokenRevocationService;
+
+    @BeforeEach
+    void beforeEach() {
+        ReflectionTestUtils.setField(tokenRevocationService, "jwtExpiration", JWT_EXPIRATION);
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedSize", EXPECTED_SIZE);
+    }
+
+    @Test
+    void givenPersistedRevocations_reload_shouldRebuildInMemoryState() {
+        Instant revokedBefore = Instant.now();
+        when(revokedTokenRepository.findAll()).thenReturn(List.of(buildRevokedToken()));
+        when(userTokenRevocationRepository.findAll()).thenReturn(List.of(buildUserTokenRevocation(revokedBefore)));
+
+        tokenRevocationService.reload();
+
+        Assertions.assertTrue(tokenRevocationService.isTokenRevoked(TOKEN_ID));
+        Assertions.assertFalse(tokenRevocationService.isTokenRevoked(OTHER_TOKEN_ID));
+        Assertions.assertTrue(tokenRevocationService.isUserTokenRevoked(USER_ID, revokedBefore.minusSeconds(1)));
+        Assertions.assertFalse(tokenRevocationService.isUserTokenRevoked(USER_ID, revokedBefore.plusSeconds(1)));
+        Assertions.assertFalse(tokenRevocationService.isUserTokenRevoked(OTHER_USER_ID, revokedBefore.minusSeconds(1)));
+    }
+
+    @Test
+    void givenTokenId_revokeToken_shouldPersistAndRejectToken() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        tokenRevocationService.revokeToken(TOKEN_ID, expiresAt);
+
+        verify(revokedTokenRepository).insertRevokedToken(TOKEN_ID, expiresAt);
+        Assertions.assertTrue(tokenRevocationService.isTokenRevoked(TOKEN_ID));
+        Assertions.assertFalse(tokenRevocationService.isTokenRevoked(null));
+    }
+
+    @Test
+    void givenUserId_revokeAllForUser_shouldPersistAndRejectEarlierTokens() {
+        Instant issuedAt = Instant.now().minusSeconds(5);
+
+        tokenRevocationService.revokeAllForUser(USER_ID);
+
+        verify(userTokenRevocationRepository).upsertUserTokenRevocation(eq(USER_ID), any(Instant.class));
+        Assertions.assertTrue(tokenRevocationService.isUserTokenRevoked(USER_ID, issuedAt));
+        Assertions.assertFalse(tokenRevocationService.isUserTokenRevoked(USER_ID, Instant.now().plusSeconds(5)));
+    }
+
+    static class TestResources {
+        static final long JWT_EXPIRATION = 60_000L;
+        static final int EXPECTED_SIZE = 1_000;
+        static final String TOKEN_ID = "6f1c1a52-4bd5-4b5b-9b0e-1d7c2f3f8a11";
+        static final String OTHER_TOKEN_ID = "0b9f2d33-7c1e-4f5a-8d2b-5e6a7b8c9d00";
+        static final long USER_ID = 1L;
+        static final long OTHER_USER_ID = 2L;
+
+        static RevokedToken buildRevokedToken() {
+            return new RevokedToken()
+                    .setJti(TOKEN_ID)
+                    .setExpiresAt(Instant.now().plusSeconds(60));
+        }
+
+        static UserTokenRevocation buildUserTokenRevocation(Instant revokedBefore) {
+            return new UserTokenRevocation()
+                    .setUserId(USER_ID)
+                    .setRevokedBefore(revokedBefore);
+        }
+    }
+}
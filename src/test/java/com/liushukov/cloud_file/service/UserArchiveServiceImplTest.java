@@ -0,0 +1,183 @@
+package com.liushukov.cloud_file.service;
+
+import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.entity.Role;
+import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.mapper.UserMapper;
+import com.liushukov.cloud_file.repository.UserRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.*;
+
+import static com.liushukov.cloud_file.service.UserArchiveServiceImplTest.TestResources.*;
+
+@SpringBootTest
+@Testcontainers
+public class UserArchiveServiceImplTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserArchiveService userArchiveService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Container
+    static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgreSQLContainer.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgreSQLContainer.stop();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        userRepository.findUserByEmail(USER_EMAIL).ifPresent(userRepository::delete);
+        jdbcTemplate.update("DELETE FROM users_archive WHERE email = ?", USER_EMAIL);
+    }
+
+    private long createUser(boolean disabled, Instant updatedAt) {
+        User user = userRepository.save(
+                userMapper.toEntity(buildUserDto(), Role.USER, true, new BCryptPasswordEncoder()));
+        if (disabled) {
+            userService.deleteUser(user);
+        }
+        // the entity timestamps cannot be set through JPA
+        jdbcTemplate.update("UPDATE users SET updated_at = ? WHERE id = ?", Timestamp.from(updatedAt), user.getId());
+        return user.getId();
+    }
+
+    private boolean isArchived(long id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM users_archive WHERE id = ?", Long.class, id) == 1;
+    }
+
+    @Test
+    void givenLongDisabledUser_archiveDisabledUsers_shouldMoveUserToArchive() {
+        long id = createUser(true, expiredTimestamp());
+        long archivedBefore = userArchiveService.getArchivedUsers();
+        long batchesBefore = userArchiveService.getArchiveBatches();
+
+        Assertions.assertTrue(userArchiveService.archiveDisabledUsers() >= 1);
+
+        Assertions.assertTrue(userRepository.findUserById(id).isEmpty());
+        Assertions.assertTrue(isArchived(id));
+        Assertions.assertTrue(userArchiveService.getArchivedUsers() - archivedBefore >= 1);
+        Assertions.assertTrue(userArchiveService.getArchiveBatches() > batchesBefore);
+        Assertions.assertTrue(userArchiveService.getMaxLockMillis() <= userArchiveService.getTotalLockMillis());
+    }
+
+    @Test
+    void givenRecentlyDisabledUser_archiveDisabledUsers_shouldKeepUser() {
+        long id = createUser(true, Instant.now());
+
+        userArchiveService.archiveDisabledUsers();
+
+        Assertions.assertTrue(userRepository.findUserById(id).isPresent());
+        Assertions.assertFalse(isArchived(id));
+    }
+
+    @Test
+    void givenLongInactiveEnabledUser_archiveDisabledUsers_shouldKeepUser() {
+        long id = createUser(false, expiredTimestamp());
+
+        userArchiveService.archiveDisabledUsers();
+
+        Assertions.assertTrue(userRepository.findUserById(id).isPresent());
+        Assertions.assertFalse(isArchived(id));
+    }
+
+    @Test
+    void givenUserLockedByAnotherTransaction_archiveDisabledUsers_shouldSkipUser() throws Exception {
+        long id = createUser(true, expiredTimestamp());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> lockHolder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", id);
+                locked.countDown();
+                awaitLatch(release);
+            }));
+            Assertions.assertTrue(locked.await(AWAIT_TIMEOUT, TimeUnit.MILLISECONDS));
+
+            userArchiveService.archiveDisabledUsers();
+            Assertions.assertFalse(isArchived(id));
+
+            release.countDown();
+            lockHolder.get(AWAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        userArchiveService.archiveDisabledUsers();
+        Assertions.assertTrue(isArchived(id));
+    }
+
+    @Test
+    void givenArchivedUser_createUser_shouldAllowEmailAgain() {
+        createUser(true, expiredTimestamp());
+        userArchiveService.archiveDisabledUsers();
+
+        Assertions.assertTrue(userService.createUser(buildUserDto()).isPresent());
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(AWAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class TestResources {
+        static final String USER_FULL_NAME = "test_archive_full_name";
+        static final String USER_EMAIL = "test_archive@gmail.com";
+        static final String USER_PASSWORD = "test_password";
+        static final long RETENTION_DAYS = 30L;
+        static final long AWAIT_TIMEOUT = 10_000L;
+
+        static Instant expiredTimestamp() {
+            return Instant.now().minus(RETENTION_DAYS + 1, ChronoUnit.DAYS);
+        }
+
+        static UserDto buildUserDto() {
+            return new UserDto(
+                    USER_FULL_NAME,
+                    USER_EMAIL,
+                    USER_PASSWORD
+            );
+        }
+    }
+}
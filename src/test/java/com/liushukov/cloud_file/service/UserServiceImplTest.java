@@ -1,30 +1,41 @@
 package com.liushukov.cloud_file.service;
 
+import com.liushukov.cloud_file.dto.UserBatchResultDto;
+import com.liushukov.cloud_file.dto.UserBatchUpdateDto;
+import com.liushukov.cloud_file.dto.UserChange;
 import com.liushukov.cloud_file.dto.UserDto;
+import com.liushukov.cloud_file.dto.UserEventPayload;
+import com.liushukov.cloud_file.dto.UserProfileDto;
+import com.liushukov.cloud_file.dto.UserSearchResultDto;
 import com.liushukov.cloud_file.dto.UserUpdateDto;
 import com.liushukov.cloud_file.entity.Role;
 import com.liushukov.cloud_file.entity.User;
+import com.liushukov.cloud_file.entity.UserEventType;
 import com.liushukov.cloud_file.mapper.UserMapper;
 import com.liushukov.cloud_file.repository.UserRepository;
 import com.liushukov.cloud_file.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.liushukov.cloud_file.service.UserServiceImplTest.TestResources.buildPageRequestDescending;
 import static org.mockito.Mockito.*;
@@ -39,6 +50,14 @@ public class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     @Mock
+    private TokenRevocationService tokenRevocationService;
+    @Mock
+    private CacheInvalidationService cacheInvalidationService;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
     private Authentication authentication;
     @Mock
     private UserDetails userDetails;
@@ -49,13 +68,13 @@ public class UserServiceImplTest {
     void givenAuthentication_getUserFromAuthentication_shouldReturnUser() {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(userDetails.getUsername()).thenReturn(USER_EMAIL);
-        when(userRepository.findUserByEmail(USER_EMAIL)).thenReturn(Optional.of(buildUserEntity()));
+        when(userRepository.findUserByEmail(USER_EMAIL)).thenReturn(Optional.of(buildPersistedUserEntity()));
 
         User user = userService.getUserFromAuthentication(authentication);
 
         Assertions.assertNotNull(user);
         verify(userRepository).findUserByEmail(user.getEmail());
-        Assertions.assertEquals(user, buildUserEntity());
+        Assertions.assertEquals(user, buildPersistedUserEntity());
     }
 
     @Test
@@ -78,6 +97,28 @@ public class UserServiceImplTest {
         Assertions.assertTrue(user.isPresent());
     }
 
+    @Test
+    void givenUserId_getUserProfileById_shouldReturnProjection() {
+        when(userRepository.findUserProfileById(USER_ID)).thenReturn(Optional.of(buildUserProfile()));
+
+        Optional<UserProfileDto> user = userService.getUserProfileById(USER_ID);
+
+        verify(userRepository).findUserProfileById(USER_ID);
+        verify(userRepository, never()).findUserById(USER_ID);
+        Assertions.assertEquals(Optional.of(buildUserProfile()), user);
+    }
+
+    @Test
+    void givenAuthentication_getUserProfileFromAuthentication_shouldReturnProjection() {
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(userDetails.getUsername()).thenReturn(USER_EMAIL);
+        when(userRepository.findActiveUserProfileByEmail(USER_EMAIL)).thenReturn(Optional.of(buildUserProfile()));
+
+        UserProfileDto user = userService.getUserProfileFromAuthentication(authentication);
+
+        Assertions.assertEquals(buildUserProfile(), user);
+    }
+
     @Test
     void givenUserId_getUserById_shouldReturnEmptyUser() {
         when(userRepository.findUserById(USER_ID)).thenReturn(Optional.empty());
@@ -109,62 +150,100 @@ public class UserServiceImplTest {
     @Test
     void givenPageable_getAllUsers_shouldReturnNonEmptyAscending() {
         Pageable pageable = buildPageRequestAscending();
-        when(userRepository.findAll(pageable))
-                .thenReturn(new PageImpl<>(buildUserListAscending()));
+        when(userRepository.findUserProfiles(pageable)).thenReturn(buildUserProfileListAscending());
 
-        List<User> users = userService.getAllUsers(SORT_BY, ORDER_BY, PAGE_NUMBER, PAGE_SIZE);
+        List<UserProfileDto> users = userService.getAllUsers(SORT_BY, ORDER_BY, PAGE_NUMBER, PAGE_SIZE);
 
-        verify(userRepository).findAll(pageable);
+        verify(userRepository).findUserProfiles(pageable);
         Assertions.assertEquals(2, users.size());
-        Assertions.assertEquals(users.get(0), buildUserEntity());
+        Assertions.assertEquals(users.get(0), buildUserProfile());
     }
 
     @Test
     void givenPageable_getAllUsers_shouldReturnNonEmptyDescending() {
         Pageable pageable = buildPageRequestDescending();
-        when(userRepository.findAll(pageable))
-                .thenReturn(new PageImpl<>(buildUserListDescending()));
+        when(userRepository.findUserProfiles(pageable)).thenReturn(buildUserProfileListDescending());
 
-        List<User> users = userService.getAllUsers(SORT_BY, ORDER_BY_DESC, PAGE_NUMBER, PAGE_SIZE);
-        verify(userRepository).findAll(pageable);
+        List<UserProfileDto> users = userService.getAllUsers(SORT_BY, ORDER_BY_DESC, PAGE_NUMBER, PAGE_SIZE);
+        verify(userRepository).findUserProfiles(pageable);
         Assertions.assertEquals(2, users.size());
-        Assertions.assertEquals(users.get(users.size() - 1), buildUserEntity());
+        Assertions.assertEquals(users.get(users.size() - 1), buildUserProfile());
     }
 
     @Test
     void givenPageable_getAllUsers_shouldReturnEmptyList() {
-        when(userRepository.findAll(any(PageRequest.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(userRepository.findUserProfiles(any(PageRequest.class))).thenReturn(Collections.emptyList());
 
-        List<User> users = userService.getAllUsers(SORT_BY, ORDER_BY, PAGE_NUMBER, PAGE_SIZE);
+        List<UserProfileDto> users = userService.getAllUsers(SORT_BY, ORDER_BY, PAGE_NUMBER, PAGE_SIZE);
 
-        verify(userRepository).findAll(any(PageRequest.class));
+        verify(userRepository).findUserProfiles(any(PageRequest.class));
         Assertions.assertEquals(0, users.size());
     }
 
+    @Test
+    void givenMoreMatchesThanPageSize_searchUsers_shouldReturnNextAfterId() {
+        when(userRepository.searchUserProfilesByPattern("%test\\_%", 0L, 2))
+                .thenReturn(buildUserProfileListAscending());
+
+        UserSearchResultDto result = userService.searchUsers("test_", "substring", 0L, 1);
+
+        Assertions.assertEquals(List.of(buildUserProfile()), result.users());
+        Assertions.assertEquals(USER_ID, result.nextAfterId());
+    }
+
+    @Test
+    void givenLastPage_searchUsers_shouldReturnNullNextAfterId() {
+        when(userRepository.searchUserProfilesBySimilarity("tset", USER_ID, 11))
+                .thenReturn(List.of(buildUserProfile2()));
+
+        UserSearchResultDto result = userService.searchUsers("tset", "fuzzy", USER_ID, 10);
+
+        Assertions.assertEquals(1, result.users().size());
+        Assertions.assertNull(result.nextAfterId());
+    }
+
     @Test
     void givenUserDto_createUser_shouldSaveUserAndReturnDto() {
-        when(userMapper.toEntity(buildUserDto(), Role.USER, true, passwordEncoder))
-                .thenReturn(buildUserEntity());
-        when(userRepository.save(buildUserEntity())).thenReturn(buildUserEntity());
-        when(userMapper.fromEntity(buildUserEntity())).thenReturn(buildUserDto());
+        User user = buildUserEntity();
+        when(userMapper.toEntity(buildUserDto(), Role.USER, true, passwordEncoder)).thenReturn(user);
+        when(userRepository.insertUserIfAbsent(user)).thenReturn(Optional.of(USER_ID));
+        when(userMapper.fromEntity(user)).thenReturn(buildUserDto());
 
-        UserDto userDto = userService.createUser(buildUserDto());
+        Optional<UserDto> userDto = userService.createUser(buildUserDto());
 
-        verify(userRepository).save(buildUserEntity());
-        Assertions.assertNotNull(userDto);
+        verify(userRepository).insertUserIfAbsent(user);
+        verify(userRepository, never()).save(any(User.class));
+        verify(outboxService).recordUserEvent(UserEventType.USER_CREATED, USER_ID, user);
+        Assertions.assertEquals(Optional.of(buildUserDto()), userDto);
     }
 
     @Test
-    void givenUserAndUserUpdateDto_updateUser_shouldUpdateUserAndReturnDto() {
+    void givenTakenEmail_createUser_shouldReturnEmpty() {
         User user = buildUserEntity();
+        when(userMapper.toEntity(buildUserDto(), Role.USER, true, passwordEncoder)).thenReturn(user);
+        when(userRepository.insertUserIfAbsent(user)).thenReturn(Optional.empty());
+
+        Optional<UserDto> userDto = userService.createUser(buildUserDto());
+
+        Assertions.assertTrue(userDto.isEmpty());
+        verify(userMapper, never()).fromEntity(any(User.class));
+        verify(outboxService, never()).recordUserEvent(any(), anyLong(), any());
+    }
+
+    @Test
+    void givenUserAndUserUpdateDto_updateUser_shouldUpdateUserAndReturnDto() {
+        User user = buildPersistedUserEntity();
         user.setEmail(USER_EMAIL);
-        when(userMapper.updateUserFromDto(buildUserUpdateDto(), buildUserEntity(), passwordEncoder)).thenReturn(user);
-        when(userRepository.save(buildUserEntity())).thenReturn(user);
+        when(userMapper.updateUserFromDto(buildUserUpdateDto(), buildPersistedUserEntity(), passwordEncoder))
+                .thenReturn(user);
+        when(userRepository.save(buildPersistedUserEntity())).thenReturn(user);
         when(userMapper.fromEntity(user)).thenReturn(buildUserUpdatedDto());
 
-        UserDto userDto = userService.updateUser(buildUserEntity(), buildUserUpdateDto());
+        UserDto userDto = userService.updateUser(buildPersistedUserEntity(), buildUserUpdateDto());
 
-        verify(userRepository).save(buildUserEntity());
+        verify(userRepository).save(buildPersistedUserEntity());
+        verify(cacheInvalidationService).publishUserChanged(USER_EMAIL);
+        verify(outboxService).recordUserEvent(UserEventType.USER_UPDATED, USER_ID, user);
         Assertions.assertNotNull(userDto);
         Assertions.assertEquals(userDto, buildUserUpdatedDto());
     }
@@ -173,18 +252,96 @@ public class UserServiceImplTest {
     void givenUser_deleteUser_shouldUpdateUserEnabled() {
         when(userRepository.save(any(User.class))).thenReturn(buildDisableUserEntity());
 
-        User testedUser = buildUserEntity();
+        User testedUser = buildPersistedUserEntity();
         userService.deleteUser(testedUser);
 
-        verify(userRepository).save(buildDisableUserEntity());
+        verify(userRepository).save(testedUser);
+        verify(tokenRevocationService).revokeAllForUser(USER_ID);
+        verify(cacheInvalidationService).publishUserChanged(USER_EMAIL);
+        verify(outboxService).recordUserEvent(UserEventType.USER_DISABLED, USER_ID, testedUser);
         Assertions.assertFalse(testedUser.getEnabled());
     }
 
+    @Test
+    void givenBatchOfUpdates_updateUsers_shouldReportStatusPerUserAndBatchTheChanges() {
+        runTransactionCallbacks();
+        when(userRepository.lockUsersByIds(Set.of(USER_ID, USER_ID_2, USER_INVALID_ID)))
+                .thenReturn(List.of(buildUserState(), buildUserState2()));
+        when(userMapper.canonicalEmail(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findTakenEmails(Set.of(USER_UPDATED_EMAIL))).thenReturn(List.of());
+
+        List<UserBatchResultDto> results = userService.updateUsers(List.of(
+                new UserBatchUpdateDto.Item(USER_ID, new UserUpdateDto(null, USER_UPDATED_EMAIL, null)),
+                new UserBatchUpdateDto.Item(USER_ID_2, new UserUpdateDto(null, USER_UPDATED_EMAIL, null)),
+                new UserBatchUpdateDto.Item(USER_INVALID_ID, new UserUpdateDto(USER_FULL_NAME_2, null, null))
+        ));
+
+        Assertions.assertEquals(List.of(
+                new UserBatchResultDto(USER_ID, 200),
+                new UserBatchResultDto(USER_ID_2, 409),
+                new UserBatchResultDto(USER_INVALID_ID, 404)
+        ), results);
+        verify(userRepository).updateUsers(List.of(new UserChange(USER_ID, null, USER_UPDATED_EMAIL, null)));
+        verify(outboxService).recordUserEvents(UserEventType.USER_UPDATED, List.of(
+                new UserEventPayload(USER_ID, USER_FULL_NAME, USER_UPDATED_EMAIL, Role.USER, true)
+        ));
+        verify(cacheInvalidationService).publishUsersChanged(Set.of(USER_EMAIL, USER_UPDATED_EMAIL));
+        verify(passwordEncoder, never()).encode(any());
+    }
+
+    @Test
+    void givenPasswordChange_updateUsers_shouldHashBeforeLockingTheUsers() {
+        runTransactionCallbacks();
+        when(passwordEncoder.encode(USER_PASSWORD)).thenReturn(USER_ENCODED_PASSWORD);
+        when(userRepository.lockUsersByIds(Set.of(USER_ID))).thenReturn(List.of(buildUserState()));
+
+        List<UserBatchResultDto> results = userService.updateUsers(List.of(
+                new UserBatchUpdateDto.Item(USER_ID, new UserUpdateDto(null, null, USER_PASSWORD))
+        ));
+
+        Assertions.assertEquals(List.of(new UserBatchResultDto(USER_ID, 200)), results);
+        InOrder inOrder = inOrder(passwordEncoder, transactionTemplate, userRepository);
+        inOrder.verify(passwordEncoder).encode(USER_PASSWORD);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(userRepository).lockUsersByIds(Set.of(USER_ID));
+        verify(userRepository).updateUsers(List.of(new UserChange(USER_ID, null, null, USER_ENCODED_PASSWORD)));
+    }
+
+    @Test
+    void givenBatchOfUserIds_deleteUsers_shouldDisableEnabledUsersOnly() {
+        when(userRepository.lockUsersByIds(Set.of(USER_ID, USER_ID_2, USER_INVALID_ID)))
+                .thenReturn(List.of(buildUserState(), buildDisabledUserState2()));
+
+        List<UserBatchResultDto> results = userService.deleteUsers(List.of(USER_ID, USER_ID, USER_ID_2, USER_INVALID_ID));
+
+        Assertions.assertEquals(List.of(
+                new UserBatchResultDto(USER_ID, 204),
+                new UserBatchResultDto(USER_ID, 400),
+                new UserBatchResultDto(USER_ID_2, 400),
+                new UserBatchResultDto(USER_INVALID_ID, 404)
+        ), results);
+        verify(userRepository).disableUsers(List.of(USER_ID));
+        verify(tokenRevocationService).revokeAllForUsers(List.of(USER_ID));
+        verify(outboxService).recordUserEvents(UserEventType.USER_DISABLED, List.of(
+                new UserEventPayload(USER_ID, USER_FULL_NAME, USER_EMAIL, Role.USER, false)
+        ));
+        verify(cacheInvalidationService).publishUsersChanged(List.of(USER_EMAIL));
+    }
+
+    private void runTransactionCallbacks() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     static class TestResources {
         static final Long USER_ID = 1L;
+        static final Long USER_ID_2 = 2L;
+        static final Long USER_INVALID_ID = 999L;
+        static final String USER_UPDATED_EMAIL = "test_updated@gmail.com";
         static final String USER_FULL_NAME = "test_full_name";
         static final String USER_EMAIL = "test@gmail.com";
         static final String USER_PASSWORD = "test_password";
+        static final String USER_ENCODED_PASSWORD = "encoded_password";
         static final String SORT_BY = "id";
         static final String ORDER_BY = "asc";
         static final String ORDER_BY_DESC = "desc";
@@ -192,7 +349,6 @@ public class UserServiceImplTest {
         static final int PAGE_SIZE = 10;
         static final String USER_FULL_NAME_2 = "test_full_name_2";
         static final String USER_EMAIL_2 = "test_2@gmail.com";
-        static final String USER_PASSWORD_2 = "test_password_2";
 
         static UserDto buildUserDto() {
             return new UserDto(
@@ -227,6 +383,13 @@ public class UserServiceImplTest {
                     .setPassword(USER_PASSWORD);
         }
 
+        // equality is by id, so users that stand for stored rows need one
+        static User buildPersistedUserEntity() {
+            User user = buildUserEntity();
+            ReflectionTestUtils.setField(user, "id", USER_ID);
+            return user;
+        }
+
         static User buildDisableUserEntity() {
             return new User()
                     .setFullName(USER_FULL_NAME)
@@ -244,21 +407,32 @@ public class UserServiceImplTest {
             return PageRequest.of(PAGE_NUMBER, PAGE_SIZE, Sort.by(SORT_BY).descending());
         }
 
-        static User buildUserEntity2() {
-            return new User()
-                    .setFullName(USER_FULL_NAME_2)
-                    .setEmail(USER_EMAIL_2)
-                    .setRole(Role.ADMIN)
-                    .setEnabled(true)
-                    .setPassword(USER_PASSWORD_2);
+        static UserProfileDto buildUserProfile() {
+            return new UserProfileDto(USER_ID, null, null, USER_FULL_NAME, USER_EMAIL, Role.USER, true);
+        }
+
+        static UserProfileDto buildUserProfile2() {
+            return new UserProfileDto(USER_ID + 1, null, null, USER_FULL_NAME_2, USER_EMAIL_2, Role.ADMIN, true);
+        }
+
+        static UserEventPayload buildUserState() {
+            return new UserEventPayload(USER_ID, USER_FULL_NAME, USER_EMAIL, Role.USER, true);
+        }
+
+        static UserEventPayload buildUserState2() {
+            return new UserEventPayload(USER_ID_2, USER_FULL_NAME_2, USER_EMAIL_2, Role.USER, true);
+        }
+
+        static UserEventPayload buildDisabledUserState2() {
+            return new UserEventPayload(USER_ID_2, USER_FULL_NAME_2, USER_EMAIL_2, Role.USER, false);
         }
 
-        static List<User> buildUserListAscending() {
-            return List.of(buildUserEntity(), buildUserEntity2());
+        static List<UserProfileDto> buildUserProfileListAscending() {
+            return List.of(buildUserProfile(), buildUserProfile2());
         }
 
-        static List<User> buildUserListDescending() {
-            return List.of(buildUserEntity2(), buildUserEntity());
+        static List<UserProfileDto> buildUserProfileListDescending() {
+            return List.of(buildUserProfile2(), buildUserProfile());
         }
     }
 }